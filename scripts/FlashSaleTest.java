@@ -0,0 +1,106 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Flash-sale check against a running app: creates one product with a small
+ * stock, releases all buyers at once to each reserve one unit in their own
+ * cart, and fails unless exactly the stock was sold and nothing more.
+ *
+ * Usage: java FlashSaleTest.java <base-url> <buyers> <stock>
+ */
+public class FlashSaleTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern QUANTITY = Pattern.compile("\"quantity\"\\s*:\\s*(\\d+)");
+    private static final Pattern STATUS = Pattern.compile("\"status\"\\s*:\\s*\"(\\w+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        int buyers = Integer.parseInt(args[1]);
+        int stock = Integer.parseInt(args[2]);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        String product = send(client, post(baseUrl + "/v1/api/products", """
+                {"name":"Flash Sale Comet","description":"Limited comet edition","price":9.99,
+                 "quantity":%d,"category":"SPACE_THINGIES","status":"AVAILABLE"}""".formatted(stock)));
+        long productId = Long.parseLong(find(ID, product));
+
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < buyers; i++) {
+                pool.submit(() -> {
+                    try {
+                        String cart = send(client, post(baseUrl + "/v1/api/carts", ""));
+                        String cartId = find(ID, cart);
+                        start.await();
+                        int status = client.send(post(baseUrl + "/v1/api/carts/" + cartId + "/items",
+                                        "{\"productId\":" + productId + ",\"quantity\":1}"),
+                                HttpResponse.BodyHandlers.discarding()).statusCode();
+                        (status == 200 ? reserved : status == 409 ? rejected : failed).incrementAndGet();
+                    } catch (Exception ex) {
+                        failed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(Duration.ofSeconds(2));
+            start.countDown();
+        }
+
+        String soldOut = send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/v1/api/products/" + productId))
+                .GET().build());
+        int remaining = Integer.parseInt(find(QUANTITY, soldOut));
+        String status = find(STATUS, soldOut);
+
+        System.out.printf("buyers=%d stock=%d reserved=%d rejected=%d failed=%d remaining=%d status=%s%n",
+                buyers, stock, reserved.get(), rejected.get(), failed.get(), remaining, status);
+        boolean ok = reserved.get() == Math.min(stock, buyers - failed.get())
+                && reserved.get() + remaining == stock
+                && (remaining > 0 || "OUT_OF_STOCK".equals(status));
+        if (!ok) {
+            System.out.println("OVERSOLD OR LOST STOCK");
+            System.exit(1);
+        }
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " -> " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String find(Pattern pattern, String json) {
+        Matcher matcher = pattern.matcher(json);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response: " + json);
+        }
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,87 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator: every client sends its next request as soon
+ * as the previous one completes, so the measured rate is the maximum the server
+ * sustains at that concurrency.
+ *
+ * Usage: java LoadTest.java <url> <concurrency> <seconds> [label]
+ */
+public class LoadTest {
+
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(args[2]));
+        String label = args.length > 3 ? args[3] : uri.toString();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        long measureFrom = System.nanoTime() + WARMUP_NANOS;
+        long measureUntil = measureFrom + durationNanos;
+        Queue<long[]> samples = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long now = System.nanoTime();
+                    while (now < measureUntil) {
+                        long start = now;
+                        boolean failed;
+                        try {
+                            failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                        } catch (Exception ex) {
+                            failed = true;
+                        }
+                        now = System.nanoTime();
+                        if (start >= measureFrom && now < measureUntil) {
+                            if (failed) {
+                                errors.incrementAndGet();
+                            } else {
+                                if (count == latencies.length) {
+                                    latencies = Arrays.copyOf(latencies, count * 2);
+                                }
+                                latencies[count++] = now - start;
+                            }
+                        }
+                    }
+                    samples.add(Arrays.copyOf(latencies, count));
+                });
+            }
+        }
+
+        long[] all = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%-10s concurrency=%d requests=%d errors=%d rps=%.0f p50=%.2fms p99=%.2fms p999=%.2fms%n",
+                label, concurrency, all.length, errors.get(), all.length / seconds,
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Runs the same closed-loop load against the app served on platform threads and
+# on virtual threads, and prints throughput and latency percentiles for both.
+#
+# Usage: scripts/load-test.sh [concurrency] [seconds] [path]
+set -euo pipefail
+
+CONCURRENCY=${1:-1000}
+DURATION=${2:-30}
+REQUEST_PATH=${3:-/v1/api/products?limit=50}
+PORT=${PORT:-8080}
+
+cd "$(dirname "$0")/.."
+mvn -B -q package -DskipTests
+JAR=$(ls target/cosmocats-*.jar | grep -v '\.original$' | head -n 1)
+
+for mode in platform virtual; do
+    virtual=false
+    [ "$mode" = virtual ] && virtual=true
+
+    java -jar "$JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$virtual" \
+        > "target/load-test-$mode.log" 2>&1 &
+    app_pid=$!
+    trap 'kill $app_pid 2>/dev/null || true' EXIT
+
+    until curl -sf -o /dev/null "http://localhost:$PORT/v1/api/products?limit=1"; do
+        sleep 0.2
+    done
+
+    java scripts/LoadTest.java "http://localhost:$PORT$REQUEST_PATH" "$CONCURRENCY" "$DURATION" "$mode"
+
+    kill "$app_pid"
+    wait "$app_pid" 2>/dev/null || true
+done
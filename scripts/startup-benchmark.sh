@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Measures the time from launching the app to its first successful request, for
+# the plain jar, the extracted jar with a class data sharing archive, and the
+# same with the AOT-processed context. A native image in target/cosmocats is
+# measured too when present (mvn -Pnative native:compile). Prints the median
+# and best of several runs per mode.
+#
+# Usage: scripts/startup-benchmark.sh [runs] [path]
+set -euo pipefail
+
+RUNS=${1:-5}
+REQUEST_PATH=${2:-/v1/api/products?limit=1}
+PORT=${PORT:-8080}
+
+if curl -s -o /dev/null "http://localhost:$PORT/"; then
+    echo "Something is already listening on port $PORT" >&2
+    exit 1
+fi
+
+cd "$(dirname "$0")/.."
+mvn -B -q -Paot package -DskipTests
+JAR=$(ls target/cosmocats-*.jar | grep -v '\.original$' | head -n 1)
+EXTRACTED=target/application/$(basename "$JAR")
+ARCHIVE=target/application/application.jsa
+
+modes=(jar cds aot-cds)
+[ -x target/cosmocats ] && modes+=(native)
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# exec, so the pid of the background job is the app's own.
+launch() {
+    case "$1" in
+        jar)     exec java -jar "$JAR" --server.port="$PORT" ;;
+        cds)     exec java -XX:SharedArchiveFile="$ARCHIVE" -jar "$EXTRACTED" --server.port="$PORT" ;;
+        aot-cds) exec java -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true -jar "$EXTRACTED" \
+                     --server.port="$PORT" ;;
+        native)  exec target/cosmocats --server.port="$PORT" ;;
+    esac
+}
+
+for mode in "${modes[@]}"; do
+    timings=()
+    for run in $(seq 1 "$RUNS"); do
+        started=$(now_ms)
+        launch "$mode" > "target/startup-$mode-$run.log" 2>&1 &
+        app_pid=$!
+        trap 'kill $app_pid 2>/dev/null || true' EXIT
+
+        until curl -sf -o /dev/null "http://localhost:$PORT$REQUEST_PATH"; do
+            sleep 0.01
+        done
+        timings+=($(( $(now_ms) - started )))
+
+        kill "$app_pid"
+        wait "$app_pid" 2>/dev/null || true
+    done
+
+    sorted=($(printf '%s\n' "${timings[@]}" | sort -n))
+    printf '%-8s median %6d ms   best %6d ms   (%s runs)\n' \
+        "$mode" "${sorted[$(( RUNS / 2 ))]}" "${sorted[0]}" "$RUNS"
+done
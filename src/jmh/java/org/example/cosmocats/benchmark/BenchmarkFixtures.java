@@ -0,0 +1,60 @@
+package org.example.cosmocats.benchmark;
+
+import jakarta.validation.Validation;
+import org.example.cosmocats.cache.ProductJsonCache;
+import org.example.cosmocats.codec.ProductDtoCodec;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.mapper.CategoryMapperImpl;
+import org.example.cosmocats.mapper.ProductMapperImpl;
+import org.example.cosmocats.repository.impl.InMemoryCategoryRepository;
+import org.example.cosmocats.repository.impl.InMemoryProductRepository;
+import org.example.cosmocats.service.impl.CategoryServiceImpl;
+import org.example.cosmocats.service.impl.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+final class BenchmarkFixtures {
+
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+
+    private BenchmarkFixtures() {
+    }
+
+    static ProductServiceImpl newProductService() {
+        InMemoryProductRepository productRepository = new InMemoryProductRepository();
+        return new ProductServiceImpl(productRepository, new ProductMapperImpl(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ProductJsonCache(new ProductDtoCodec(), 100_000),
+                new CategoryServiceImpl(new InMemoryCategoryRepository(), productRepository, new CategoryMapperImpl()));
+    }
+
+    static ProductDTO productDTO(long seed) {
+        return new ProductDTO(null,
+                "Galaxy Star Ball " + seed,
+                "Anti-gravity toy that floats in the galaxy, batch " + seed,
+                BigDecimal.valueOf(100 + seed % 10_000, 2),
+                (int) (seed % 500),
+                CATEGORIES[(int) (seed % CATEGORIES.length)].name(),
+                ProductStatus.AVAILABLE.name());
+    }
+
+    static Product product(long seed) {
+        Product product = new Product();
+        product.setId(seed);
+        product.setName("Galaxy Star Ball " + seed);
+        product.setDescription("Anti-gravity toy that floats in the galaxy, batch " + seed);
+        product.setPrice(BigDecimal.valueOf(100 + seed % 10_000, 2));
+        product.setQuantity((int) (seed % 500));
+        product.setCategory(Category.of(CATEGORIES[(int) (seed % CATEGORIES.length)]));
+        product.setStatus(ProductStatus.AVAILABLE);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(LocalDateTime.now());
+        product.setVersion(1L);
+        return product;
+    }
+}
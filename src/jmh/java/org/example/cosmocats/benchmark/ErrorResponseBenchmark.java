@@ -0,0 +1,114 @@
+package org.example.cosmocats.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.cosmocats.controller.GlobalException.ProblemResponseWriter;
+import org.example.cosmocats.controller.GlobalException.ProblemTemplate;
+import org.example.cosmocats.service.exception.ProductNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.ProblemDetailJacksonMixin;
+import org.springframework.validation.FieldError;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a 404 and a 400 with a problem body, from throwing the
+ * exception to the last byte. Run with {@code -prof gc} to see allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private static final ProblemTemplate PRODUCT_NOT_FOUND = ProblemTemplate.of(HttpStatus.NOT_FOUND, "Product Not Found");
+    private static final ProblemTemplate VALIDATION_FAILED =
+            ProblemTemplate.of(HttpStatus.BAD_REQUEST, "Validation Failed", "One or more fields have invalid values.");
+    private static final String PATH = "/v1/api/products/999999";
+
+    // Depth of the call stack below the handler when the service throws, as in a servlet container.
+    @Param({"16", "96"})
+    private int stackDepth;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .addMixIn(ProblemDetail.class, ProblemDetailJacksonMixin.class);
+    private final ProblemResponseWriter writer = new ProblemResponseWriter();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    private final List<FieldError> fieldErrors = List.of(
+            new FieldError("productDTO", "name", "Product name must contain specific cosmic-related terms"),
+            new FieldError("productDTO", "price", "Price is required"),
+            new FieldError("productDTO", "quantity", "Quantity is required"),
+            new FieldError("productDTO", "category", "Invalid category"),
+            new FieldError("productDTO", "description", "Description is required"));
+
+    @Benchmark
+    public int notFoundLegacy() throws IOException {
+        out.reset();
+        try {
+            lookup(stackDepth, true);
+        } catch (RuntimeException ex) {
+            ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
+            problemDetail.setTitle("Product Not Found");
+            problemDetail.setDetail(ex.getMessage());
+            problemDetail.setProperty("timestamp", LocalDateTime.now());
+            problemDetail.setProperty("path", ("uri=" + PATH).replace("uri=", ""));
+            objectMapper.writeValue(out, problemDetail);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int notFoundStreamed() throws IOException {
+        out.reset();
+        try {
+            lookup(stackDepth, false);
+        } catch (ProductNotFoundException ex) {
+            writer.writeBody(out, PRODUCT_NOT_FOUND, ex.getMessage(), PATH);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int validationLegacy() throws IOException {
+        out.reset();
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        problemDetail.setTitle("Validation Failed");
+        problemDetail.setDetail("One or more fields have invalid values.");
+        Map<String, String> errors = new HashMap<>();
+        fieldErrors.forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+        problemDetail.setProperty("fieldErrors", errors);
+        problemDetail.setProperty("timestamp", LocalDateTime.now());
+        problemDetail.setProperty("path", ("uri=" + PATH).replace("uri=", ""));
+        objectMapper.writeValue(out, problemDetail);
+        return out.size();
+    }
+
+    @Benchmark
+    public int validationStreamed() throws IOException {
+        out.reset();
+        writer.writeFieldErrorsBody(out, VALIDATION_FAILED, PATH, fieldErrors);
+        return out.size();
+    }
+
+    private static void lookup(int depth, boolean legacy) {
+        if (depth > 0) {
+            lookup(depth - 1, legacy);
+            return;
+        }
+        String message = "Product not found - wrong id: 999999";
+        // The exception as it was before it became stackless.
+        throw legacy ? new RuntimeException(message) : new ProductNotFoundException(message);
+    }
+}
@@ -0,0 +1,283 @@
+package org.example.cosmocats.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cosmocats.changes.ProductChangeLog;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.mapper.ProductMapperImpl;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.ProductNotFoundException;
+import org.example.cosmocats.service.impl.CachingProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes against an embedded H2 database standing in for a
+ * persistent backend, with and without the read-through cache in front. Keys
+ * are skewed so a small part of the catalog takes most of the reads. The
+ * number of database calls per operation is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+public class ProductCacheBenchmark {
+
+    @Param({"off", "on"})
+    private String cache;
+
+    @Param({"100000"})
+    private int catalogSize;
+
+    @Param({"0.05"})
+    private double writeRatio;
+
+    private H2ProductService database;
+    private ProductChangeLog changeLog;
+    private ProductService productService;
+    private final LongAdder operations = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        database = new H2ProductService(catalogSize);
+        changeLog = new ProductChangeLog(1024);
+        productService = "on".equals(cache)
+                ? new CachingProductService(database, changeLog, new ProductMapperImpl(), new SimpleMeterRegistry(),
+                        catalogSize / 10, 1_000, Duration.ofSeconds(30), Duration.ofMinutes(5))
+                : database;
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        database.calls.set(0);
+        operations.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n%s cache: %.3f database calls per operation%n",
+                cache, (double) database.calls.get() / Math.max(1, operations.sum()));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        if (productService instanceof CachingProductService caching) {
+            caching.close();
+        }
+        changeLog.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Object mixed() {
+        operations.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long productId = skewedId(random);
+        if (random.nextDouble() < writeRatio) {
+            ProductDTO update = BenchmarkFixtures.productDTO(random.nextLong(catalogSize));
+            return productService.updateProduct(productId, update);
+        }
+        // What the controller does for a GET.
+        return productService.getVersionedProduct(productId);
+    }
+
+    // Log-uniform ids, roughly Zipfian: the first tenth of the catalog takes about 80% of the traffic.
+    private long skewedId(ThreadLocalRandom random) {
+        return Math.min(catalogSize, (long) Math.exp(random.nextDouble() * Math.log(catalogSize)));
+    }
+
+    /**
+     * Just enough of a JDBC-backed product service for reads by id and
+     * updates; every statement counts as a database call.
+     */
+    static final class H2ProductService implements ProductService {
+
+        private static final String URL = "jdbc:h2:mem:cosmocats;DB_CLOSE_DELAY=-1";
+
+        final AtomicLong calls = new AtomicLong();
+        private final AtomicLong catalogVersion = new AtomicLong();
+        private final Connection setup;
+        private final ThreadLocal<Connection> connections = ThreadLocal.withInitial(() -> {
+            try {
+                return DriverManager.getConnection(URL);
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        H2ProductService(int catalogSize) throws SQLException {
+            setup = DriverManager.getConnection(URL);
+            try (var statement = setup.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS product");
+                statement.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, name VARCHAR(100), "
+                        + "description VARCHAR(500), price DECIMAL(12, 2), quantity INT, category VARCHAR(32), "
+                        + "status VARCHAR(32), version BIGINT)");
+            }
+            try (PreparedStatement insert = setup.prepareStatement(
+                    "INSERT INTO product VALUES (?, ?, ?, ?, ?, ?, ?, 1)")) {
+                for (int id = 1; id <= catalogSize; id++) {
+                    ProductDTO product = BenchmarkFixtures.productDTO(id);
+                    insert.setLong(1, id);
+                    insert.setString(2, product.getName());
+                    insert.setString(3, product.getDescription());
+                    insert.setBigDecimal(4, product.getPrice());
+                    insert.setInt(5, product.getQuantity());
+                    insert.setString(6, product.getCategory());
+                    insert.setString(7, product.getStatus());
+                    insert.addBatch();
+                    if (id % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+
+        void close() throws SQLException {
+            try (var statement = setup.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+
+        @Override
+        public ProductDTO getProductById(Long productId) {
+            calls.incrementAndGet();
+            try (PreparedStatement select = connections.get().prepareStatement(
+                    "SELECT name, description, price, quantity, category, status FROM product WHERE id = ?")) {
+                select.setLong(1, productId);
+                try (ResultSet row = select.executeQuery()) {
+                    if (!row.next()) {
+                        throw new ProductNotFoundException("Product not found with id: " + productId);
+                    }
+                    return new ProductDTO(productId, row.getString(1), row.getString(2), row.getBigDecimal(3),
+                            row.getInt(4), row.getString(5), row.getString(6));
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public VersionedProductDTO getVersionedProduct(Long productId) {
+            calls.incrementAndGet();
+            try (PreparedStatement select = connections.get().prepareStatement(
+                    "SELECT name, description, price, quantity, category, status, version FROM product WHERE id = ?")) {
+                select.setLong(1, productId);
+                try (ResultSet row = select.executeQuery()) {
+                    if (!row.next()) {
+                        throw new ProductNotFoundException("Product not found with id: " + productId);
+                    }
+                    return new VersionedProductDTO(row.getLong(7), new ProductDTO(productId, row.getString(1),
+                            row.getString(2), row.getBigDecimal(3), row.getInt(4), row.getString(5), row.getString(6)));
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public ProductDTO updateProduct(Long productId, ProductDTO productRequestDTO) {
+            calls.incrementAndGet();
+            try (PreparedStatement update = connections.get().prepareStatement(
+                    "UPDATE product SET price = ?, quantity = ?, version = version + 1 WHERE id = ?")) {
+                update.setBigDecimal(1, productRequestDTO.getPrice());
+                update.setInt(2, productRequestDTO.getQuantity());
+                update.setLong(3, productId);
+                update.executeUpdate();
+                catalogVersion.incrementAndGet();
+                return productRequestDTO;
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public long getCatalogVersion() {
+            return catalogVersion.get();
+        }
+
+        @Override
+        public List<ProductDTO> listAllProducts() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductPageDTO listProducts(ProductPageRequestDTO pageRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<ProductDTO> streamProducts(LocalDateTime updatedSince) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ProductDTO> findByCategory(CategoryType categoryType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ProductDTO> findByStatus(ProductStatus productStatus) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ProductDTO> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductDTO createProduct(ProductDTO productRequestDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteProduct(Long productId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductDTO reserveStock(Long productId, int quantity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public StockReservationDTO reserveUpTo(Long productId, int maxQuantity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void releaseStock(Long productId, int quantity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductBatchResultDTO applyBatch(List<ProductBatchOperationDTO> operations) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
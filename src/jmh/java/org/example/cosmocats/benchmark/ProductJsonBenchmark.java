@@ -0,0 +1,101 @@
+package org.example.cosmocats.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cosmocats.codec.ProductDtoCodec;
+import org.example.cosmocats.dto.ProductDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductDtoCodec codec = new ProductDtoCodec();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256 * 1024);
+    private ProductDTO product;
+    private List<ProductDTO> page;
+    private byte[] productJson;
+
+    @Setup
+    public void prepare() throws JsonProcessingException {
+        product = BenchmarkFixtures.productDTO(7);
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(BenchmarkFixtures.productDTO(i));
+        }
+        productJson = objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public ProductDTO deserializeProduct() throws Exception {
+        return objectMapper.readValue(productJson, ProductDTO.class);
+    }
+
+    // The *Stream benchmarks write into a reused buffer, as the converters write to
+    // the servlet stream, so the default and the hand-written path pay the same copy.
+
+    @Benchmark
+    public int writePageStreamDefault() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, page);
+        return out.size();
+    }
+
+    @Benchmark
+    public int writePageStreamCodec() throws IOException {
+        out.reset();
+        try (JsonGenerator generator = codec.createGenerator(out, false)) {
+            codec.writeProducts(generator, page);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int writePageStreamSmile() throws IOException {
+        out.reset();
+        try (JsonGenerator generator = codec.createGenerator(out, true)) {
+            codec.writeProducts(generator, page);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public byte[] serializeProductCodec() throws IOException {
+        return codec.toJson(product);
+    }
+
+    @Benchmark
+    public ProductDTO deserializeProductCodec() throws IOException {
+        try (JsonParser parser = codec.createParser(new ByteArrayInputStream(productJson), false)) {
+            parser.nextToken();
+            return codec.readProduct(parser);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.cosmocats.benchmark;
+
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.mapper.ProductMapper;
+import org.example.cosmocats.mapper.ProductMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class ProductMapperBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int catalogSize;
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private List<Product> products;
+    private Product single;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(BenchmarkFixtures.product(i));
+        }
+        single = products.get(catalogSize / 2);
+    }
+
+    @Benchmark
+    public ProductDTO convertToProductDTO() {
+        return productMapper.convertToProductDTO(single);
+    }
+
+    @Benchmark
+    public List<ProductDTO> convertToProductDTOList() {
+        return productMapper.convertToProductDTOList(products);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.cosmocats.benchmark;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.search.ProductSearchIndex;
+import org.example.cosmocats.search.SearchHit;
+import org.example.cosmocats.search.SearchQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the inverted index. Products get names and descriptions
+ * drawn from a synthetic vocabulary, so terms have realistic selectivity,
+ * plus the fixture's "galaxy" which every product contains as the
+ * worst case of a query term matching the whole catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ProductSearchBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "ze", "qu",
+            "ba", "de", "fi", "go", "hu", "ja", "ke", "li", "mo", "nu"};
+    private static final int VOCABULARY_SIZE = 20_000;
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    private ProductSearchIndex index;
+    private String[] vocabulary;
+    private SearchQuery[] twoTermQueries;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        SplittableRandom random = new SplittableRandom(42);
+        vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int n = i; word.length() < 6 || n > 0; n /= SYLLABLES.length) {
+                word.append(SYLLABLES[n % SYLLABLES.length]);
+            }
+            vocabulary[i] = word.toString();
+        }
+
+        index = new ProductSearchIndex();
+        for (int i = 1; i <= catalogSize; i++) {
+            Product product = BenchmarkFixtures.product(i);
+            product.setName("Galaxy " + words(random, 3));
+            product.setDescription(words(random, 8));
+            index.onProductChanged(null, product);
+            if (i % 100_000 == 0) {
+                index.refresh();
+            }
+        }
+        index.refresh();
+
+        twoTermQueries = new SearchQuery[1024];
+        for (int i = 0; i < twoTermQueries.length; i++) {
+            twoTermQueries[i] = new SearchQuery(words(random, 2), null, null, 20, false, false);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    private String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(vocabulary[random.nextInt(VOCABULARY_SIZE)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private int next;
+
+    @Benchmark
+    public List<SearchHit> twoTerms() {
+        return index.search(twoTermQueries[next++ & (twoTermQueries.length - 1)]);
+    }
+
+    @Benchmark
+    public List<SearchHit> twoTermsWithCategory() {
+        SearchQuery query = twoTermQueries[next++ & (twoTermQueries.length - 1)];
+        return index.search(new SearchQuery(query.text(), CategoryType.COSMIC_FOOD, null, 20, false, false));
+    }
+
+    @Benchmark
+    public List<SearchHit> autocompletePrefix() {
+        SearchQuery query = twoTermQueries[next++ & (twoTermQueries.length - 1)];
+        String text = query.text().trim();
+        return index.search(new SearchQuery(text.substring(0, text.length() - 2), null, null, 10, true, false));
+    }
+
+    @Benchmark
+    public List<SearchHit> fuzzyTypo() {
+        SearchQuery query = twoTermQueries[next++ & (twoTermQueries.length - 1)];
+        String text = query.text().trim();
+        // Drop one character of the last word.
+        String typo = text.substring(0, text.length() - 3) + text.substring(text.length() - 2);
+        return index.search(new SearchQuery(typo, null, null, 20, false, true));
+    }
+
+    @Benchmark
+    public List<SearchHit> termInEveryProduct() {
+        return index.search(new SearchQuery("galaxy", null, null, 20, false, false));
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.cosmocats.benchmark;
+
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int catalogSize;
+
+    private ProductServiceImpl productService;
+    private ProductDTO updatePayload;
+    private ProductPageRequestDTO pageRequest;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        productService = BenchmarkFixtures.newProductService();
+        for (int i = 0; i < catalogSize; i++) {
+            productService.createProduct(BenchmarkFixtures.productDTO(i));
+        }
+        updatePayload = BenchmarkFixtures.productDTO(42);
+        pageRequest = new ProductPageRequestDTO();
+        pageRequest.setLimit(50);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, catalogSize + 1);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ProductDTO getById() {
+        return productService.getProductById(randomId());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object listFirstPage() {
+        return productService.listProducts(pageRequest);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(6)
+    public ProductDTO contendedRead() {
+        return productService.getProductById(randomId());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public ProductDTO contendedUpdate() {
+        // A narrow id range keeps writers colliding on the same products.
+        return productService.updateProduct(ThreadLocalRandom.current().nextLong(1, 65), updatePayload);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ProductDTO create() {
+        return productService.createProduct(updatePayload);
+    }
+}
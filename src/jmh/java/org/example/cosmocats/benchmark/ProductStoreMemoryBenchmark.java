@@ -0,0 +1,94 @@
+package org.example.cosmocats.benchmark;
+
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductQuery;
+import org.example.cosmocats.repository.ProductRepository;
+import org.example.cosmocats.repository.impl.ColumnarProductRepository;
+import org.example.cosmocats.repository.impl.InMemoryProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by a loaded catalog in each store mode, and what it costs: the
+ * pause of a full collection with the catalog live, plus the price of reading
+ * through the columns. The retained size per product is measured once per
+ * trial and printed with the trial's output.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ProductStoreMemoryBenchmark {
+
+    @Param({"heap", "columnar"})
+    private String store;
+
+    @Param({"1000000"})
+    private int catalogSize;
+
+    private ProductRepository repository;
+
+    @Setup(Level.Trial)
+    public void load() {
+        long before = usedHeapAfterGc();
+        repository = "columnar".equals(store) ? new ColumnarProductRepository() : new InMemoryProductRepository();
+        for (int i = 1; i <= catalogSize; i++) {
+            Product product = BenchmarkFixtures.product(i);
+            product.setId(null);
+            repository.create(product);
+        }
+        long retainedBytesPerProduct = (usedHeapAfterGc() - before) / catalogSize;
+        System.out.printf("%n%s store retains %d bytes per product%n", store, retainedBytesPerProduct);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public void fullGcPause() {
+        System.gc();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Object findById() {
+        return repository.findById(ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<Product> firstPageByPrice() {
+        return repository.findPage(ProductQuery.builder()
+                .sort(ProductSortField.PRICE)
+                .limit(51)
+                .minPrice(BigDecimal.valueOf(50))
+                .build());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<Product> firstPageById() {
+        return repository.findPage(ProductQuery.builder()
+                .sort(ProductSortField.ID)
+                .limit(51)
+                .afterId(ThreadLocalRandom.current().nextLong(1, catalogSize))
+                .build());
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.cosmocats.benchmark;
+
+import org.example.cosmocats.dto.validation.CategoryValidator;
+import org.example.cosmocats.dto.validation.CosmicWordValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    // The term list and matching loop CosmicWordValidator used before the
+    // Aho-Corasick matcher, kept here as the comparison baseline.
+    private static final List<String> LEGACY_COSMIC_TERMS = Arrays.asList(
+            "star", "galaxy", "comet", "space", "cosmic", "intergalactic",
+            "orbit", "planet", "solar", "lunar", "astro",
+            "meteor", "black hole", "quasar", "pulsar", "constellation",
+            "moon", "sun", "universe", "cosmos"
+    );
+
+    @Param({"8", "32", "100"})
+    private int nameLength;
+
+    @Param({"true", "false"})
+    private boolean containsTerm;
+
+    private final CosmicWordValidator cosmicWordValidator = new CosmicWordValidator();
+    private final CategoryValidator categoryValidator = new CategoryValidator();
+    private String name;
+
+    @Setup
+    public void prepare() {
+        // The term sits at the end so the matcher has to scan the whole name.
+        String suffix = containsTerm ? "Comet" : "Rock";
+        name = "x".repeat(Math.max(0, nameLength - suffix.length())) + suffix;
+    }
+
+    @Benchmark
+    public boolean cosmicWordMatcher() {
+        return cosmicWordValidator.isValid(name, null);
+    }
+
+    @Benchmark
+    public boolean cosmicWordLegacy() {
+        String lowerCaseValue = name.toLowerCase().trim();
+        return LEGACY_COSMIC_TERMS.stream().anyMatch(lowerCaseValue::contains);
+    }
+
+    @Benchmark
+    public boolean validCategory() {
+        return categoryValidator.isValid("SPACE_THINGIES", null);
+    }
+
+    @Benchmark
+    public boolean invalidCategory() {
+        return categoryValidator.isValid("SPACE_ACCESSORIES", null);
+    }
+}
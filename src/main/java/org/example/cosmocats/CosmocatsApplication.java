@@ -2,8 +2,10 @@ package org.example.cosmocats;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(CosmocatsRuntimeHints.class)
 
 public class CosmocatsApplication {
 
@@ -0,0 +1,41 @@
+package org.example.cosmocats;
+
+import org.example.cosmocats.dto.ClusterMembershipDTO;
+import org.example.cosmocats.dto.ClusterNodeDTO;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductChangeEventDTO;
+import org.example.cosmocats.dto.ProductChangeResyncDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductShardPageDTO;
+import org.example.cosmocats.dto.ProductTransferDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.dto.validation.CategoryValidator;
+import org.example.cosmocats.dto.validation.CosmicWordValidator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What an AOT-processed build cannot find on its own. Constraint validators
+ * are created reflectively by Hibernate Validator, and some types are bound by
+ * Jackson outside any controller signature: change events written to SSE
+ * streams, batch operations read off the request stream, and the bodies nodes
+ * of a cluster exchange. The MapStruct mappers are Spring components and need
+ * nothing here.
+ */
+public class CosmocatsRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(CosmicWordValidator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .registerType(CategoryValidator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                ProductDTO.class, ProductBatchOperationDTO.class,
+                ProductChangeEventDTO.class, ProductChangeResyncDTO.class,
+                ClusterMembershipDTO.class, ClusterNodeDTO.class, VersionedProductDTO.class,
+                ProductShardPageDTO.class, ProductTransferDTO.class);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.cosmocats.cache;
+
+import org.example.cosmocats.codec.ProductDtoCodec;
+import org.example.cosmocats.dto.ProductDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of single products, tagged with the product version they
+ * were rendered from. A stale version is never served even if an eviction is
+ * missed, so eviction on write only exists to free memory early.
+ */
+@Component
+public class ProductJsonCache {
+
+    private final ConcurrentMap<Long, CachedJson> cache = new ConcurrentHashMap<>();
+    private final ProductDtoCodec productDtoCodec;
+    private final int maxEntries;
+
+    public ProductJsonCache(ProductDtoCodec productDtoCodec,
+                            @Value("${cosmocats.cache.product-json.max-entries:100000}") int maxEntries) {
+        this.productDtoCodec = productDtoCodec;
+        this.maxEntries = maxEntries;
+    }
+
+    public byte[] get(Long productId, long version, Supplier<ProductDTO> productLoader) {
+        CachedJson cached = cache.get(productId);
+        if (cached != null && cached.version() == version) {
+            return cached.json();
+        }
+
+        byte[] json = serialize(productLoader.get());
+        if (cache.size() >= maxEntries) {
+            evictOne();
+        }
+        cache.merge(productId, new CachedJson(version, json),
+                (existing, fresh) -> existing.version() >= fresh.version() ? existing : fresh);
+        return json;
+    }
+
+    public void evict(Long productId) {
+        cache.remove(productId);
+    }
+
+    private void evictOne() {
+        Iterator<Long> keys = cache.keySet().iterator();
+        if (keys.hasNext()) {
+            cache.remove(keys.next());
+        }
+    }
+
+    private byte[] serialize(ProductDTO product) {
+        try {
+            return productDtoCodec.toJson(product);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record CachedJson(long version, byte[] json) {
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.cosmocats.changes;
+
+import org.example.cosmocats.common.ProductChangeType;
+import org.example.cosmocats.domain.Product;
+
+/**
+ * One committed product change. {@code previous} is null for a creation and
+ * {@code current} is null for a deletion; both are the store's own snapshots
+ * and must not be modified.
+ */
+public record ProductChange(long sequence, ProductChangeType type, Product previous, Product current,
+                            long timestampMillis) {
+}
@@ -0,0 +1,147 @@
+package org.example.cosmocats.changes;
+
+import jakarta.annotation.PreDestroy;
+import org.example.cosmocats.common.ProductChangeType;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductChangeListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sequenced log of every committed product change, held in a fixed-size ring.
+ * <p>
+ * A writer claims the next sequence number and stores its change in the slot
+ * for that number; it never waits for readers, so the oldest changes are
+ * simply overwritten. Each reader keeps its own position and learns that it
+ * was lapped when the slot holds a later sequence than the one it expected.
+ * <p>
+ * Sequence numbers start from the clock, like the catalog version, so a
+ * position from before a restart is recognizably older than anything buffered.
+ */
+@Component
+public class ProductChangeLog implements ProductChangeListener {
+
+    private final AtomicReferenceArray<ProductChange> slots;
+    private final int mask;
+    private final long firstSequence;
+    private final AtomicLong nextSequence;
+
+    // Readers waiting for a change; writers only wake the notifier, which wakes them.
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+    private final Thread notifier;
+    private volatile boolean running = true;
+
+    public ProductChangeLog(@Value("${cosmocats.changes.buffer-size:65536}") int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.firstSequence = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.nextSequence = new AtomicLong(firstSequence);
+        this.notifier = new Thread(this::runNotifier, "product-change-notifier");
+        this.notifier.setDaemon(true);
+        this.notifier.start();
+    }
+
+    @Override
+    public void onProductChanged(Product previous, Product current) {
+        ProductChangeType type = previous == null ? ProductChangeType.CREATED
+                : current == null ? ProductChangeType.DELETED : ProductChangeType.UPDATED;
+        long sequence = nextSequence.getAndIncrement();
+        ProductChange change = new ProductChange(sequence, type, previous, current, System.currentTimeMillis());
+
+        int index = (int) (sequence & mask);
+        ProductChange existing;
+        do {
+            existing = slots.get(index);
+            // A writer a full lap ahead already reused the slot; this change is lost either way.
+            if (existing != null && existing.sequence() > sequence) {
+                return;
+            }
+        } while (!slots.compareAndSet(index, existing, change));
+
+        if (!waiters.isEmpty()) {
+            LockSupport.unpark(notifier);
+        }
+    }
+
+    /**
+     * Appends up to {@code max} changes, starting at {@code fromSequence}, to
+     * {@code out}. Stops early at a sequence that has been claimed but not yet
+     * stored, so changes are always handed out in order. Returns false when
+     * {@code fromSequence} is no longer buffered or was never issued by this
+     * process; the reader must then resync from a full read of the catalog.
+     */
+    public boolean read(long fromSequence, int max, List<ProductChange> out) {
+        long next = nextSequence.get();
+        if (fromSequence < firstSequence || fromSequence > next) {
+            return false;
+        }
+        for (long sequence = fromSequence; sequence < next && out.size() < max; sequence++) {
+            ProductChange change = slots.get((int) (sequence & mask));
+            if (change == null || change.sequence() < sequence) {
+                break;
+            }
+            if (change.sequence() > sequence) {
+                // Lapped: hand out what was read, the next call reports it.
+                return !out.isEmpty();
+            }
+            out.add(change);
+        }
+        return true;
+    }
+
+    /**
+     * Parks the caller until the change at {@code sequence} may be readable or
+     * {@code timeoutNanos} pass. Returns whether it can be read now.
+     */
+    public boolean awaitChange(long sequence, long timeoutNanos) {
+        Thread thread = Thread.currentThread();
+        waiters.add(thread);
+        try {
+            if (!isStored(sequence)) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+            return isStored(sequence);
+        } finally {
+            waiters.remove(thread);
+        }
+    }
+
+    public long nextSequence() {
+        return nextSequence.get();
+    }
+
+    public long oldestSequence() {
+        return Math.max(firstSequence, nextSequence.get() - slots.length());
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        LockSupport.unpark(notifier);
+    }
+
+    private boolean isStored(long sequence) {
+        ProductChange change = slots.get((int) (sequence & mask));
+        // A later sequence in the slot means the reader was lapped, which it
+        // also has to hear about.
+        return change != null && change.sequence() >= sequence;
+    }
+
+    private void runNotifier() {
+        while (running) {
+            LockSupport.park(this);
+            for (Thread waiter : waiters) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package org.example.cosmocats.cluster;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cosmocats.codec.ProductDtoCodec;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.dto.ClusterMembershipDTO;
+import org.example.cosmocats.dto.ClusterNodeDTO;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.ProductSearchRequestDTO;
+import org.example.cosmocats.dto.ProductSearchResultDTO;
+import org.example.cosmocats.dto.ProductShardPageDTO;
+import org.example.cosmocats.dto.ProductTransferDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.service.exception.CategoryNotFoundException;
+import org.example.cosmocats.service.exception.ClusterUnavailableException;
+import org.example.cosmocats.service.exception.InsufficientStockException;
+import org.example.cosmocats.service.exception.ProductNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Calls the internal endpoints of other nodes. Failures come back as the same
+ * exceptions the local services throw, so a request routed to another node
+ * fails the way it would have here; a node that cannot be reached or answers
+ * with a server error makes the request fail with 503.
+ */
+@Component
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusterClient {
+
+    static final String BASE_PATH = "/internal/cluster";
+    private static final long UNAVAILABLE_RETRY_AFTER_SECONDS = 5;
+
+    private final RestClient restClient;
+    // Preparing a membership change copies products before it answers.
+    private final RestClient handoffClient;
+    private final ProductDtoCodec productDtoCodec;
+    private final ObjectMapper objectMapper;
+
+    public ClusterClient(RestClient.Builder restClientBuilder, ProductDtoCodec productDtoCodec,
+                         ObjectMapper objectMapper,
+                         @Value("${cosmocats.cluster.request-timeout:5s}") Duration requestTimeout,
+                         @Value("${cosmocats.cluster.handoff-timeout:5m}") Duration handoffTimeout,
+                         @Value("${cosmocats.cluster.secret:}") String secret) {
+        this.restClient = build(restClientBuilder.clone(), requestTimeout, requestTimeout, secret);
+        this.handoffClient = build(restClientBuilder.clone(), requestTimeout, handoffTimeout, secret);
+        this.productDtoCodec = productDtoCodec;
+        this.objectMapper = objectMapper;
+    }
+
+    private RestClient build(RestClient.Builder builder, Duration connectTimeout, Duration readTimeout, String secret) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(connectTimeout).build());
+        requestFactory.setReadTimeout(readTimeout);
+        return builder
+                .requestFactory(requestFactory)
+                .defaultHeader(ClusterSecretFilter.CLUSTER_SECRET, secret)
+                .defaultStatusHandler(HttpStatusCode::isError, (request, response) -> {
+                    throw translateError(request.getURI(), response);
+                })
+                .build();
+    }
+
+    public VersionedProductDTO getProduct(ClusterNode node, long productId) {
+        return call(node.url(), () -> restClient.get()
+                .uri(uri(node, "/products/{id}"), productId)
+                .retrieve()
+                .body(VersionedProductDTO.class));
+    }
+
+    public ProductDTO updateProduct(ClusterNode node, long productId, ProductDTO product) {
+        return call(node.url(), () -> restClient.put()
+                .uri(uri(node, "/products/{id}"), productId)
+                .body(product)
+                .retrieve()
+                .body(ProductDTO.class));
+    }
+
+    public void deleteProduct(ClusterNode node, long productId) {
+        call(node.url(), () -> restClient.delete()
+                .uri(uri(node, "/products/{id}"), productId)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    public ProductDTO reserveStock(ClusterNode node, long productId, int quantity) {
+        return call(node.url(), () -> restClient.post()
+                .uri(uri(node, "/products/{id}/reserve?quantity={quantity}"), productId, quantity)
+                .retrieve()
+                .body(ProductDTO.class));
+    }
+
+    public StockReservationDTO reserveUpTo(ClusterNode node, long productId, int maxQuantity) {
+        StockReservationDTO reservation = call(node.url(), () -> restClient.post()
+                .uri(uri(node, "/products/{id}/reserve-up-to?quantity={quantity}"), productId, maxQuantity)
+                .retrieve()
+                .body(StockReservationDTO.class));
+        return reservation != null ? reservation : new StockReservationDTO(0, null);
+    }
+
+    public void releaseStock(ClusterNode node, long productId, int quantity) {
+        call(node.url(), () -> restClient.post()
+                .uri(uri(node, "/products/{id}/release?quantity={quantity}"), productId, quantity)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    public ProductBatchResultDTO applyBatch(ClusterNode node, List<ProductBatchOperationDTO> operations) {
+        return call(node.url(), () -> restClient.post()
+                .uri(uri(node, "/products/batch"))
+                .body(operations)
+                .retrieve()
+                .body(ProductBatchResultDTO.class));
+    }
+
+    public ProductShardPageDTO listShardPage(ClusterNode node, ProductPageRequestDTO pageRequest) {
+        return call(node.url(), () -> restClient.get()
+                .uri(uri(node, "/products/page"), builder -> builder
+                        .queryParamIfPresent("limit", Optional.ofNullable(pageRequest.getLimit()))
+                        .queryParamIfPresent("after", Optional.ofNullable(pageRequest.getAfter()))
+                        .queryParamIfPresent("category", Optional.ofNullable(pageRequest.getCategory()))
+                        .queryParamIfPresent("status", Optional.ofNullable(pageRequest.getStatus()))
+                        .queryParamIfPresent("minPrice", Optional.ofNullable(pageRequest.getMinPrice()))
+                        .queryParamIfPresent("maxPrice", Optional.ofNullable(pageRequest.getMaxPrice()))
+                        .queryParamIfPresent("sort", Optional.ofNullable(pageRequest.getSort()))
+                        .build())
+                .retrieve()
+                .body(ProductShardPageDTO.class));
+    }
+
+    /**
+     * The products a node owns, narrowed by at most one of the filters; with
+     * none, all of them.
+     */
+    public List<ProductDTO> findProducts(ClusterNode node, CategoryType category, ProductStatus status,
+                                         BigDecimal minPrice, BigDecimal maxPrice) {
+        return call(node.url(), () -> restClient.get()
+                .uri(uri(node, "/products"), builder -> builder
+                        .queryParamIfPresent("category", Optional.ofNullable(category))
+                        .queryParamIfPresent("status", Optional.ofNullable(status))
+                        .queryParamIfPresent("minPrice", Optional.ofNullable(minPrice))
+                        .queryParamIfPresent("maxPrice", Optional.ofNullable(maxPrice))
+                        .build())
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ProductDTO>>() {
+                }));
+    }
+
+    /**
+     * Streams a node's products as they are read off the connection. The
+     * connection stays open until the stream is closed.
+     */
+    public Stream<ProductDTO> exportProducts(ClusterNode node, LocalDateTime updatedSince) {
+        return call(node.url(), () -> restClient.get()
+                .uri(uri(node, "/products/export"), builder -> builder
+                        .queryParamIfPresent("updatedSince", Optional.ofNullable(updatedSince))
+                        .build())
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        try (response) {
+                            throw translateError(request.getURI(), response);
+                        }
+                    }
+                    return readProducts(response);
+                }, false));
+    }
+
+    public ProductSearchResultDTO searchProducts(ClusterNode node, ProductSearchRequestDTO searchRequest) {
+        return call(node.url(), () -> restClient.get()
+                .uri(uri(node, "/products/search"), builder -> builder
+                        .queryParam("q", searchRequest.getQ())
+                        .queryParamIfPresent("category", Optional.ofNullable(searchRequest.getCategory()))
+                        .queryParamIfPresent("status", Optional.ofNullable(searchRequest.getStatus()))
+                        .queryParamIfPresent("limit", Optional.ofNullable(searchRequest.getLimit()))
+                        .queryParam("prefix", searchRequest.isPrefix())
+                        .queryParam("fuzzy", searchRequest.isFuzzy())
+                        .build())
+                .retrieve()
+                .body(ProductSearchResultDTO.class));
+    }
+
+    public long getCatalogVersion(ClusterNode node) {
+        Long version = call(node.url(), () -> restClient.get()
+                .uri(uri(node, "/catalog-version"))
+                .retrieve()
+                .body(Long.class));
+        return version != null ? version : 0;
+    }
+
+    public ClusterMembershipDTO join(URI seed, ClusterNodeDTO self) {
+        return call(seed, () -> handoffClient.post()
+                .uri(seed.resolve(BASE_PATH + "/join"))
+                .body(self)
+                .retrieve()
+                .body(ClusterMembershipDTO.class));
+    }
+
+    public void prepare(ClusterNode node, ClusterMembershipDTO membership) {
+        call(node.url(), () -> handoffClient.post()
+                .uri(uri(node, "/prepare"))
+                .body(membership)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    public void commit(ClusterNode node, long epoch) {
+        call(node.url(), () -> restClient.post()
+                .uri(uri(node, "/commit?epoch={epoch}"), epoch)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    public void abort(ClusterNode node, long epoch) {
+        call(node.url(), () -> restClient.post()
+                .uri(uri(node, "/abort?epoch={epoch}"), epoch)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    public void importProducts(ClusterNode node, List<ProductTransferDTO> products) {
+        call(node.url(), () -> handoffClient.post()
+                .uri(uri(node, "/products/import"))
+                .body(products)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    private static String uri(ClusterNode node, String path) {
+        return node.url() + BASE_PATH + path;
+    }
+
+    private static <T> T call(URI target, Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (ResourceAccessException ex) {
+            throw new ClusterUnavailableException(String.format(
+                    "Cluster node %s is unreachable: %s", target, ex.getMessage()),
+                    UNAVAILABLE_RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private Stream<ProductDTO> readProducts(ClientHttpResponse response) throws IOException {
+        InputStream body = response.getBody();
+        JsonParser parser = productDtoCodec.createParser(body, false);
+        Iterator<ProductDTO> products = new Iterator<>() {
+            private ProductDTO next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = parser.nextToken() == JsonToken.START_OBJECT ? productDtoCodec.readProduct(parser) : null;
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public ProductDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ProductDTO product = next;
+                next = null;
+                return product;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(products, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    } finally {
+                        response.close();
+                    }
+                });
+    }
+
+    private RuntimeException translateError(URI uri, ClientHttpResponse response) throws IOException {
+        HttpStatusCode status = response.getStatusCode();
+        String title = null;
+        String detail = null;
+        try {
+            JsonNode problem = objectMapper.readTree(response.getBody());
+            if (problem != null) {
+                title = problem.path("title").asText(null);
+                detail = problem.path("detail").asText(null);
+            }
+        } catch (IOException ex) {
+            // Not a problem document; the status alone decides.
+        }
+        String message = detail != null ? detail : String.format("%s answered %s", uri, status);
+
+        if (status.is5xxServerError()) {
+            String retryAfter = response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            return new ClusterUnavailableException(message, retryAfter != null
+                    ? parseRetryAfter(retryAfter)
+                    : UNAVAILABLE_RETRY_AFTER_SECONDS);
+        }
+        return switch (title != null ? title : "") {
+            case "Product Not Found" -> new ProductNotFoundException(message);
+            case "Category Not Found" -> new CategoryNotFoundException(message);
+            case "Insufficient Stock" -> new InsufficientStockException(message);
+            default -> new IllegalStateException(String.format("%s answered %s: %s", uri, status, message));
+        };
+    }
+
+    private static long parseRetryAfter(String retryAfter) {
+        try {
+            return Long.parseLong(retryAfter.trim());
+        } catch (NumberFormatException ex) {
+            return UNAVAILABLE_RETRY_AFTER_SECONDS;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.example.cosmocats.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.service.exception.ClusterUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This node's view of the cluster: the members and the ring that assigns
+ * products to them, numbered by an epoch that grows with every change.
+ * <p>
+ * A membership change is applied in two steps. While it is pending, products
+ * are copied to their new owners but the current ring still routes every
+ * request, and writes to the products that are moving are refused so the
+ * copies stay exact. Committing switches to the new ring.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusterMembership {
+
+    private static final long MOVING_RETRY_AFTER_SECONDS = 1;
+
+    private final ClusterNode self;
+    private final int virtualNodes;
+    // Writers hold the read side for the length of a write; preparing a change
+    // takes the write side, so no write to a moving product is still running
+    // once the copying starts.
+    private final ReentrantReadWriteLock handoffLock = new ReentrantReadWriteLock();
+    private volatile View current;
+    private volatile View pending;
+
+    public ClusterMembership(@Value("${cosmocats.cluster.node-id:0}") int nodeId,
+                             @Value("${cosmocats.cluster.advertised-url}") URI advertisedUrl,
+                             @Value("${cosmocats.cluster.members:}") List<String> members,
+                             @Value("${cosmocats.cluster.virtual-nodes:128}") int virtualNodes,
+                             @Value("${cosmocats.store.mode:heap}") String storeMode) {
+        if ("columnar".equals(storeMode)) {
+            // The columnar store addresses rows by id, and a shard's ids are sparse.
+            throw new IllegalStateException("Cluster mode needs cosmocats.store.mode=heap");
+        }
+        this.self = new ClusterNode(nodeId, advertisedUrl);
+        this.virtualNodes = virtualNodes;
+        this.current = new View(0, new ConsistentHashRing(parseMembers(members, self), virtualNodes));
+        log.info("Cluster node {} at {} starts with members {}", nodeId, advertisedUrl, current.members());
+    }
+
+    public ClusterNode self() {
+        return self;
+    }
+
+    public View current() {
+        return current;
+    }
+
+    public View pending() {
+        return pending;
+    }
+
+    public View newView(long epoch, List<ClusterNode> members) {
+        return new View(epoch, new ConsistentHashRing(members, virtualNodes));
+    }
+
+    public ClusterNode ownerOf(long productId) {
+        return current.ring().ownerOf(productId);
+    }
+
+    public boolean isLocal(long productId) {
+        return current.ring().ownerOf(productId).id() == self.id();
+    }
+
+    /**
+     * Whether a new product may take this id here: it must stay on this node
+     * when a pending change is committed, or it would be left behind.
+     */
+    public boolean canCreate(long productId) {
+        View next = pending;
+        return isLocal(productId) && (next == null || next.ring().ownerOf(productId).id() == self.id());
+    }
+
+    /**
+     * Enters a write to a product owned here and returns the lock to release
+     * when it is done. Refused with 503 while the product is moving to another
+     * node.
+     */
+    public Lock lockForWrite(long productId) {
+        Lock lock = handoffLock.readLock();
+        lock.lock();
+        View next = pending;
+        if (next != null && next.ring().ownerOf(productId).id() != current.ring().ownerOf(productId).id()) {
+            lock.unlock();
+            throw new ClusterUnavailableException(String.format(
+                    "Product %d is moving to another node", productId), MOVING_RETRY_AFTER_SECONDS);
+        }
+        return lock;
+    }
+
+    /**
+     * Whether a write to the product may go ahead here: it is owned here and
+     * not moving. Only stable while a lock from this class is held.
+     */
+    public boolean isWritable(long productId) {
+        View next = pending;
+        int owner = current.ring().ownerOf(productId).id();
+        return owner == self.id() && (next == null || next.ring().ownerOf(productId).id() == owner);
+    }
+
+    /**
+     * Enters a write that touches no existing product, such as a create, or
+     * one that checks {@link #isWritable} for each product it touches.
+     */
+    public Lock lockForCreate() {
+        Lock lock = handoffLock.readLock();
+        lock.lock();
+        return lock;
+    }
+
+    public void prepare(View next) {
+        handoffLock.writeLock().lock();
+        try {
+            // Both only happen when two changes race; the loser backs off and retries.
+            if (next.epoch() <= current.epoch()) {
+                throw new ClusterUnavailableException(String.format(
+                        "Membership epoch %d is not newer than %d", next.epoch(), current.epoch()),
+                        MOVING_RETRY_AFTER_SECONDS);
+            }
+            if (pending != null) {
+                throw new ClusterUnavailableException(String.format(
+                        "Membership epoch %d is already pending", pending.epoch()), MOVING_RETRY_AFTER_SECONDS);
+            }
+            pending = next;
+        } finally {
+            handoffLock.writeLock().unlock();
+        }
+    }
+
+    public boolean commit(long epoch) {
+        handoffLock.writeLock().lock();
+        try {
+            View next = pending;
+            if (next == null || next.epoch() != epoch) {
+                return false;
+            }
+            current = next;
+            pending = null;
+        } finally {
+            handoffLock.writeLock().unlock();
+        }
+        log.info("Cluster membership is now epoch {} with members {}", epoch, current.members());
+        return true;
+    }
+
+    public void abort(long epoch) {
+        handoffLock.writeLock().lock();
+        try {
+            if (pending != null && pending.epoch() == epoch) {
+                pending = null;
+            }
+        } finally {
+            handoffLock.writeLock().unlock();
+        }
+    }
+
+    private static List<ClusterNode> parseMembers(List<String> members, ClusterNode self) {
+        List<ClusterNode> nodes = new ArrayList<>();
+        for (String member : members) {
+            if (member.isBlank()) {
+                continue;
+            }
+            int separator = member.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cluster member must look like <id>=<url>: " + member);
+            }
+            int id = Integer.parseInt(member.substring(0, separator).trim());
+            if (id != self.id()) {
+                nodes.add(new ClusterNode(id, URI.create(member.substring(separator + 1).trim())));
+            }
+        }
+        nodes.add(self);
+        return nodes;
+    }
+
+    public record View(long epoch, ConsistentHashRing ring) {
+
+        public List<ClusterNode> members() {
+            return ring.nodes();
+        }
+    }
+}
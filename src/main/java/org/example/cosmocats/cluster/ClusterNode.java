@@ -0,0 +1,18 @@
+package org.example.cosmocats.cluster;
+
+import java.net.URI;
+
+/**
+ * A member of the cluster: its stable id, which also places it on the hash
+ * ring and tags the ids it generates, and the base URL other nodes call.
+ */
+public record ClusterNode(int id, URI url) {
+
+    public static final int MAX_NODES = 1024;
+
+    public ClusterNode {
+        if (id < 0 || id >= MAX_NODES) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + (MAX_NODES - 1) + ": " + id);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.cosmocats.cluster;
+
+import org.example.cosmocats.repository.ProductIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids that are unique across the cluster without coordination: node {@code n}
+ * only ever issues ids congruent to {@code n} modulo {@link ClusterNode#MAX_NODES}.
+ * Of those, it skips the ones the ring places on another node, so every new
+ * product is created where it belongs. With {@code k} nodes that costs about
+ * {@code k} hash lookups per id.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusterProductIdGenerator implements ProductIdGenerator {
+
+    private final ClusterMembership membership;
+    private final int nodeId;
+    // Index into this node's arithmetic progression of ids.
+    private final AtomicLong next = new AtomicLong(1);
+
+    public ClusterProductIdGenerator(ClusterMembership membership) {
+        this.membership = membership;
+        this.nodeId = membership.self().id();
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long id = idAt(next.getAndIncrement());
+            if (membership.canCreate(id)) {
+                return id;
+            }
+        }
+    }
+
+    @Override
+    public long peekNextId() {
+        return idAt(next.get());
+    }
+
+    @Override
+    public void advanceTo(long nextId) {
+        // Smallest index whose id is at least nextId.
+        long index = Math.floorDiv(nextId - nodeId + ClusterNode.MAX_NODES - 1, ClusterNode.MAX_NODES);
+        next.accumulateAndGet(index, Math::max);
+    }
+
+    private long idAt(long index) {
+        return index * ClusterNode.MAX_NODES + nodeId;
+    }
+}
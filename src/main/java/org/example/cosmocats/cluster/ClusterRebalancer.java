@@ -0,0 +1,250 @@
+package org.example.cosmocats.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.dto.ClusterMembershipDTO;
+import org.example.cosmocats.dto.ClusterNodeDTO;
+import org.example.cosmocats.dto.ProductTransferDTO;
+import org.example.cosmocats.repository.ProductRepository;
+import org.example.cosmocats.service.exception.ClusterUnavailableException;
+import org.example.cosmocats.service.impl.ProductServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Changes the membership of the cluster. A node joins by asking any member,
+ * which then coordinates the change: every member of the new ring prepares it
+ * by copying the products it is about to lose to their new owners, and only
+ * once all of them have done so is it committed everywhere. A failed prepare
+ * aborts the change on every member and drops the copies made so far.
+ * <p>
+ * Only ids move. Carts, orders, categories and the change stream stay on the
+ * node that has them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusterRebalancer {
+
+    private static final int TRANSFER_CHUNK = 1000;
+    private static final long ADMIT_RETRY_AFTER_SECONDS = 5;
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ProductRepository productRepository;
+    private final ProductServiceImpl productService;
+    private final String seed;
+    private final Duration admitWaitTimeout;
+    private final ReentrantLock admitLock = new ReentrantLock();
+
+    public ClusterRebalancer(ClusterMembership membership, ClusterClient clusterClient,
+                             ProductRepository productRepository, ProductServiceImpl productService,
+                             @Value("${cosmocats.cluster.seed:}") String seed,
+                             @Value("${cosmocats.cluster.admit-wait-timeout:30s}") Duration admitWaitTimeout) {
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.seed = seed;
+        this.admitWaitTimeout = admitWaitTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void joinSeed() {
+        if (seed.isBlank()) {
+            return;
+        }
+        ClusterMembershipDTO joined = clusterClient.join(URI.create(seed), toDTO(membership.self()));
+        log.info("Joined the cluster through {} at epoch {}", seed, joined.getEpoch());
+    }
+
+    public ClusterMembershipDTO members() {
+        ClusterMembership.View current = membership.current();
+        return toDTO(current.epoch(), current.members());
+    }
+
+    /**
+     * Adds a node to the cluster, or moves an existing node to a new URL, and
+     * returns the membership it ends up with.
+     */
+    public ClusterMembershipDTO admit(ClusterNodeDTO joiner) {
+        // One change at a time. A joiner that cannot get its turn is told to
+        // retry rather than holding a request thread for a whole handoff.
+        try {
+            if (!admitLock.tryLock(admitWaitTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ClusterUnavailableException(String.format(
+                        "Another membership change is in progress; node %d could not join", joiner.getId()),
+                        ADMIT_RETRY_AFTER_SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ClusterUnavailableException("Interrupted while waiting to change the membership",
+                    ADMIT_RETRY_AFTER_SECONDS);
+        }
+        try {
+            return changeMembership(joiner);
+        } finally {
+            admitLock.unlock();
+        }
+    }
+
+    private ClusterMembershipDTO changeMembership(ClusterNodeDTO joiner) {
+        ClusterMembership.View current = membership.current();
+        List<ClusterNode> members = new ArrayList<>();
+        for (ClusterNode member : current.members()) {
+            if (member.id() != joiner.getId()) {
+                members.add(member);
+            }
+        }
+        members.add(new ClusterNode(joiner.getId(), URI.create(joiner.getUrl())));
+        ClusterMembershipDTO next = toDTO(current.epoch() + 1, members);
+
+        try {
+            for (ClusterNode member : members) {
+                if (isSelf(member)) {
+                    prepareLocal(next);
+                } else {
+                    clusterClient.prepare(member, next);
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Membership epoch {} failed to prepare, aborting: {}", next.getEpoch(), ex.getMessage());
+            for (ClusterNode member : members) {
+                try {
+                    if (isSelf(member)) {
+                        abortLocal(next.getEpoch());
+                    } else {
+                        clusterClient.abort(member, next.getEpoch());
+                    }
+                } catch (RuntimeException abortFailure) {
+                    log.warn("Could not abort epoch {} on node {}: {}",
+                            next.getEpoch(), member.id(), abortFailure.getMessage());
+                }
+            }
+            throw ex;
+        }
+
+        // Past this point every member holds what it needs; a member that
+        // misses the commit keeps serving the old ring until it is retried.
+        for (ClusterNode member : members) {
+            try {
+                if (isSelf(member)) {
+                    commitLocal(next.getEpoch());
+                } else {
+                    clusterClient.commit(member, next.getEpoch());
+                }
+            } catch (RuntimeException ex) {
+                log.error("Could not commit epoch {} on node {}", next.getEpoch(), member.id(), ex);
+            }
+        }
+        return next;
+    }
+
+    public void prepareLocal(ClusterMembershipDTO next) {
+        ClusterMembership.View view = membership.newView(next.getEpoch(), toNodes(next.getMembers()));
+        membership.prepare(view);
+        try {
+            handOff(view);
+        } catch (RuntimeException ex) {
+            membership.abort(view.epoch());
+            throw ex;
+        }
+    }
+
+    public void commitLocal(long epoch) {
+        if (!membership.commit(epoch)) {
+            return;
+        }
+        int dropped = dropForeignProducts();
+        log.info("Dropped {} products handed to other nodes at epoch {}", dropped, epoch);
+    }
+
+    public void abortLocal(long epoch) {
+        membership.abort(epoch);
+        // Copies received for the aborted change are owned by nobody here.
+        dropForeignProducts();
+    }
+
+    public void importProducts(List<ProductTransferDTO> products) {
+        for (ProductTransferDTO transfer : products) {
+            Product product = new Product();
+            product.setId(transfer.getId());
+            product.setName(transfer.getName());
+            product.setDescription(transfer.getDescription());
+            product.setPrice(transfer.getPrice());
+            product.setQuantity(transfer.getQuantity());
+            // Categories are registered per node; a product that exists keeps its category.
+            product.setCategory(Category.of(transfer.getCategory()));
+            product.setStatus(transfer.getStatus());
+            product.setCreatedAt(transfer.getCreatedAt());
+            product.setUpdatedAt(transfer.getUpdatedAt());
+            productRepository.importProduct(product);
+        }
+    }
+
+    private void handOff(ClusterMembership.View next) {
+        Map<ClusterNode, List<ProductTransferDTO>> outgoing = new HashMap<>();
+        int moved = 0;
+        for (Product product : productRepository.findAll()) {
+            ClusterNode owner = next.ring().ownerOf(product.getId());
+            if (isSelf(owner) || !membership.isLocal(product.getId())) {
+                continue;
+            }
+            List<ProductTransferDTO> chunk = outgoing.computeIfAbsent(owner, ignored -> new ArrayList<>());
+            chunk.add(toTransfer(product));
+            moved++;
+            if (chunk.size() == TRANSFER_CHUNK) {
+                clusterClient.importProducts(owner, chunk);
+                outgoing.remove(owner);
+            }
+        }
+        outgoing.forEach(clusterClient::importProducts);
+        log.info("Copied {} products to their new owners for epoch {}", moved, next.epoch());
+    }
+
+    private int dropForeignProducts() {
+        List<Long> foreign = new ArrayList<>();
+        for (Product product : productRepository.findAll()) {
+            if (!membership.isLocal(product.getId())) {
+                foreign.add(product.getId());
+            }
+        }
+        foreign.forEach(productService::deleteProduct);
+        return foreign.size();
+    }
+
+    private boolean isSelf(ClusterNode node) {
+        return node.id() == membership.self().id();
+    }
+
+    private static ProductTransferDTO toTransfer(Product product) {
+        return new ProductTransferDTO(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getQuantity(), product.getCategory().getType(), product.getStatus(),
+                product.getCreatedAt(), product.getUpdatedAt());
+    }
+
+    private static List<ClusterNode> toNodes(List<ClusterNodeDTO> members) {
+        return members.stream().map(member -> new ClusterNode(member.getId(), URI.create(member.getUrl()))).toList();
+    }
+
+    private static ClusterNodeDTO toDTO(ClusterNode node) {
+        return new ClusterNodeDTO(node.id(), node.url().toString());
+    }
+
+    private static ClusterMembershipDTO toDTO(long epoch, List<ClusterNode> members) {
+        return new ClusterMembershipDTO(epoch, members.stream().map(ClusterRebalancer::toDTO).toList());
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.cosmocats.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.cosmocats.controller.GlobalException.ProblemResponseWriter;
+import org.example.cosmocats.controller.GlobalException.ProblemTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Lets only the nodes of the cluster call its internal endpoints: every
+ * request under {@code /internal/cluster/} must carry the secret the nodes
+ * share, and is refused with 401 otherwise. Runs after the error rate limit,
+ * so a client guessing the secret is throttled like any other failing client.
+ * <p>
+ * The raw request URI is not what gets matched to a controller: path
+ * parameters are stripped, escapes decoded and dot segments resolved first.
+ * The check is made on every normalized form of the path instead, so no
+ * spelling of a cluster path gets past it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusterSecretFilter extends OncePerRequestFilter {
+
+    public static final String CLUSTER_SECRET = "X-Cluster-Secret";
+
+    private static final ProblemTemplate UNAUTHORIZED = ProblemTemplate.of(HttpStatus.UNAUTHORIZED,
+            "Unauthorized", "Cluster endpoints are only open to members of the cluster.");
+
+    private final ProblemResponseWriter problemResponseWriter;
+    private final byte[] secret;
+
+    public ClusterSecretFilter(ProblemResponseWriter problemResponseWriter,
+                               @Value("${cosmocats.cluster.secret:}") String secret) {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("cosmocats.cluster.secret must be set when the cluster is enabled");
+        }
+        this.problemResponseWriter = problemResponseWriter;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        String servletPath = request.getServletPath() + (pathInfo == null ? "" : pathInfo);
+        String lookupPath = StringUtils.cleanPath(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        return !isClusterPath(servletPath) && !isClusterPath(lookupPath);
+    }
+
+    private static boolean isClusterPath(String path) {
+        return path.equals(ClusterClient.BASE_PATH) || path.startsWith(ClusterClient.BASE_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(CLUSTER_SECRET);
+        // Compared in constant time so the response time says nothing about how much of it matched.
+        if (presented == null || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            problemResponseWriter.write(response, UNAUTHORIZED, null, request.getRequestURI());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
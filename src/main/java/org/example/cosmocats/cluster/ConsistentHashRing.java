@@ -0,0 +1,64 @@
+package org.example.cosmocats.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable consistent hash ring over the cluster's nodes. Each node is placed
+ * at {@code virtualNodes} pseudo-random points, and a product belongs to the
+ * node at the first point at or after the hash of its id. Adding a node only
+ * moves the products that land just before its points, about 1/n of them.
+ */
+public final class ConsistentHashRing {
+
+    private final List<ClusterNode> nodes;
+    private final long[] points;
+    private final ClusterNode[] owners;
+
+    public ConsistentHashRing(List<ClusterNode> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+        this.nodes = nodes.stream().sorted(Comparator.comparingInt(ClusterNode::id)).toList();
+
+        List<Point> placed = new ArrayList<>(nodes.size() * virtualNodes);
+        for (ClusterNode node : nodes) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                placed.add(new Point(mix(((long) node.id() << 32) | replica), node));
+            }
+        }
+        // Ties are broken by node id so every member builds the same ring.
+        placed.sort(Comparator.comparingLong(Point::hash).thenComparingInt(point -> point.node().id()));
+        this.points = new long[placed.size()];
+        this.owners = new ClusterNode[placed.size()];
+        for (int i = 0; i < placed.size(); i++) {
+            points[i] = placed.get(i).hash();
+            owners[i] = placed.get(i).node();
+        }
+    }
+
+    public ClusterNode ownerOf(long productId) {
+        int index = Arrays.binarySearch(points, mix(productId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<ClusterNode> nodes() {
+        return nodes;
+    }
+
+    // SplitMix64 finalizer: sequential ids and replica numbers spread evenly over the ring.
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Point(long hash, ClusterNode node) {
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.cosmocats.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.BatchTooLargeException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the body of a batch request. Operations are bound one element at a
+ * time straight from the request stream, so an oversized batch is rejected
+ * before it is fully read. An element that is valid JSON but does not bind,
+ * such as an unknown operation or a price that is not a number, becomes an
+ * {@link ProductBatchOperationDTO#unreadable unreadable} operation that fails
+ * on its own; only a body that is not JSON at all fails the whole batch.
+ */
+@Component
+public class ProductBatchReader {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader operationReader;
+
+    public ProductBatchReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.operationReader = objectMapper.readerFor(ProductBatchOperationDTO.class);
+    }
+
+    public List<ProductBatchOperationDTO> read(HttpInputMessage body) throws IOException {
+        return read(body, () -> {
+        });
+    }
+
+    /**
+     * Runs {@code beforeEach} ahead of every operation read, which lets the
+     * caller stop a long read part way.
+     */
+    public List<ProductBatchOperationDTO> read(HttpInputMessage body, Runnable beforeEach) throws IOException {
+        List<ProductBatchOperationDTO> operations = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException("Batch body must be a JSON array", body);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (operations.size() == ProductService.MAX_BATCH_SIZE) {
+                    throw new BatchTooLargeException(String.format(
+                            "Batch exceeds the limit of %d operations", ProductService.MAX_BATCH_SIZE));
+                }
+                beforeEach.run();
+                operations.add(bind(parser.readValueAsTree()));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new HttpMessageNotReadableException("Batch items must be JSON objects", body);
+            }
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("Malformed batch body: " + ex.getOriginalMessage(), ex, body);
+        }
+        return operations;
+    }
+
+    private ProductBatchOperationDTO bind(JsonNode item) throws IOException {
+        try {
+            return operationReader.readValue(item);
+        } catch (DatabindException ex) {
+            JsonNode id = item.path("id");
+            return ProductBatchOperationDTO.unreadable(id.canConvertToExactIntegral() ? id.asLong() : null,
+                    Map.of(fieldOf(ex), messageOf(ex)));
+        }
+    }
+
+    private static String fieldOf(DatabindException ex) {
+        String field = ex instanceof JsonMappingException mapping
+                ? mapping.getPath().stream()
+                        .map(reference -> reference.getFieldName() != null
+                                ? reference.getFieldName() : String.valueOf(reference.getIndex()))
+                        .collect(Collectors.joining("."))
+                : "";
+        return field.isEmpty() ? "operation" : field;
+    }
+
+    private static String messageOf(DatabindException ex) {
+        if (ex instanceof InvalidFormatException invalid && invalid.getTargetType().isEnum()) {
+            return String.format("Invalid value '%s', must be one of %s", invalid.getValue(),
+                    List.of(invalid.getTargetType().getEnumConstants()));
+        }
+        if (ex instanceof InvalidFormatException invalid) {
+            return String.format("Invalid value '%s'", invalid.getValue());
+        }
+        return "Invalid value";
+    }
+}
@@ -0,0 +1,263 @@
+package org.example.cosmocats.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes {@link ProductDTO} with the Jackson streaming API instead of
+ * reflective data binding. Field names and the category and status values are
+ * {@link SerializedString}s whose encoded bytes are computed once, so writing them
+ * is a copy. The same code drives both JSON and Smile, and the output matches what
+ * the default ObjectMapper produces for these types.
+ */
+@Component
+public class ProductDtoCodec {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private static final SerializedString NEXT_CURSOR = new SerializedString("nextCursor");
+
+    private static final Map<String, SerializedString> ENUM_VALUES = new HashMap<>();
+
+    static {
+        for (CategoryType categoryType : CategoryType.values()) {
+            ENUM_VALUES.put(categoryType.name(), new SerializedString(categoryType.name()));
+        }
+        for (ProductStatus status : ProductStatus.values()) {
+            ENUM_VALUES.put(status.name(), new SerializedString(status.name()));
+        }
+    }
+
+    // Both factories recycle their read and write buffers per thread; closing a
+    // generator or parser must leave the servlet stream open.
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+    private final SmileFactory smileFactory = SmileFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    public static boolean isSmile(MediaType mediaType) {
+        return mediaType != null && APPLICATION_SMILE.equalsTypeAndSubtype(mediaType);
+    }
+
+    public JsonGenerator createGenerator(OutputStream out, boolean smile) throws IOException {
+        return smile ? smileFactory.createGenerator(out) : jsonFactory.createGenerator(out);
+    }
+
+    public JsonParser createParser(InputStream in, boolean smile) throws IOException {
+        return smile ? smileFactory.createParser(in) : jsonFactory.createParser(in);
+    }
+
+    public byte[] toJson(ProductDTO product) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            writeProduct(generator, product);
+        }
+        return out.toByteArray();
+    }
+
+    public void writeProduct(JsonGenerator generator, ProductDTO product) throws IOException {
+        if (product == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        if (product.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(product.getId());
+        }
+        generator.writeFieldName(NAME);
+        generator.writeString(product.getName());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(product.getDescription());
+        generator.writeFieldName(PRICE);
+        if (product.getPrice() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(product.getPrice());
+        }
+        generator.writeFieldName(QUANTITY);
+        if (product.getQuantity() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(product.getQuantity());
+        }
+        generator.writeFieldName(CATEGORY);
+        writeEnumValue(generator, product.getCategory());
+        generator.writeFieldName(STATUS);
+        writeEnumValue(generator, product.getStatus());
+        generator.writeEndObject();
+    }
+
+    public void writeProducts(JsonGenerator generator, List<ProductDTO> products) throws IOException {
+        if (products == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (int i = 0, size = products.size(); i < size; i++) {
+            writeProduct(generator, products.get(i));
+        }
+        generator.writeEndArray();
+    }
+
+    public void writePage(JsonGenerator generator, ProductPageDTO page) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ITEMS);
+        writeProducts(generator, page.getItems());
+        generator.writeFieldName(NEXT_CURSOR);
+        generator.writeString(page.getNextCursor());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Reads one product; the parser must be positioned on its first token.
+     * Unknown fields are skipped, and scalars are coerced the way the default
+     * ObjectMapper coerces them.
+     */
+    public ProductDTO readProduct(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a product object but found " + token);
+        }
+
+        ProductDTO product = new ProductDTO();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "id" -> product.setId(readLong(parser));
+                case "name" -> product.setName(readString(parser));
+                case "description" -> product.setDescription(readString(parser));
+                case "price" -> product.setPrice(readDecimal(parser));
+                case "quantity" -> product.setQuantity(readInteger(parser));
+                case "category" -> product.setCategory(readString(parser));
+                case "status" -> product.setStatus(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected " + parser.currentToken() + " in a product object");
+        }
+        return product;
+    }
+
+    public List<ProductDTO> readProducts(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array of products but found " + token);
+        }
+        List<ProductDTO> products = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            products.add(readProduct(parser));
+        }
+        return products;
+    }
+
+    private static void writeEnumValue(JsonGenerator generator, String value) throws IOException {
+        SerializedString encoded = value == null ? null : ENUM_VALUES.get(value);
+        if (encoded != null) {
+            generator.writeString(encoded);
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string but found " + token);
+        }
+        return parser.getText();
+    }
+
+    private static Long readLong(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_STRING -> parseNumber(parser, text -> Long.valueOf(text.trim()));
+            default -> throw new JsonParseException(parser, "Expected an integer but found " + parser.currentToken());
+        };
+    }
+
+    private static Integer readInteger(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> parser.getIntValue();
+            case VALUE_STRING -> parseNumber(parser, text -> Integer.valueOf(text.trim()));
+            default -> throw new JsonParseException(parser, "Expected an integer but found " + parser.currentToken());
+        };
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            case VALUE_STRING -> parseNumber(parser, text -> new BigDecimal(text.trim()));
+            default -> throw new JsonParseException(parser, "Expected a number but found " + parser.currentToken());
+        };
+    }
+
+    private static <T> T parseNumber(JsonParser parser, NumberParser<T> numberParser) throws IOException {
+        String text = parser.getText();
+        if (text.isBlank()) {
+            return null;
+        }
+        try {
+            return numberParser.parse(text);
+        } catch (NumberFormatException ex) {
+            throw new JsonParseException(parser, "Not a valid number: \"" + text + "\"", ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface NumberParser<T> {
+        T parse(String text);
+    }
+}
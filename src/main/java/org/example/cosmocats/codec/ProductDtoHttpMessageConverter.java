@@ -0,0 +1,109 @@
+package org.example.cosmocats.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes products, lists of products and product pages through
+ * {@link ProductDtoCodec}, streaming straight to and from the servlet streams.
+ * JSON stays the default; clients opt into Smile with
+ * {@code Accept: application/x-jackson-smile} or send it with the same
+ * Content-Type. Registered as a bean, it sits in front of the Jackson converter;
+ * every other type still goes through the ObjectMapper.
+ */
+@Component
+public class ProductDtoHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ProductDtoCodec codec;
+
+    public ProductDtoHttpMessageConverter(ProductDtoCodec codec) {
+        super(MediaType.APPLICATION_JSON, ProductDtoCodec.APPLICATION_SMILE);
+        this.codec = codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ProductDTO.class || clazz == ProductPageDTO.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == ProductDTO.class || isProductList(type)) && isUtf8(mediaType) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == ProductDTO.class && isUtf8(mediaType) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        boolean supportedType = type instanceof Class<?> || type == null ? supports(clazz) : isProductList(type);
+        return supportedType && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        boolean smile = ProductDtoCodec.isSmile(inputMessage.getHeaders().getContentType());
+        try (JsonParser parser = codec.createParser(inputMessage.getBody(), smile)) {
+            parser.nextToken();
+            return isProductList(type) ? codec.readProducts(parser) : codec.readProduct(parser);
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getOriginalMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        boolean smile = ProductDtoCodec.isSmile(outputMessage.getHeaders().getContentType());
+        try (JsonGenerator generator = codec.createGenerator(outputMessage.getBody(), smile)) {
+            if (value instanceof ProductDTO product) {
+                codec.writeProduct(generator, product);
+            } else if (value instanceof ProductPageDTO page) {
+                codec.writePage(generator, page);
+            } else {
+                codec.writeProducts(generator, (List<ProductDTO>) value);
+            }
+        }
+    }
+
+    private static boolean isProductList(Type type) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && (raw == List.class || raw == Collection.class)
+                && parameterized.getActualTypeArguments()[0] == ProductDTO.class;
+    }
+
+    private static boolean isUtf8(MediaType mediaType) {
+        // Other charsets are rare enough to leave to the Jackson converter.
+        Charset charset = mediaType != null ? mediaType.getCharset() : null;
+        return charset == null || charset == StandardCharsets.UTF_8;
+    }
+}
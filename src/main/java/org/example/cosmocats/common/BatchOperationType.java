@@ -0,0 +1,7 @@
+package org.example.cosmocats.common;
+
+public enum BatchOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,7 @@
+package org.example.cosmocats.common;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
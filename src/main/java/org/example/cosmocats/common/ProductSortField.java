@@ -0,0 +1,7 @@
+package org.example.cosmocats.common;
+
+public enum ProductSortField {
+    ID,
+    PRICE,
+    UPDATED_AT
+}
@@ -0,0 +1,135 @@
+package org.example.cosmocats.controller;
+
+import jakarta.validation.Validator;
+import org.example.cosmocats.codec.ProductBatchReader;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.ProductValidationException;
+import org.example.cosmocats.service.impl.ProductWriteOffloader;
+import org.example.cosmocats.service.impl.ProductWriteOffloader.OffloadedWrite;
+import org.example.cosmocats.service.impl.ProductWriteOffloader.WriteTask;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The product writes of {@link ProductController}, with the same bodies and
+ * responses, for clients sending large payloads. A create or update body is
+ * bound to a {@link ProductDTO} on the request thread, and its validation and
+ * the write itself run on the {@link ProductWriteOffloader}. A batch body is
+ * only received on the request thread and is parsed on the worker. Each write
+ * runs within a per-request budget. When the container reports the request
+ * failed, for instance because its client disconnected, any queued or running
+ * work it has not yet committed is cancelled. Tomcat only notices that an
+ * HTTP/1.1 client went away when it next writes to the connection, so for a
+ * client that vanishes silently it is the budget that bounds the work.
+ * <p>
+ * Batch bodies are received whole rather than streamed to the worker, because
+ * the worker must not touch the request once a deadline has answered it.
+ */
+@RestController
+@RequestMapping("/v1/api/products/async")
+public class AsyncProductController {
+
+    private final ProductService productService;
+    private final ProductBatchReader productBatchReader;
+    private final ProductWriteOffloader productWriteOffloader;
+    private final SpringValidatorAdapter validator;
+    private final Duration productBudget;
+    private final Duration batchBudget;
+
+    public AsyncProductController(ProductService productService, ProductBatchReader productBatchReader,
+                                  ProductWriteOffloader productWriteOffloader, Validator validator,
+                                  @Value("${cosmocats.async-writes.product-budget:2s}") Duration productBudget,
+                                  @Value("${cosmocats.async-writes.batch-budget:60s}") Duration batchBudget) {
+        this.productService = productService;
+        this.productBatchReader = productBatchReader;
+        this.productWriteOffloader = productWriteOffloader;
+        this.validator = new SpringValidatorAdapter(validator);
+        this.productBudget = productBudget;
+        this.batchBudget = batchBudget;
+    }
+
+    @PostMapping
+    public DeferredResult<ResponseEntity<ProductDTO>> createProduct(@RequestBody ProductDTO productRequestDTO) {
+        return offload(productBudget, write -> {
+            validate(productRequestDTO);
+            write.commit();
+            return new ResponseEntity<>(productService.createProduct(productRequestDTO), HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<ProductBatchResultDTO>> applyBatch(@RequestBody byte[] content,
+                                                                            @RequestHeader HttpHeaders headers) {
+        ReceivedBody body = new ReceivedBody(content, headers);
+        return offload(batchBudget, write -> {
+            List<ProductBatchOperationDTO> operations = productBatchReader.read(body, write::checkpoint);
+            write.commit();
+            return ResponseEntity.ok(productService.applyBatch(operations));
+        });
+    }
+
+    @PutMapping("/{productId}")
+    public DeferredResult<ResponseEntity<ProductDTO>> updateProduct(@PathVariable Long productId,
+                                                                    @RequestBody ProductDTO productRequestDTO) {
+        return offload(productBudget, write -> {
+            validate(productRequestDTO);
+            write.commit();
+            return ResponseEntity.ok(productService.updateProduct(productId, productRequestDTO));
+        });
+    }
+
+    private <T> DeferredResult<T> offload(Duration budget, WriteTask<T> task) {
+        OffloadedWrite<T> write = productWriteOffloader.submit(budget, task);
+
+        // The write's own deadline answers first; the MVC timeout is only a backstop.
+        DeferredResult<T> result = new DeferredResult<>();
+        result.onTimeout(write::cancel);
+        result.onError(failure -> write.cancel());
+        write.result().whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.setResult(value);
+            } else if (!write.result().isCancelled()) {
+                // A cancelled write was cancelled by whatever is already answering the request.
+                result.setErrorResult(failure);
+            }
+        });
+        return result;
+    }
+
+    private void validate(ProductDTO productRequestDTO) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(productRequestDTO, "productDTO");
+        validator.validate(productRequestDTO, errors);
+        if (errors.hasErrors()) {
+            throw new ProductValidationException("Validation failed for object 'productDTO'", errors.getFieldErrors());
+        }
+    }
+
+    private record ReceivedBody(byte[] content, HttpHeaders headers) implements HttpInputMessage {
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.cosmocats.controller;
+
+import jakarta.validation.Valid;
+import org.example.cosmocats.dto.CartDTO;
+import org.example.cosmocats.dto.CartItemDTO;
+import org.example.cosmocats.service.CartService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/v1/api/carts")
+public class CartController {
+
+    private final CartService cartService;
+
+    public CartController(CartService cartService) {
+        this.cartService = cartService;
+    }
+
+    @PostMapping
+    public ResponseEntity<CartDTO> createCart() {
+        CartDTO createdCart = cartService.createCart();
+        return new ResponseEntity<>(createdCart, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{cartId}")
+    public ResponseEntity<CartDTO> getCartById(@PathVariable Long cartId) {
+        return ResponseEntity.ok(cartService.getCartById(cartId));
+    }
+
+    @PostMapping("/{cartId}/items")
+    public ResponseEntity<CartDTO> addItem(@PathVariable Long cartId,
+                                           @Valid @RequestBody CartItemDTO cartItemDTO) {
+        return ResponseEntity.ok(cartService.addItem(cartId, cartItemDTO));
+    }
+
+    @DeleteMapping("/{cartId}/items/{productId}")
+    public ResponseEntity<CartDTO> removeItem(@PathVariable Long cartId, @PathVariable Long productId) {
+        return ResponseEntity.ok(cartService.removeItem(cartId, productId));
+    }
+
+    @DeleteMapping("/{cartId}")
+    public ResponseEntity<Void> deleteCart(@PathVariable Long cartId) {
+        cartService.deleteCart(cartId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.cosmocats.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.validation.Valid;
+import org.example.cosmocats.cluster.ClusterRebalancer;
+import org.example.cosmocats.codec.ProductDtoCodec;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.dto.ClusterMembershipDTO;
+import org.example.cosmocats.dto.ClusterNodeDTO;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.ProductSearchRequestDTO;
+import org.example.cosmocats.dto.ProductSearchResultDTO;
+import org.example.cosmocats.dto.ProductShardPageDTO;
+import org.example.cosmocats.dto.ProductTransferDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.service.impl.ClusteredProductSearchService;
+import org.example.cosmocats.service.impl.ClusteredProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Endpoints the nodes of a cluster call on each other, open only to callers
+ * presenting the cluster secret (see {@link org.example.cosmocats.cluster.ClusterSecretFilter}).
+ * Product endpoints only answer for products this node owns.
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ClusterRebalancer clusterRebalancer;
+    private final ClusteredProductService productService;
+    private final ClusteredProductSearchService productSearchService;
+    private final ProductDtoCodec productDtoCodec;
+
+    public ClusterController(ClusterRebalancer clusterRebalancer, ClusteredProductService productService,
+                             ClusteredProductSearchService productSearchService, ProductDtoCodec productDtoCodec) {
+        this.clusterRebalancer = clusterRebalancer;
+        this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productDtoCodec = productDtoCodec;
+    }
+
+    @GetMapping("/members")
+    public ResponseEntity<ClusterMembershipDTO> getMembers() {
+        return ResponseEntity.ok(clusterRebalancer.members());
+    }
+
+    @PostMapping("/join")
+    public ResponseEntity<ClusterMembershipDTO> join(@Valid @RequestBody ClusterNodeDTO node) {
+        return ResponseEntity.ok(clusterRebalancer.admit(node));
+    }
+
+    @PostMapping("/prepare")
+    public ResponseEntity<Void> prepare(@Valid @RequestBody ClusterMembershipDTO membership) {
+        clusterRebalancer.prepareLocal(membership);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/commit")
+    public ResponseEntity<Void> commit(@RequestParam long epoch) {
+        clusterRebalancer.commitLocal(epoch);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/abort")
+    public ResponseEntity<Void> abort(@RequestParam long epoch) {
+        clusterRebalancer.abortLocal(epoch);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/products/import")
+    public ResponseEntity<Void> importProducts(@RequestBody List<@Valid ProductTransferDTO> products) {
+        clusterRebalancer.importProducts(products);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductDTO>> findProducts(@RequestParam(required = false) CategoryType category,
+                                                         @RequestParam(required = false) ProductStatus status,
+                                                         @RequestParam(required = false) BigDecimal minPrice,
+                                                         @RequestParam(required = false) BigDecimal maxPrice) {
+        return ResponseEntity.ok(productService.findOwnedProducts(category, status, minPrice, maxPrice));
+    }
+
+    @GetMapping("/products/page")
+    public ResponseEntity<ProductShardPageDTO> getProductPage(@ModelAttribute ProductPageRequestDTO pageRequest) {
+        return ResponseEntity.ok(productService.listOwnedPage(pageRequest));
+    }
+
+    @GetMapping(value = "/products/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<ProductDTO> products = productService.streamOwnedProducts(updatedSince);
+                 JsonGenerator generator = productDtoCodec.createGenerator(outputStream, false)) {
+                generator.setRootValueSeparator(null);
+                Iterator<ProductDTO> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    productDtoCodec.writeProduct(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/products/search")
+    public ResponseEntity<ProductSearchResultDTO> searchProducts(
+            @Valid @ModelAttribute ProductSearchRequestDTO searchRequest) {
+        return ResponseEntity.ok(productSearchService.searchOwned(searchRequest));
+    }
+
+    @PostMapping("/products/batch")
+    public ResponseEntity<ProductBatchResultDTO> applyBatch(@RequestBody List<ProductBatchOperationDTO> operations) {
+        return ResponseEntity.ok(productService.applyBatchOwned(operations));
+    }
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<VersionedProductDTO> getProduct(@PathVariable Long productId) {
+        return ResponseEntity.ok(productService.getOwnedProduct(productId));
+    }
+
+    @PutMapping("/products/{productId}")
+    public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long productId,
+                                                    @Valid @RequestBody ProductDTO productRequestDTO) {
+        return ResponseEntity.ok(productService.updateOwned(productId, productRequestDTO));
+    }
+
+    @DeleteMapping("/products/{productId}")
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long productId) {
+        productService.deleteOwned(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/products/{productId}/reserve")
+    public ResponseEntity<ProductDTO> reserveStock(@PathVariable Long productId, @RequestParam int quantity) {
+        return ResponseEntity.ok(productService.reserveStockOwned(productId, quantity));
+    }
+
+    @PostMapping("/products/{productId}/reserve-up-to")
+    public ResponseEntity<StockReservationDTO> reserveUpTo(@PathVariable Long productId, @RequestParam int quantity) {
+        return ResponseEntity.ok(productService.reserveUpToOwned(productId, quantity));
+    }
+
+    @PostMapping("/products/{productId}/release")
+    public ResponseEntity<Void> releaseStock(@PathVariable Long productId, @RequestParam int quantity) {
+        productService.releaseStockOwned(productId, quantity);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/catalog-version")
+    public ResponseEntity<Long> getCatalogVersion() {
+        return ResponseEntity.ok(productService.getOwnedCatalogVersion());
+    }
+}
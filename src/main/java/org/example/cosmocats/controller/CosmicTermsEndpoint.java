@@ -0,0 +1,45 @@
+package org.example.cosmocats.controller;
+
+import org.example.cosmocats.dto.validation.CosmicTermRegistry;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replaces the cosmic terms at runtime. An actuator endpoint rather than part
+ * of the public API, so it is only reachable where management endpoints are
+ * exposed, for example with {@code management.endpoints.web.exposure.include}
+ * on a separate {@code management.server.port}.
+ */
+@Component
+@Endpoint(id = "cosmicterms")
+public class CosmicTermsEndpoint {
+
+    private final CosmicTermRegistry cosmicTermRegistry;
+
+    public CosmicTermsEndpoint(CosmicTermRegistry cosmicTermRegistry) {
+        this.cosmicTermRegistry = cosmicTermRegistry;
+    }
+
+    @ReadOperation
+    public List<String> terms() {
+        return cosmicTermRegistry.getTerms();
+    }
+
+    /**
+     * Takes the terms comma separated, as in {@code cosmocats.validation.cosmic-terms}.
+     */
+    @WriteOperation
+    public List<String> reload(String terms) {
+        List<String> parsed = Arrays.stream(terms.split(",")).map(String::strip).toList();
+        if (parsed.stream().anyMatch(String::isEmpty)) {
+            throw new InvalidEndpointRequestException("Terms must not be blank", "Invalid cosmic terms");
+        }
+        return cosmicTermRegistry.reload(parsed);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.cosmocats.controller.GlobalException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Throttles clients that keep sending malformed payloads, unknown ids or wrong
+ * credentials. Every 400, 401 or 404 a client receives spends from its error budget, which refills at
+ * {@code errors-per-second} up to {@code burst}. Once it is spent, the client's
+ * requests are answered with 429 before they reach a controller. Other statuses,
+ * such as 409 when stock runs out, are normal outcomes and cost nothing.
+ * <p>
+ * A client is its remote address unless {@code client-header} names a header
+ * to tell clients apart by, such as {@code X-Forwarded-For} or an API key set
+ * by the gateway. The header is only believed on requests from one of the
+ * {@code trusted-proxies}, or from anyone when none are listed; of a list of
+ * addresses the last one counts, since that is the one the proxy added.
+ * Budgets are kept in a bounded cache, and one left alone long enough to
+ * refill is dropped.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "cosmocats.errors.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ErrorRateLimitFilter extends OncePerRequestFilter {
+
+    private static final ProblemTemplate TOO_MANY_ERRORS = ProblemTemplate.of(HttpStatus.TOO_MANY_REQUESTS,
+            "Too Many Failed Requests", "This client sent too many invalid requests; retry after the Retry-After delay.");
+
+    private final ProblemResponseWriter problemResponseWriter;
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final Cache<String, ErrorBudget> budgets;
+
+    public ErrorRateLimitFilter(ProblemResponseWriter problemResponseWriter,
+                                @Value("${cosmocats.errors.rate-limit.errors-per-second:20}") int errorsPerSecond,
+                                @Value("${cosmocats.errors.rate-limit.burst:200}") int burst,
+                                @Value("${cosmocats.errors.rate-limit.max-clients:100000}") int maxClients,
+                                @Value("${cosmocats.errors.rate-limit.client-header:}") String clientHeader,
+                                @Value("${cosmocats.errors.rate-limit.trusted-proxies:}") List<String> trustedProxies) {
+        if (errorsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("errors-per-second and burst must be positive");
+        }
+        this.problemResponseWriter = problemResponseWriter;
+        this.emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / errorsPerSecond;
+        this.toleranceNanos = emissionIntervalNanos * burst;
+        this.clientHeader = clientHeader.isBlank() ? null : clientHeader.trim();
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        // A budget untouched for the whole tolerance has refilled, and says nothing an absent one does not.
+        this.budgets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos + emissionIntervalNanos))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        ErrorBudget budget = budgets.getIfPresent(client);
+        if (budget != null) {
+            long retryAfterNanos = budget.retryAfterNanos(System.nanoTime(), toleranceNanos);
+            if (retryAfterNanos > 0) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos) + 1));
+                problemResponseWriter.write(response, TOO_MANY_ERRORS, null, request.getRequestURI());
+                return;
+            }
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int status = response.getStatus();
+            if (status == HttpServletResponse.SC_BAD_REQUEST || status == HttpServletResponse.SC_UNAUTHORIZED
+                    || status == HttpServletResponse.SC_NOT_FOUND) {
+                if (budget == null) {
+                    budget = budgets.get(client, key -> new ErrorBudget(System.nanoTime()));
+                }
+                budget.spend(System.nanoTime(), emissionIntervalNanos);
+            }
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String peer = request.getRemoteAddr();
+        if (clientHeader == null || !(trustedProxies.isEmpty() || trustedProxies.contains(peer))) {
+            return peer;
+        }
+        String forwarded = request.getHeader(clientHeader);
+        if (forwarded == null) {
+            return peer;
+        }
+        String client = forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+        return client.isEmpty() ? peer : client;
+    }
+
+    /**
+     * A generic cell rate limiter: the single value is the time at which the
+     * budget would be full again, so spending and checking are one CAS or read.
+     */
+    private static final class ErrorBudget {
+
+        private final AtomicLong refilledAt;
+
+        ErrorBudget(long now) {
+            this.refilledAt = new AtomicLong(now);
+        }
+
+        void spend(long now, long emissionIntervalNanos) {
+            long current;
+            do {
+                current = refilledAt.get();
+            } while (!refilledAt.compareAndSet(current, (current - now > 0 ? current : now) + emissionIntervalNanos));
+        }
+
+        long retryAfterNanos(long now, long toleranceNanos) {
+            return refilledAt.get() - toleranceNanos - now;
+        }
+    }
+}
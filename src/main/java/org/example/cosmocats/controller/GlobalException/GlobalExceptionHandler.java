@@ -1,21 +1,80 @@
 package org.example.cosmocats.controller.GlobalException;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.cosmocats.service.exception.BatchTooLargeException;
+import org.example.cosmocats.service.exception.CartNotFoundException;
+import org.example.cosmocats.service.exception.CategoryAlreadyExistsException;
+import org.example.cosmocats.service.exception.CategoryInUseException;
+import org.example.cosmocats.service.exception.CategoryNotFoundException;
+import org.example.cosmocats.service.exception.ClusterUnavailableException;
+import org.example.cosmocats.service.exception.InsufficientStockException;
+import org.example.cosmocats.service.exception.InvalidCursorException;
+import org.example.cosmocats.service.exception.InvalidOrderStatusTransitionException;
+import org.example.cosmocats.service.exception.OrderNotFoundException;
+import org.example.cosmocats.service.exception.OrderQueueFullException;
 import org.example.cosmocats.service.exception.ProductNotFoundException;
-import org.springframework.http.*;
+import org.example.cosmocats.service.exception.ProductValidationException;
+import org.example.cosmocats.service.exception.ProductWriteDeadlineExceededException;
+import org.example.cosmocats.service.exception.ProductWriteQueueFullException;
+import org.example.cosmocats.service.exception.TooManySubscribersException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
-    
+    private static final ProblemTemplate VALIDATION_FAILED =
+            ProblemTemplate.of(HttpStatus.BAD_REQUEST, "Validation Failed", "One or more fields have invalid values.");
+    private static final ProblemTemplate PRODUCT_NOT_FOUND = ProblemTemplate.of(HttpStatus.NOT_FOUND, "Product Not Found");
+    private static final ProblemTemplate INVALID_CURSOR = ProblemTemplate.of(HttpStatus.BAD_REQUEST, "Invalid Cursor");
+    private static final ProblemTemplate BATCH_TOO_LARGE = ProblemTemplate.of(HttpStatus.PAYLOAD_TOO_LARGE, "Batch Too Large");
+    private static final ProblemTemplate CART_NOT_FOUND = ProblemTemplate.of(HttpStatus.NOT_FOUND, "Cart Not Found");
+    private static final ProblemTemplate INSUFFICIENT_STOCK = ProblemTemplate.of(HttpStatus.CONFLICT, "Insufficient Stock");
+    private static final ProblemTemplate ORDER_NOT_FOUND = ProblemTemplate.of(HttpStatus.NOT_FOUND, "Order Not Found");
+    private static final ProblemTemplate INVALID_ORDER_STATUS_TRANSITION = ProblemTemplate.of(HttpStatus.CONFLICT, "Invalid Order Status Transition");
+    private static final ProblemTemplate ORDER_QUEUE_FULL = ProblemTemplate.of(HttpStatus.TOO_MANY_REQUESTS, "Too Many Orders");
+    private static final ProblemTemplate PRODUCT_WRITE_QUEUE_FULL = ProblemTemplate.of(HttpStatus.TOO_MANY_REQUESTS, "Too Many Product Writes");
+    private static final ProblemTemplate PRODUCT_WRITE_DEADLINE_EXCEEDED = ProblemTemplate.of(HttpStatus.SERVICE_UNAVAILABLE, "Product Write Deadline Exceeded");
+    private static final ProblemTemplate CATEGORY_NOT_FOUND = ProblemTemplate.of(HttpStatus.NOT_FOUND, "Category Not Found");
+    private static final ProblemTemplate CATEGORY_ALREADY_EXISTS = ProblemTemplate.of(HttpStatus.CONFLICT, "Category Already Exists");
+    private static final ProblemTemplate CATEGORY_IN_USE = ProblemTemplate.of(HttpStatus.CONFLICT, "Category In Use");
+    private static final ProblemTemplate TOO_MANY_SUBSCRIBERS = ProblemTemplate.of(HttpStatus.TOO_MANY_REQUESTS, "Too Many Subscribers");
+    private static final ProblemTemplate CLUSTER_UNAVAILABLE = ProblemTemplate.of(HttpStatus.SERVICE_UNAVAILABLE, "Cluster Unavailable");
+    private static final ProblemTemplate UNEXPECTED_ERROR =
+            ProblemTemplate.of(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected Error", "An unexpected error occurred.");
+
+    private final ProblemResponseWriter problemResponseWriter;
+    private final MeterRegistry meterRegistry;
+    private final Counter productNotFoundCounter;
+    private final ConcurrentMap<String, Counter> validationFailureCounters = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(ProblemResponseWriter problemResponseWriter, MeterRegistry meterRegistry) {
+        this.problemResponseWriter = problemResponseWriter;
+        this.meterRegistry = meterRegistry;
+        this.productNotFoundCounter = Counter.builder("cosmocats.products.not.found")
+                .description("Lookups of products that do not exist")
+                .register(meterRegistry);
+    }
+
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex,
@@ -23,46 +82,176 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             HttpStatusCode status,
             WebRequest request) {
 
-        ProblemDetail problemDetail = ProblemDetail.forStatus(status);
-        problemDetail.setTitle("Validation Failed");
-        problemDetail.setDetail("One or more fields have invalid values.");
+        ServletWebRequest servletRequest = (ServletWebRequest) request;
+        try {
+            writeValidationFailure(servletRequest.getResponse(), servletRequest.getRequest().getRequestURI(),
+                    ex.getBindingResult().getFieldErrors());
+        } catch (IOException writeFailed) {
+            throw new UncheckedIOException(writeFailed);
+        }
+        // The body is already written; a null entity tells Spring MVC the response is handled.
+        return null;
+    }
 
-        Map<String, String> fieldErrors = new HashMap<>();
-        ex.getBindingResult().getFieldErrors().forEach(error ->
-                fieldErrors.put(error.getField(), error.getDefaultMessage()));
 
-        problemDetail.setProperty("fieldErrors", fieldErrors);
-        problemDetail.setProperty("timestamp", LocalDateTime.now());
-        problemDetail.setProperty("path", request.getDescription(false).replace("uri=", ""));
+    @ExceptionHandler(ProductValidationException.class)
+    public void handleProductValidation(
+            ProductValidationException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
 
-        return new ResponseEntity<>(problemDetail, status);
+        writeValidationFailure(response, request.getRequestURI(), ex.getFieldErrors());
     }
 
 
     @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<Object> handleProductNotFound(
-            ProductNotFoundException ex, WebRequest request) {
+    public void handleProductNotFound(
+            ProductNotFoundException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        productNotFoundCounter.increment();
+        problemResponseWriter.write(response, PRODUCT_NOT_FOUND, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public void handleInvalidCursor(
+            InvalidCursorException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, INVALID_CURSOR, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public void handleBatchTooLarge(
+            BatchTooLargeException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, BATCH_TOO_LARGE, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(CartNotFoundException.class)
+    public void handleCartNotFound(
+            CartNotFoundException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, CART_NOT_FOUND, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public void handleInsufficientStock(
+            InsufficientStockException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, INSUFFICIENT_STOCK, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(OrderNotFoundException.class)
+    public void handleOrderNotFound(
+            OrderNotFoundException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, ORDER_NOT_FOUND, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(InvalidOrderStatusTransitionException.class)
+    public void handleInvalidOrderStatusTransition(
+            InvalidOrderStatusTransitionException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, INVALID_ORDER_STATUS_TRANSITION, ex.getMessage(), request.getRequestURI());
+    }
 
-        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
-        problemDetail.setTitle("Product Not Found");
-        problemDetail.setDetail(ex.getMessage());
-        problemDetail.setProperty("timestamp", LocalDateTime.now());
-        problemDetail.setProperty("path", request.getDescription(false).replace("uri=", ""));
 
-        return new ResponseEntity<>(problemDetail, HttpStatus.NOT_FOUND);
+    @ExceptionHandler(OrderQueueFullException.class)
+    public void handleOrderQueueFull(
+            OrderQueueFullException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        problemResponseWriter.write(response, ORDER_QUEUE_FULL, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(ProductWriteQueueFullException.class)
+    public void handleProductWriteQueueFull(
+            ProductWriteQueueFullException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        problemResponseWriter.write(response, PRODUCT_WRITE_QUEUE_FULL, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(ProductWriteDeadlineExceededException.class)
+    public void handleProductWriteDeadlineExceeded(
+            ProductWriteDeadlineExceededException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        problemResponseWriter.write(response, PRODUCT_WRITE_DEADLINE_EXCEEDED, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(CategoryNotFoundException.class)
+    public void handleCategoryNotFound(
+            CategoryNotFoundException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, CATEGORY_NOT_FOUND, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(CategoryAlreadyExistsException.class)
+    public void handleCategoryAlreadyExists(
+            CategoryAlreadyExistsException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, CATEGORY_ALREADY_EXISTS, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(CategoryInUseException.class)
+    public void handleCategoryInUse(
+            CategoryInUseException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, CATEGORY_IN_USE, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(TooManySubscribersException.class)
+    public void handleTooManySubscribers(
+            TooManySubscribersException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        problemResponseWriter.write(response, TOO_MANY_SUBSCRIBERS, ex.getMessage(), request.getRequestURI());
+    }
+
+
+    @ExceptionHandler(ClusterUnavailableException.class)
+    public void handleClusterUnavailable(
+            ClusterUnavailableException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        problemResponseWriter.write(response, CLUSTER_UNAVAILABLE, ex.getMessage(), request.getRequestURI());
     }
 
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Object> handleGlobalException(
-            Exception ex, WebRequest request) {
+    public void handleGlobalException(
+            Exception ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        problemResponseWriter.write(response, UNEXPECTED_ERROR, null, request.getRequestURI());
+    }
 
-        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.INTERNAL_SERVER_ERROR);
-        problemDetail.setTitle("Unexpected Error");
-        problemDetail.setDetail("An unexpected error occurred.");
-        problemDetail.setProperty("timestamp", LocalDateTime.now());
-        problemDetail.setProperty("path", request.getDescription(false).replace("uri=", ""));
+    private void writeValidationFailure(HttpServletResponse response, String path, List<FieldError> fieldErrors)
+            throws IOException {
+        for (int i = 0; i < fieldErrors.size(); i++) {
+            validationFailureCounter(fieldErrors.get(i).getField()).increment();
+        }
+        problemResponseWriter.writeFieldErrors(response, VALIDATION_FAILED, path, fieldErrors);
+    }
 
-        return new ResponseEntity<>(problemDetail, HttpStatus.INTERNAL_SERVER_ERROR);
+    private Counter validationFailureCounter(String field) {
+        // Field names come from the DTOs, so the number of counters stays bounded.
+        Counter counter = validationFailureCounters.get(field);
+        if (counter == null) {
+            counter = validationFailureCounters.computeIfAbsent(field, name -> Counter.builder("cosmocats.validation.failures")
+                    .description("Request fields rejected by bean validation")
+                    .tag("field", name)
+                    .register(meterRegistry));
+        }
+        return counter;
     }
 }
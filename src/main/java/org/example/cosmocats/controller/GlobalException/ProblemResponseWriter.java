@@ -0,0 +1,160 @@
+package org.example.cosmocats.controller.GlobalException;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.FieldError;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes problem+json bodies from a {@link ProblemTemplate}, producing the same
+ * document the ProblemDetail handlers used to. Only the request dependent values
+ * are encoded per call, into a per-thread buffer that goes out in one write, and
+ * the timestamp is shared by every error raised within the same millisecond.
+ */
+@Component
+public class ProblemResponseWriter {
+
+    private static final byte[] INSTANCE = ascii("\",\"instance\":\"");
+    private static final byte[] FIELD_ERRORS = ascii("\",\"fieldErrors\":{");
+    private static final byte[] TIMESTAMP_AFTER_FIELD_ERRORS = ascii("},\"timestamp\":\"");
+    private static final byte[] TIMESTAMP = ascii("\",\"timestamp\":\"");
+    private static final byte[] PATH = ascii("\",\"path\":\"");
+    private static final byte[] END = ascii("\"}");
+    private static final byte[] NULL = ascii("null");
+    private static final int BUFFER_SIZE = 1024;
+    // A buffer grown by an unusually large body is dropped rather than kept per thread.
+    private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+
+    private final ThreadLocal<ProblemBuffer> buffers = ThreadLocal.withInitial(() -> new ProblemBuffer(BUFFER_SIZE));
+    private volatile CachedTimestamp timestamp = new CachedTimestamp(Long.MIN_VALUE, new byte[0]);
+
+    public void write(HttpServletResponse response, ProblemTemplate template, String detail, String path) throws IOException {
+        ProblemBuffer buffer = acquire();
+        appendHead(buffer, template, detail, path);
+        buffer.append(TIMESTAMP);
+        appendTail(buffer, path);
+        send(response, template, buffer);
+    }
+
+    public void writeFieldErrors(HttpServletResponse response, ProblemTemplate template, String path,
+                                 List<FieldError> fieldErrors) throws IOException {
+        ProblemBuffer buffer = acquire();
+        appendFieldErrors(buffer, template, path, fieldErrors);
+        send(response, template, buffer);
+    }
+
+    public void writeBody(OutputStream out, ProblemTemplate template, String detail, String path) throws IOException {
+        ProblemBuffer buffer = acquire();
+        appendHead(buffer, template, detail, path);
+        buffer.append(TIMESTAMP);
+        appendTail(buffer, path);
+        release(out, buffer);
+    }
+
+    public void writeFieldErrorsBody(OutputStream out, ProblemTemplate template, String path,
+                                     List<FieldError> fieldErrors) throws IOException {
+        ProblemBuffer buffer = acquire();
+        appendFieldErrors(buffer, template, path, fieldErrors);
+        release(out, buffer);
+    }
+
+    private void appendFieldErrors(ProblemBuffer buffer, ProblemTemplate template, String path, List<FieldError> fieldErrors) {
+        appendHead(buffer, template, null, path);
+        buffer.append(FIELD_ERRORS);
+        boolean first = true;
+        for (int i = 0; i < fieldErrors.size(); i++) {
+            FieldError error = fieldErrors.get(i);
+            // A field can fail several constraints; like a map, the last message wins.
+            if (reportedLater(fieldErrors, i)) {
+                continue;
+            }
+            if (!first) {
+                buffer.append(',');
+            }
+            first = false;
+            buffer.append('"').appendEscaped(error.getField()).append('"').append(':');
+            String message = error.getDefaultMessage();
+            if (message == null) {
+                buffer.append(NULL);
+            } else {
+                buffer.append('"').appendEscaped(message).append('"');
+            }
+        }
+        buffer.append(TIMESTAMP_AFTER_FIELD_ERRORS);
+        appendTail(buffer, path);
+    }
+
+    private void appendHead(ProblemBuffer buffer, ProblemTemplate template, String detail, String path) {
+        buffer.append(template.getHead());
+        if (template.getFixedDetail() != null) {
+            buffer.append(template.getFixedDetail());
+        } else if (detail != null) {
+            buffer.appendEscaped(detail);
+        }
+        buffer.append(INSTANCE).appendEscaped(path);
+    }
+
+    private void appendTail(ProblemBuffer buffer, String path) {
+        buffer.append(timestamp()).append(PATH).appendEscaped(path).append(END);
+    }
+
+    private void send(HttpServletResponse response, ProblemTemplate template, ProblemBuffer buffer) throws IOException {
+        response.setStatus(template.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(buffer.size());
+        release(response.getOutputStream(), buffer);
+    }
+
+    private ProblemBuffer acquire() {
+        ProblemBuffer buffer = buffers.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    private void release(OutputStream out, ProblemBuffer buffer) throws IOException {
+        try {
+            buffer.writeTo(out);
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private byte[] timestamp() {
+        long now = System.currentTimeMillis();
+        CachedTimestamp cached = timestamp;
+        if (cached.millis() != now) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault());
+            cached = new CachedTimestamp(now, ascii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time)));
+            timestamp = cached;
+        }
+        return cached.bytes();
+    }
+
+    private static boolean reportedLater(List<FieldError> fieldErrors, int index) {
+        String field = fieldErrors.get(index).getField();
+        for (int j = index + 1; j < fieldErrors.size(); j++) {
+            if (field.equals(fieldErrors.get(j).getField())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record CachedTimestamp(long millis, byte[] bytes) {
+    }
+}
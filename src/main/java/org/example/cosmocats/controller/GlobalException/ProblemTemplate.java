@@ -0,0 +1,41 @@
+package org.example.cosmocats.controller.GlobalException;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The constant part of a problem response for one kind of error, encoded once:
+ * everything up to and including the opening quote of {@code detail}, plus the
+ * detail itself when it does not depend on the request.
+ */
+@Getter
+public final class ProblemTemplate {
+
+    private final HttpStatus status;
+    private final byte[] head;
+    private final byte[] fixedDetail;
+
+    private ProblemTemplate(HttpStatus status, String title, String fixedDetail) {
+        this.status = status;
+        this.head = new ProblemBuffer(128)
+                .append(ascii("{\"type\":\"about:blank\",\"title\":\""))
+                .appendEscaped(title)
+                .append(ascii("\",\"status\":" + status.value() + ",\"detail\":\""))
+                .toByteArray();
+        this.fixedDetail = fixedDetail == null ? null : new ProblemBuffer(128).appendEscaped(fixedDetail).toByteArray();
+    }
+
+    public static ProblemTemplate of(HttpStatus status, String title) {
+        return new ProblemTemplate(status, title, null);
+    }
+
+    public static ProblemTemplate of(HttpStatus status, String title, String detail) {
+        return new ProblemTemplate(status, title, detail);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.cosmocats.controller;
+
+import jakarta.validation.Valid;
+import org.example.cosmocats.common.OrderStatus;
+import org.example.cosmocats.dto.OrderDTO;
+import org.example.cosmocats.dto.OrderPipelineStatsDTO;
+import org.example.cosmocats.dto.OrderRequestDTO;
+import org.example.cosmocats.dto.OrderStatusUpdateDTO;
+import org.example.cosmocats.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/v1/api/orders")
+public class OrderController {
+
+    private final OrderService orderService;
+    private final Duration confirmationTimeout;
+
+    public OrderController(OrderService orderService,
+                           @Value("${cosmocats.orders.confirmation-timeout:5s}") Duration confirmationTimeout) {
+        this.orderService = orderService;
+        this.confirmationTimeout = confirmationTimeout;
+    }
+
+    /**
+     * Places an order. By default waits for checkout to settle it: 201 when
+     * confirmed, 409 when cancelled for lack of stock. With {@code async=true},
+     * or when settling takes longer than the confirmation timeout, answers 202
+     * with the order's URL to poll.
+     */
+    @PostMapping
+    public ResponseEntity<OrderDTO> placeOrder(@Valid @RequestBody OrderRequestDTO orderRequestDTO,
+                                               @RequestParam(defaultValue = "false") boolean async) {
+        OrderDTO order = orderService.submitOrder(orderRequestDTO);
+        if (!async) {
+            order = orderService.awaitOrder(order.getId(), confirmationTimeout);
+        }
+
+        URI location = URI.create("/v1/api/orders/" + order.getId());
+        HttpStatus status = switch (OrderStatus.valueOf(order.getStatus())) {
+            case PENDING -> HttpStatus.ACCEPTED;
+            case CANCELLED -> HttpStatus.CONFLICT;
+            default -> HttpStatus.CREATED;
+        };
+        return ResponseEntity.status(status).location(location).body(order);
+    }
+
+    @GetMapping("/{orderId}")
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.getOrderById(orderId));
+    }
+
+    @PutMapping("/{orderId}/status")
+    public ResponseEntity<OrderDTO> updateOrderStatus(@PathVariable Long orderId,
+                                                      @Valid @RequestBody OrderStatusUpdateDTO statusUpdateDTO) {
+        return ResponseEntity.ok(orderService.updateOrderStatus(orderId, statusUpdateDTO.getStatus()));
+    }
+
+    @GetMapping("/pipeline/stats")
+    public ResponseEntity<OrderPipelineStatsDTO> getPipelineStats() {
+        return ResponseEntity.ok(orderService.getPipelineStats());
+    }
+}
@@ -1,34 +1,138 @@
 package org.example.cosmocats.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.example.cosmocats.cache.ProductJsonCache;
+import org.example.cosmocats.codec.ProductBatchReader;
+import org.example.cosmocats.codec.ProductDtoCodec;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
 import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.ProductSearchRequestDTO;
+import org.example.cosmocats.dto.ProductSearchResultDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.service.ProductChangeService;
+import org.example.cosmocats.service.ProductSearchService;
 import org.example.cosmocats.service.ProductService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/v1/api/products")
 public class ProductController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductChangeService productChangeService;
+    private final ProductJsonCache productJsonCache;
+    private final ProductDtoCodec productDtoCodec;
+    private final ProductBatchReader productBatchReader;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchService productSearchService,
+                             ProductChangeService productChangeService, ProductJsonCache productJsonCache,
+                             ProductDtoCodec productDtoCodec, ProductBatchReader productBatchReader) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productChangeService = productChangeService;
+        this.productJsonCache = productJsonCache;
+        this.productDtoCodec = productDtoCodec;
+        this.productBatchReader = productBatchReader;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductPageDTO> getAllProducts(@ModelAttribute ProductPageRequestDTO pageRequest,
+                                                         WebRequest request) {
+        // A page is fully determined by its query string and the catalog state,
+        // so the catalog version is a strong validator for any listing URL.
+        return listProducts(pageRequest, request, "\"catalog-" + productService.getCatalogVersion() + "\"");
     }
 
-    @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<ProductDTO> products = productService.listAllProducts();
-        return ResponseEntity.ok(products);
+    @GetMapping(produces = ProductDtoCodec.APPLICATION_SMILE_VALUE)
+    public ResponseEntity<ProductPageDTO> getAllProductsAsSmile(@ModelAttribute ProductPageRequestDTO pageRequest,
+                                                                WebRequest request) {
+        return listProducts(pageRequest, request, "\"catalog-" + productService.getCatalogVersion() + "-smile\"");
     }
 
-    @GetMapping("/{productId}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long productId) {
-        ProductDTO product = productService.getProductById(productId);
-        return ResponseEntity.ok(product);
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResultDTO> searchProducts(
+            @Valid @ModelAttribute ProductSearchRequestDTO searchRequest) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(productSearchService.searchProducts(searchRequest));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<ProductDTO> products = productService.streamProducts(updatedSince);
+                 JsonGenerator generator = productDtoCodec.createGenerator(outputStream, false)) {
+                generator.setRootValueSeparator(null);
+                Iterator<ProductDTO> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    productDtoCodec.writeProduct(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long fromSeq,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        // An EventSource reconnects with the id of the last event it saw.
+        Long fromSequence = fromSeq != null ? fromSeq : lastEventId != null ? lastEventId + 1 : null;
+        return productChangeService.subscribe(fromSequence);
+    }
+
+    @GetMapping(value = "/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long productId, WebRequest request) {
+        // The ETag and the body come from one snapshot, so a concurrent write cannot pair them up wrongly.
+        VersionedProductDTO snapshot = productService.getVersionedProduct(productId);
+        String etag = "\"" + productId + "-" + snapshot.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+
+        byte[] product = productJsonCache.get(productId, snapshot.getVersion(), snapshot::getProduct);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(product);
+    }
+
+    @GetMapping(value = "/{productId}", produces = ProductDtoCodec.APPLICATION_SMILE_VALUE)
+    public ResponseEntity<ProductDTO> getProductByIdAsSmile(@PathVariable Long productId, WebRequest request) {
+        // The JSON cache does not apply; Smile is encoded per request by the product converter.
+        VersionedProductDTO snapshot = productService.getVersionedProduct(productId);
+        String etag = "\"" + productId + "-" + snapshot.getVersion() + "-smile\"";
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(snapshot.getProduct());
     }
 
     @PostMapping
@@ -37,6 +141,13 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductBatchResultDTO> applyBatch(HttpServletRequest request) throws IOException {
+        ProductBatchResultDTO result = productService.applyBatch(
+                productBatchReader.read(new ServletServerHttpRequest(request)));
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{productId}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long productId,
                                                     @Valid @RequestBody ProductDTO productRequestDTO) {
@@ -49,4 +160,22 @@ public class ProductController {
         productService.deleteProduct(productId);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<ProductPageDTO> listProducts(ProductPageRequestDTO pageRequest, WebRequest request,
+                                                        String etag) {
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+
+        ProductPageDTO page = productService.listProducts(pageRequest);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    /**
+     * Each representation has its own validator, so a cache must key the
+     * response on the Accept header as well as the URL.
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+    }
 }
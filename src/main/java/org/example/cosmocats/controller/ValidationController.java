@@ -0,0 +1,23 @@
+package org.example.cosmocats.controller;
+
+import org.example.cosmocats.dto.validation.CosmicTermRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/api/validation")
+public class ValidationController {
+
+    private final CosmicTermRegistry cosmicTermRegistry;
+
+    public ValidationController(CosmicTermRegistry cosmicTermRegistry) {
+        this.cosmicTermRegistry = cosmicTermRegistry;
+    }
+
+    @GetMapping("/cosmic-terms")
+    public ResponseEntity<List<String>> getCosmicTerms() {
+        return ResponseEntity.ok(cosmicTermRegistry.getTerms());
+    }
+}
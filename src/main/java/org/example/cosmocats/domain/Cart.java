@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -13,6 +14,12 @@ import java.util.Map;
 @AllArgsConstructor
 public class Cart {
     private Long id;
-    private Map<Product, Integer> items = new HashMap<>();
+    // Reserved quantity per product id. Keyed by id rather than by Product,
+    // whose equals/hashCode change with every update of the product.
+    private Map<Long, Integer> items = new HashMap<>();
+    // Price per product id as of its latest reservation; the owning node's
+    // price, so the total is right whichever node holds the product.
+    private Map<Long, BigDecimal> unitPrices = new HashMap<>();
     private BigDecimal totalPrice;
+    private LocalDateTime expiresAt;
 }
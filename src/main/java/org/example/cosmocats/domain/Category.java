@@ -1,15 +1,39 @@
 package org.example.cosmocats.domain;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
 import org.example.cosmocats.common.CategoryType;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class Category {
-    private Long id;
-    private CategoryType type;
-    private String description;
+/**
+ * A product category. There is exactly one immutable instance per
+ * {@link CategoryType}, so every product in a category references the same
+ * object and the id of a category never changes.
+ */
+@Getter
+@ToString
+public final class Category {
+
+    private static final Category[] CANONICAL = new Category[CategoryType.values().length];
+
+    static {
+        for (CategoryType type : CategoryType.values()) {
+            CANONICAL[type.ordinal()] = new Category(type.ordinal() + 1L, type);
+        }
+    }
+
+    private final Long id;
+    private final CategoryType type;
+
+    private Category(Long id, CategoryType type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public static Category of(CategoryType type) {
+        return CANONICAL[type.ordinal()];
+    }
+
+    public static Category ofId(long id) {
+        return id >= 1 && id <= CANONICAL.length ? CANONICAL[(int) id - 1] : null;
+    }
 }
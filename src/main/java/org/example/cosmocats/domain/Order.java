@@ -14,8 +14,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Order {
     private Long id;
-    private List<Product> products;
+    // Lines carry the price paid, so later product updates do not change the order.
+    private List<OrderItem> items;
     private BigDecimal totalAmount;
     private OrderStatus status;
     private LocalDateTime orderDate;
+    private String failureReason;
 }
@@ -0,0 +1,16 @@
+package org.example.cosmocats.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItem {
+    private Long productId;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+}
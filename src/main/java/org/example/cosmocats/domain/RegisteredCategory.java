@@ -0,0 +1,7 @@
+package org.example.cosmocats.domain;
+
+/**
+ * A category that is open for products, with its catalog description.
+ */
+public record RegisteredCategory(Category category, String description) {
+}
@@ -0,0 +1,21 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDTO {
+    private Long id;
+    private List<CartItemDTO> items;
+    private BigDecimal totalPrice;
+    private LocalDateTime expiresAt;
+}
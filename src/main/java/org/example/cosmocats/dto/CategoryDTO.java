@@ -0,0 +1,27 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.cosmocats.dto.validation.ValidCategory;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDTO {
+    private Long id;
+
+    @NotBlank(message = "Category type is required")
+    @ValidCategory
+    private String type;
+
+    @NotBlank(message = "Description is required")
+    @Size(max = 200, message = "Description cannot exceed 200 characters")
+    private String description;
+
+    private Long productCount;
+}
@@ -0,0 +1,19 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryUpdateDTO {
+
+    @NotBlank(message = "Description is required")
+    @Size(max = 200, message = "Description cannot exceed 200 characters")
+    private String description;
+}
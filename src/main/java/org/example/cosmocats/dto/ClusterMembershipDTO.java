@@ -0,0 +1,24 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterMembershipDTO {
+    @PositiveOrZero(message = "Epoch cannot be negative")
+    private long epoch;
+
+    @NotEmpty(message = "Members are required")
+    private List<@NotNull @Valid ClusterNodeDTO> members;
+}
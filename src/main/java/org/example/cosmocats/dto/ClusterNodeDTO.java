@@ -0,0 +1,24 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterNodeDTO {
+    @Min(value = 0, message = "Node id cannot be negative")
+    @Max(value = 1023, message = "Node id must be below 1024")
+    private int id;
+
+    @NotBlank(message = "Node url is required")
+    @Pattern(regexp = "https?://\\S+", message = "Node url must be an http or https url")
+    private String url;
+}
@@ -0,0 +1,25 @@
+package org.example.cosmocats.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDTO {
+    private Long id;
+    private List<OrderItemDTO> items;
+    private BigDecimal totalAmount;
+    private String status;
+    private LocalDateTime orderDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String failureReason;
+}
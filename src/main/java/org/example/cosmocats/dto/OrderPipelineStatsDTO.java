@@ -0,0 +1,20 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPipelineStatsDTO {
+    private int queueDepth;
+    private int queueCapacity;
+    private long batches;
+    private long processedOrders;
+    private long rejectedOrders;
+    private int lastBatchSize;
+    private double averageBatchSize;
+}
@@ -0,0 +1,22 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRequestDTO {
+
+    @NotEmpty(message = "An order needs at least one item")
+    @Size(max = 100, message = "An order cannot have more than 100 items")
+    private List<@Valid OrderItemDTO> items;
+}
@@ -0,0 +1,18 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.cosmocats.common.OrderStatus;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateDTO {
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
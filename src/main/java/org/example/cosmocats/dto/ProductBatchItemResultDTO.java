@@ -0,0 +1,28 @@
+package org.example.cosmocats.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductBatchItemResultDTO {
+    private int index;
+    private Long id;
+    private Map<String, String> errors;
+
+    public static ProductBatchItemResultDTO success(int index, Long id) {
+        return new ProductBatchItemResultDTO(index, id, null);
+    }
+
+    public static ProductBatchItemResultDTO failure(int index, Long id, Map<String, String> errors) {
+        return new ProductBatchItemResultDTO(index, id, errors);
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.cosmocats.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.cosmocats.common.BatchOperationType;
+
+import java.util.Map;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchOperationDTO {
+    private BatchOperationType op;
+    private Long id;
+    private ProductDTO product;
+    // Set instead of the fields above for an item that could not be bound, so it fails on its own.
+    @JsonIgnore
+    private Map<String, String> readErrors;
+
+    public static ProductBatchOperationDTO unreadable(Long id, Map<String, String> readErrors) {
+        return new ProductBatchOperationDTO(null, id, null, readErrors);
+    }
+}
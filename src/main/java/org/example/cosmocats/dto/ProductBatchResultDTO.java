@@ -0,0 +1,18 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResultDTO {
+    private int succeeded;
+    private int failed;
+    private List<ProductBatchItemResultDTO> results;
+}
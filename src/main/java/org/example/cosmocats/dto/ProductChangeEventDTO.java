@@ -0,0 +1,22 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeEventDTO {
+    private long sequence;
+    private String type;
+    private Long productId;
+    private Long version;
+    private LocalDateTime timestamp;
+    private ProductDTO before;
+    private ProductDTO after;
+}
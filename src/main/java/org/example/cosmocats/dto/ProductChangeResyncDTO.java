@@ -0,0 +1,16 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeResyncDTO {
+    private long requestedSequence;
+    private long oldestSequence;
+    private long nextSequence;
+}
@@ -0,0 +1,25 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.common.ProductStatus;
+
+import java.math.BigDecimal;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageRequestDTO {
+    private Integer limit;
+    private String after;
+    private CategoryType category;
+    private ProductStatus status;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private ProductSortField sort = ProductSortField.ID;
+}
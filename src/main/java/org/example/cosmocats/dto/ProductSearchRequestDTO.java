@@ -0,0 +1,27 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchRequestDTO {
+
+    @NotBlank(message = "Search query is required")
+    @Size(max = 200, message = "Search query cannot exceed 200 characters")
+    private String q;
+
+    private CategoryType category;
+    private ProductStatus status;
+    private Integer limit;
+    private boolean prefix = true;
+    private boolean fuzzy;
+}
@@ -0,0 +1,18 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductShardPageDTO {
+    private List<ProductDTO> items;
+    private List<String> cursors;
+    private String nextCursor;
+}
@@ -0,0 +1,46 @@
+package org.example.cosmocats.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTransferDTO {
+    @NotNull(message = "Product id is required")
+    @Positive(message = "Product id must be positive")
+    private Long id;
+
+    @NotBlank(message = "Product name is required")
+    @Size(max = 100, message = "Product name cannot exceed 100 characters")
+    private String name;
+
+    @Size(max = 500, message = "Description cannot exceed 500 characters")
+    private String description;
+
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    private BigDecimal price;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 0, message = "Quantity cannot be negative")
+    private Integer quantity;
+
+    @NotNull(message = "Category is required")
+    private CategoryType category;
+
+    @NotNull(message = "Status is required")
+    private ProductStatus status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+package org.example.cosmocats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationDTO {
+    private int quantity;
+    // The price when the stock was taken; null when nothing was.
+    private BigDecimal unitPrice;
+}
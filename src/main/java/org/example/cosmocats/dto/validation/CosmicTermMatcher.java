@@ -0,0 +1,163 @@
+package org.example.cosmocats.dto.validation;
+
+import java.util.*;
+
+/**
+ * Aho-Corasick automaton compiled into a dense transition table. Matching is
+ * case-insensitive, runs in a single pass over the input and allocates nothing.
+ */
+public final class CosmicTermMatcher {
+
+    private static final int ROOT = 0;
+    private static final int ASCII_LIMIT = 128;
+    private static final int MATCH = -1;
+
+    private final List<String> terms;
+    private final int[] asciiClasses;
+    private final char[] extraChars;
+    private final int[] extraClasses;
+    private final int alphabetSize;
+    // Row offsets of the next state, pre-multiplied by the alphabet size; a
+    // transition into an accepting state is stored as MATCH instead.
+    private final int[] transitions;
+
+    private CosmicTermMatcher(List<String> terms) {
+        this.terms = terms;
+
+        // Every distinct character of the terms gets its own column; class 0
+        // stands for "any other character" and always leads back to the root.
+        SortedSet<Character> alphabet = new TreeSet<>();
+        for (String term : terms) {
+            for (int i = 0; i < term.length(); i++) {
+                alphabet.add(term.charAt(i));
+            }
+        }
+        this.asciiClasses = new int[ASCII_LIMIT];
+        List<Character> nonAscii = new ArrayList<>();
+        int nextClass = 1;
+        for (char c : alphabet) {
+            if (c < ASCII_LIMIT) {
+                asciiClasses[c] = nextClass;
+                // fold ASCII case into the table so matching needs no toLowerCase
+                asciiClasses[Character.toUpperCase(c)] = nextClass;
+                nextClass++;
+            } else {
+                nonAscii.add(c);
+            }
+        }
+        this.extraChars = new char[nonAscii.size()];
+        this.extraClasses = new int[nonAscii.size()];
+        for (int i = 0; i < nonAscii.size(); i++) {
+            extraChars[i] = nonAscii.get(i);
+            extraClasses[i] = nextClass++;
+        }
+        this.alphabetSize = nextClass;
+
+        // Build the trie, then turn it into a DFA by resolving failure links
+        // breadth-first.
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(newRow());
+        terminal.add(false);
+        for (String term : terms) {
+            int state = ROOT;
+            for (int i = 0; i < term.length(); i++) {
+                int charClass = classOf(term.charAt(i));
+                int next = trie.get(state)[charClass];
+                if (next <= 0) {
+                    next = trie.size();
+                    trie.add(newRow());
+                    terminal.add(false);
+                    trie.get(state)[charClass] = next;
+                }
+                state = next;
+            }
+            terminal.set(state, true);
+        }
+
+        int stateCount = trie.size();
+        int[] delta = new int[stateCount * alphabetSize];
+        boolean[] accepting = new boolean[stateCount];
+        int[] failure = new int[stateCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (int charClass = 0; charClass < alphabetSize; charClass++) {
+            int child = trie.get(ROOT)[charClass];
+            if (child > 0) {
+                delta[charClass] = child;
+                failure[child] = ROOT;
+                queue.add(child);
+            }
+        }
+        accepting[ROOT] = terminal.get(ROOT);
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] = terminal.get(state) || accepting[failure[state]];
+            int[] row = trie.get(state);
+            for (int charClass = 0; charClass < alphabetSize; charClass++) {
+                int fallback = delta[failure[state] * alphabetSize + charClass];
+                int child = row[charClass];
+                if (child > 0) {
+                    delta[state * alphabetSize + charClass] = child;
+                    failure[child] = fallback;
+                    queue.add(child);
+                } else {
+                    delta[state * alphabetSize + charClass] = fallback;
+                }
+            }
+        }
+
+        this.transitions = new int[delta.length];
+        for (int i = 0; i < delta.length; i++) {
+            transitions[i] = accepting[delta[i]] ? MATCH : delta[i] * alphabetSize;
+        }
+    }
+
+    public static CosmicTermMatcher compile(Collection<String> terms) {
+        List<String> normalized = terms.stream()
+                .filter(Objects::nonNull)
+                .map(term -> term.trim().toLowerCase(Locale.ROOT))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("At least one cosmic term is required");
+        }
+        return new CosmicTermMatcher(normalized);
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public boolean containsAny(CharSequence value) {
+        int[] table = transitions;
+        int[] ascii = asciiClasses;
+        int offset = ROOT;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            int next = table[offset + (c < ASCII_LIMIT ? ascii[c] : classOf(Character.toLowerCase(c)))];
+            if (next == MATCH) {
+                return true;
+            }
+            offset = next;
+        }
+        return false;
+    }
+
+    private int classOf(char c) {
+        if (c < ASCII_LIMIT) {
+            return asciiClasses[c];
+        }
+        if (extraChars.length == 0) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(extraChars, c);
+        return index >= 0 ? extraClasses[index] : 0;
+    }
+
+    private int[] newRow() {
+        return new int[alphabetSize];
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.cosmocats.dto.validation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class CosmicTermRegistry {
+
+    static final List<String> DEFAULT_COSMIC_TERMS = List.of(
+            "star", "galaxy", "comet", "space", "cosmic", "intergalactic",
+            "orbit", "planet", "solar", "lunar", "astro",
+            "meteor", "black hole", "quasar", "pulsar", "constellation",
+            "moon", "sun", "universe", "cosmos"
+    );
+
+    private volatile CosmicTermMatcher matcher;
+
+    public CosmicTermRegistry(@Value("${cosmocats.validation.cosmic-terms:}") List<String> configuredTerms) {
+        this.matcher = CosmicTermMatcher.compile(
+                configuredTerms.isEmpty() ? DEFAULT_COSMIC_TERMS : configuredTerms);
+    }
+
+    public CosmicTermMatcher getMatcher() {
+        return matcher;
+    }
+
+    public List<String> getTerms() {
+        return matcher.getTerms();
+    }
+
+    public List<String> reload(List<String> terms) {
+        CosmicTermMatcher reloaded = CosmicTermMatcher.compile(terms);
+        matcher = reloaded;
+        log.info("Reloaded {} cosmic terms", reloaded.getTerms().size());
+        return reloaded.getTerms();
+    }
+}
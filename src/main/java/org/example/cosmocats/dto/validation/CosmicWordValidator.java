@@ -3,43 +3,44 @@ package org.example.cosmocats.dto.validation;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.extern.slf4j.Slf4j;
-
-import java.util.Arrays;
-import java.util.List;
+import org.example.cosmocats.metrics.SampledTimer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 @Slf4j
 public class CosmicWordValidator implements ConstraintValidator<CosmicWordCheck, String> {
 
-    private static final List<String> COSMIC_TERMS = Arrays.asList(
-            "star", "galaxy", "comet", "space", "cosmic", "intergalactic",
-            "orbit", "planet", "solar", "lunar", "astro",
-            "meteor", "black hole", "quasar", "pulsar", "constellation",
-            "moon", "sun", "universe", "cosmos"
-    );
+    private static final CosmicTermMatcher DEFAULT_MATCHER =
+            CosmicTermMatcher.compile(CosmicTermRegistry.DEFAULT_COSMIC_TERMS);
+
+    private final CosmicTermRegistry cosmicTermRegistry;
+    private final SampledTimer validationTimer;
+
+    public CosmicWordValidator() {
+        this(null, null);
+    }
+
+    @Autowired
+    public CosmicWordValidator(CosmicTermRegistry cosmicTermRegistry,
+                               @Qualifier("cosmicWordValidatorTimer") SampledTimer validationTimer) {
+        this.cosmicTermRegistry = cosmicTermRegistry;
+        this.validationTimer = validationTimer;
+    }
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-        if (value == null || value.trim().isEmpty()) {
+        if (value == null || value.isBlank()) {
             return false;
         }
 
-        String lowerCaseValue = value.toLowerCase().trim();
-
-        log.debug("--- COSMIC VALIDATION ---");
-        log.debug("Input: {}", value);
-        log.debug("Lowercase: {}", lowerCaseValue);
-
-        boolean valid = COSMIC_TERMS.stream().anyMatch(term -> {
-            boolean contains = lowerCaseValue.contains(term);
-            if (contains) {
-                log.debug("Found term: {}", term);
-            }
-            return contains;
-        });
-
-        log.debug("Validation result: {}", valid);
-        log.debug("-----------------------------");
+        long started = validationTimer != null ? validationTimer.start() : 0;
+        CosmicTermMatcher matcher = cosmicTermRegistry != null ? cosmicTermRegistry.getMatcher() : DEFAULT_MATCHER;
+        boolean valid = matcher.containsAny(value);
+        if (validationTimer != null) {
+            validationTimer.stop(started);
+        }
 
+        log.debug("Cosmic validation of '{}': {}", value, valid);
         return valid;
     }
 }
@@ -0,0 +1,363 @@
+package org.example.cosmocats.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.cosmocats.controller.GlobalException.ProblemResponseWriter;
+import org.example.cosmocats.controller.GlobalException.ProblemTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes writes that carry an {@code Idempotency-Key} header safe to retry.
+ * The first request with a key runs and its response is kept for
+ * {@code ttl}; a retry with the same key and the same request gets that
+ * response back, marked with {@code Idempotent-Replayed}, without running
+ * again. Retries that arrive while the first request is still running wait for
+ * it rather than running alongside it.
+ * <p>
+ * A key reused for a different request is refused with 422, and a retry that
+ * waits longer than {@code wait-timeout} is answered 409 so the client tries
+ * again later. 5xx and 429 responses are not kept, because the client is
+ * expected to retry those. Kept responses are bounded by their total size,
+ * and a request body longer than {@code max-body-size} is refused with 413.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "cosmocats.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final long RETRY_AFTER_SECONDS = 1;
+    private static final String EXECUTION_ATTRIBUTE = IdempotencyFilter.class.getName() + ".execution";
+
+    private static final ProblemTemplate INVALID_KEY = ProblemTemplate.of(HttpStatus.BAD_REQUEST,
+            "Invalid Idempotency Key", "The Idempotency-Key header must be 1 to 255 visible ASCII characters.");
+    private static final ProblemTemplate KEY_REUSED = ProblemTemplate.of(HttpStatus.UNPROCESSABLE_ENTITY,
+            "Idempotency Key Reused", "This Idempotency-Key was already used for a different request.");
+    private static final ProblemTemplate BODY_TOO_LARGE = ProblemTemplate.of(HttpStatus.PAYLOAD_TOO_LARGE,
+            "Request Body Too Large", "Requests carrying an Idempotency-Key are limited in size.");
+    private static final ProblemTemplate STILL_RUNNING = ProblemTemplate.of(HttpStatus.CONFLICT,
+            "Request In Progress", "A request with this Idempotency-Key is still being processed; retry after the Retry-After delay.");
+
+    private final ProblemResponseWriter problemResponseWriter;
+    private final long maxBodyBytes;
+    private final long waitTimeoutNanos;
+    private final Cache<String, Execution> executions;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public IdempotencyFilter(ProblemResponseWriter problemResponseWriter, MeterRegistry meterRegistry,
+                             @Value("${cosmocats.idempotency.ttl:1h}") Duration ttl,
+                             @Value("${cosmocats.idempotency.max-size:64MB}") DataSize maxSize,
+                             @Value("${cosmocats.idempotency.max-body-size:16MB}") DataSize maxBodySize,
+                             @Value("${cosmocats.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.problemResponseWriter = problemResponseWriter;
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.executions = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Execution execution) -> execution.weight(key))
+                .build();
+        this.executed = outcomeCounter(meterRegistry, "executed");
+        this.replayed = outcomeCounter(meterRegistry, "replayed");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        Gauge.builder("cosmocats.idempotency.keys", executions, Cache::estimatedSize)
+                .description("Idempotency keys currently remembered")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return request.getHeader(IDEMPOTENCY_KEY) == null
+                || !("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // The response of an async request is only complete after its last dispatch.
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            Execution execution = (Execution) request.getAttribute(EXECUTION_ATTRIBUTE);
+            ContentCachingResponseWrapper capturing =
+                    WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (execution == null || capturing == null) {
+                filterChain.doFilter(request, response);
+            } else {
+                execute(execution, request, capturing, filterChain);
+            }
+            return;
+        }
+
+        String key = request.getHeader(IDEMPOTENCY_KEY);
+        if (!isValidKey(key)) {
+            problemResponseWriter.write(response, INVALID_KEY, null, request.getRequestURI());
+            return;
+        }
+
+        // The body is kept for the request and hashed as it is read, and
+        // refused once it outgrows the limit rather than buffered whole first.
+        MessageDigest digest = fingerprintOf(request);
+        byte[] body = readBody(request, digest);
+        if (body == null) {
+            rejected.increment();
+            problemResponseWriter.write(response, BODY_TOO_LARGE, String.format(
+                    "Requests carrying an Idempotency-Key are limited to %d bytes.", maxBodyBytes),
+                    request.getRequestURI());
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        byte[] fingerprint = digest.digest();
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+
+        while (true) {
+            Execution candidate = new Execution(key, fingerprint);
+            Execution existing = executions.asMap().putIfAbsent(key, candidate);
+            if (existing == null) {
+                run(candidate, cachedRequest, response, filterChain);
+                return;
+            }
+            if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+                rejected.increment();
+                problemResponseWriter.write(response, KEY_REUSED, null, request.getRequestURI());
+                return;
+            }
+
+            StoredResponse stored;
+            try {
+                stored = existing.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                rejected.increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(RETRY_AFTER_SECONDS));
+                problemResponseWriter.write(response, STILL_RUNNING, null, request.getRequestURI());
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for a request with the same Idempotency-Key", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException(ex.getCause());
+            }
+            if (stored != null) {
+                replayed.increment();
+                stored.replay(response);
+                return;
+            }
+            // The first attempt failed in a way that is not kept; try to become the one that runs.
+        }
+    }
+
+    private void run(Execution execution, HttpServletRequest request, HttpServletResponse response,
+                     FilterChain filterChain) throws ServletException, IOException {
+        executed.increment();
+        request.setAttribute(EXECUTION_ATTRIBUTE, execution);
+        execute(execution, request, new ContentCachingResponseWrapper(response), filterChain);
+    }
+
+    private void execute(Execution execution, HttpServletRequest request, ContentCachingResponseWrapper capturing,
+                         FilterChain filterChain) throws ServletException, IOException {
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, capturing);
+            completed = true;
+        } finally {
+            if (!completed) {
+                abandon(execution);
+            } else if (!request.isAsyncStarted()) {
+                finish(execution, capturing);
+            }
+        }
+    }
+
+    private void finish(Execution execution, ContentCachingResponseWrapper capturing) throws IOException {
+        int status = capturing.getStatus();
+        if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            abandon(execution);
+        } else {
+            StoredResponse stored = StoredResponse.capture(capturing);
+            Execution done = new Execution(execution.key, execution.fingerprint);
+            done.result.complete(stored);
+            // Re-inserting lets the cache weigh the entry by the response it now holds.
+            executions.asMap().replace(execution.key, execution, done);
+            execution.result.complete(stored);
+        }
+        capturing.copyBodyToResponse();
+    }
+
+    private void abandon(Execution execution) {
+        executions.asMap().remove(execution.key, execution);
+        execution.result.complete(null);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cosmocats.idempotency.requests")
+                .description("Writes carrying an Idempotency-Key, by what was done with them")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static boolean isValidKey(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x21 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the body into {@code digest}; returns null, having stopped
+     * reading, once it is longer than the limit.
+     */
+    private byte[] readBody(HttpServletRequest request, MessageDigest digest) throws IOException {
+        long declared = request.getContentLengthLong();
+        if (declared > maxBodyBytes) {
+            return null;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(declared > 0 ? (int) declared : 256);
+        byte[] buffer = new byte[8192];
+        InputStream in = request.getInputStream();
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (body.size() + read > maxBodyBytes) {
+                return null;
+            }
+            digest.update(buffer, 0, read);
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static MessageDigest fingerprintOf(HttpServletRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        update(digest, request.getMethod());
+        update(digest, request.getRequestURI());
+        update(digest, request.getQueryString());
+        update(digest, request.getHeader(HttpHeaders.IF_MATCH));
+        return digest;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    /**
+     * One key's request: the fingerprint it was first used with and the
+     * response it produced, once there is one. A null result means the
+     * response was not kept and a waiting retry should run the request itself.
+     */
+    private static final class Execution {
+
+        private final String key;
+        private final byte[] fingerprint;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Execution(String key, byte[] fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+
+        int weight(String key) {
+            StoredResponse stored = result.getNow(null);
+            return ENTRY_OVERHEAD_BYTES + key.length() + (stored != null ? stored.size() : 0);
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, List<String[]> headers, byte[] body) {
+
+        static StoredResponse capture(ContentCachingResponseWrapper response) {
+            List<String[]> headers = new ArrayList<>();
+            for (String name : response.getHeaderNames()) {
+                if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                    continue;
+                }
+                for (String value : response.getHeaders(name)) {
+                    headers.add(new String[]{name, value});
+                }
+            }
+            return new StoredResponse(response.getStatus(), response.getContentType(), headers,
+                    response.getContentAsByteArray());
+        }
+
+        void replay(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            Set<String> written = new HashSet<>();
+            for (String[] header : headers) {
+                if (written.add(header[0].toLowerCase(Locale.ROOT))) {
+                    response.setHeader(header[0], header[1]);
+                } else {
+                    response.addHeader(header[0], header[1]);
+                }
+            }
+            response.setHeader(IDEMPOTENT_REPLAYED, "true");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+        int size() {
+            int size = body.length;
+            for (String[] header : headers) {
+                size += header[0].length() + header[1].length();
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.cosmocats.mapper;
+
+import org.example.cosmocats.domain.Cart;
+import org.example.cosmocats.dto.CartDTO;
+import org.example.cosmocats.dto.CartItemDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+import java.util.Map;
+
+@Mapper(
+        componentModel = "spring",
+        unmappedTargetPolicy = ReportingPolicy.IGNORE
+)
+public interface CartMapper {
+
+    CartDTO convertToCartDTO(Cart cartEntity);
+
+    default List<CartItemDTO> itemsToCartItemDTOs(Map<Long, Integer> items) {
+        return items.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(item -> new CartItemDTO(item.getKey(), item.getValue()))
+                .toList();
+    }
+}
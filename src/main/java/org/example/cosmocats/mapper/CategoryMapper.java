@@ -2,6 +2,8 @@ package org.example.cosmocats.mapper;
 
 import org.example.cosmocats.common.CategoryType;
 import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.RegisteredCategory;
+import org.example.cosmocats.dto.CategoryDTO;
 import org.mapstruct.Mapper;
 import org.mapstruct.ReportingPolicy;
 
@@ -21,8 +23,12 @@ public interface CategoryMapper {
         if (categoryType == null) {
             return null;
         }
-        Category category = new Category();
-        category.setType(CategoryType.valueOf(categoryType));
-        return category;
+        return Category.of(CategoryType.valueOf(categoryType));
     }
-}
\ No newline at end of file
+
+    default CategoryDTO toCategoryDTO(RegisteredCategory registeredCategory, long productCount) {
+        Category category = registeredCategory.category();
+        return new CategoryDTO(category.getId(), category.getType().name(),
+                registeredCategory.description(), productCount);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.cosmocats.mapper;
+
+import org.example.cosmocats.domain.Order;
+import org.example.cosmocats.domain.OrderItem;
+import org.example.cosmocats.dto.OrderDTO;
+import org.example.cosmocats.dto.OrderItemDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(
+        componentModel = "spring",
+        unmappedTargetPolicy = ReportingPolicy.IGNORE
+)
+public interface OrderMapper {
+
+    OrderDTO convertToOrderDTO(Order orderEntity);
+
+    OrderItemDTO convertToOrderItemDTO(OrderItem orderItem);
+}
@@ -1,6 +1,7 @@
 package org.example.cosmocats.mapper;
 
 import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Category;
 import org.example.cosmocats.domain.Product;
 import org.example.cosmocats.dto.ProductDTO;
 import org.mapstruct.*;
@@ -27,6 +28,18 @@ public interface ProductMapper {
    
     List<ProductDTO> convertToProductDTOList(List<Product> productEntities);
 
+    Product copyProduct(Product productEntity);
+
+    ProductDTO copyProductDTO(ProductDTO productDTO);
+
+    /**
+     * Categories are shared and immutable, so copying a product keeps the
+     * same instance instead of cloning it.
+     */
+    default Category copyCategory(Category category) {
+        return category;
+    }
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
@@ -0,0 +1,51 @@
+package org.example.cosmocats.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Backs {@code @Timed} on the services. Without this bean no proxies are
+     * created, so the timing cost is only paid when it is switched on;
+     * {@code http.server.requests} already times every request.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cosmocats.metrics.service-timers.enabled", havingValue = "true")
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public SampledTimer cosmicWordValidatorTimer(MeterRegistry meterRegistry,
+                                                 @Value("${cosmocats.metrics.validator-sample-one-in:10}") int sampleOneIn) {
+        Timer timer = Timer.builder("cosmocats.validation.cosmic.word")
+                .description("Time spent checking product names for cosmic terms (sampled)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new SampledTimer(timer, sampleOneIn);
+    }
+
+    @Bean
+    public MeterBinder productStoreMetrics(ProductRepository productRepository) {
+        return meterRegistry -> {
+            for (CategoryType categoryType : CategoryType.values()) {
+                Gauge.builder("cosmocats.products.stored", productRepository,
+                                repository -> repository.countByCategory(categoryType))
+                        .description("Products in the store per category")
+                        .tag("category", categoryType.name())
+                        .register(meterRegistry);
+            }
+        };
+    }
+}
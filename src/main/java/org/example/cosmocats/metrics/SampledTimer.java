@@ -0,0 +1,40 @@
+package org.example.cosmocats.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one in every {@code sampleOneIn} calls. Callers pass the value of
+ * {@link #start()} back to {@link #stop(long)}; nothing is allocated either
+ * way, and an unsampled call costs one random number.
+ */
+public final class SampledTimer {
+
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final Timer timer;
+    private final int sampleOneIn;
+
+    /**
+     * @param sampleOneIn 1 times every call, 0 or less disables timing
+     */
+    public SampledTimer(Timer timer, int sampleOneIn) {
+        this.timer = timer;
+        this.sampleOneIn = sampleOneIn;
+    }
+
+    public long start() {
+        if (sampleOneIn <= 0 || (sampleOneIn > 1 && ThreadLocalRandom.current().nextInt(sampleOneIn) != 0)) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long startNanos) {
+        if (startNanos != NOT_SAMPLED) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
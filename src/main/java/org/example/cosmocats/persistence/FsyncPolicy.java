@@ -0,0 +1,10 @@
+package org.example.cosmocats.persistence;
+
+public enum FsyncPolicy {
+    /** Every write waits until its group commit has been forced to disk. */
+    ALWAYS,
+    /** The log is forced on a fixed interval; writes return once queued. */
+    INTERVAL,
+    /** Flushing is left to the operating system. */
+    NEVER
+}
@@ -0,0 +1,13 @@
+package org.example.cosmocats.persistence;
+
+import org.example.cosmocats.domain.Product;
+
+/**
+ * One decoded log or snapshot entry. {@code product} is null for deletions.
+ */
+public record ProductRecord(byte type, long productId, long version, Product product) {
+
+    public boolean isDeletion() {
+        return type == ProductRecordCodec.DELETE;
+    }
+}
@@ -0,0 +1,236 @@
+package org.example.cosmocats.persistence;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.Product;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout shared by the write-ahead log and snapshots:
+ * {@code [int payloadLength][int crc32c][payload]}, where the payload is
+ * {@code [byte type][long id][long version]} followed, for PUT records, by the
+ * product fields.
+ */
+final class ProductRecordCodec {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final int FRAME_HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final CategoryType[] CATEGORY_TYPES = CategoryType.values();
+    private static final ProductStatus[] PRODUCT_STATUSES = ProductStatus.values();
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final long MAX_MAPPED_REGION = 256L << 20;
+
+    private ProductRecordCodec() {
+    }
+
+    static int maxEncodedSize(Product product) {
+        return FRAME_HEADER_BYTES + 1 + Long.BYTES * 2
+                + maxStringSize(product.getName())
+                + maxStringSize(product.getDescription())
+                + Integer.BYTES + 1 + (product.getPrice() != null ? product.getPrice().unscaledValue().bitLength() / 8 + 1 : 0)
+                + Integer.BYTES + 2 + Long.BYTES * 2;
+    }
+
+    static int deleteEncodedSize() {
+        return FRAME_HEADER_BYTES + 1 + Long.BYTES * 2;
+    }
+
+    static void writePut(ByteBuffer buffer, Product product) {
+        int frameStart = beginFrame(buffer);
+        buffer.put(PUT);
+        buffer.putLong(product.getId());
+        buffer.putLong(product.getVersion());
+        putString(buffer, product.getName());
+        putString(buffer, product.getDescription());
+        putDecimal(buffer, product.getPrice());
+        buffer.putInt(product.getQuantity() != null ? product.getQuantity() : -1);
+        CategoryType categoryType = product.getCategory() != null ? product.getCategory().getType() : null;
+        buffer.put(categoryType != null ? (byte) categoryType.ordinal() : -1);
+        buffer.put(product.getStatus() != null ? (byte) product.getStatus().ordinal() : -1);
+        buffer.putLong(toEpochNanos(product.getCreatedAt()));
+        buffer.putLong(toEpochNanos(product.getUpdatedAt()));
+        endFrame(buffer, frameStart);
+    }
+
+    static void writeDelete(ByteBuffer buffer, long productId, long version) {
+        int frameStart = beginFrame(buffer);
+        buffer.put(DELETE);
+        buffer.putLong(productId);
+        buffer.putLong(version);
+        endFrame(buffer, frameStart);
+    }
+
+    /**
+     * Total bytes of the frame starting at the buffer position, or -1 if not
+     * even the frame header is available.
+     */
+    static int peekFrameSize(ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_HEADER_BYTES) {
+            return -1;
+        }
+        return FRAME_HEADER_BYTES + buffer.getInt(buffer.position());
+    }
+
+    /**
+     * Decodes the frame at the buffer position, or returns null and leaves the
+     * position untouched when the frame is truncated or fails its checksum,
+     * which is what a torn write at the end of a log looks like.
+     */
+    static ProductRecord read(ByteBuffer buffer) {
+        int frameSize = peekFrameSize(buffer);
+        if (frameSize <= FRAME_HEADER_BYTES || buffer.remaining() < frameSize) {
+            return null;
+        }
+        int start = buffer.position();
+        int payloadLength = frameSize - FRAME_HEADER_BYTES;
+        int expectedChecksum = buffer.getInt(start + Integer.BYTES);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + FRAME_HEADER_BYTES, payloadLength));
+        if ((int) crc.getValue() != expectedChecksum) {
+            return null;
+        }
+
+        buffer.position(start + FRAME_HEADER_BYTES);
+        byte type = buffer.get();
+        long productId = buffer.getLong();
+        long version = buffer.getLong();
+        if (type == DELETE) {
+            return new ProductRecord(type, productId, version, null);
+        }
+
+        Product product = new Product();
+        product.setId(productId);
+        product.setVersion(version);
+        product.setName(getString(buffer));
+        product.setDescription(getString(buffer));
+        product.setPrice(getDecimal(buffer));
+        int quantity = buffer.getInt();
+        product.setQuantity(quantity >= 0 ? quantity : null);
+        byte category = buffer.get();
+        if (category >= 0) {
+            CategoryType categoryType = CATEGORY_TYPES[category];
+            product.setCategory(Category.of(categoryType));
+        }
+        byte status = buffer.get();
+        product.setStatus(status >= 0 ? PRODUCT_STATUSES[status] : null);
+        product.setCreatedAt(fromEpochNanos(buffer.getLong()));
+        product.setUpdatedAt(fromEpochNanos(buffer.getLong()));
+        return new ProductRecord(type, productId, version, product);
+    }
+
+    /**
+     * Decodes consecutive frames from {@code from} to the end of the file
+     * through read-only mappings, and returns the offset just past the last
+     * valid frame.
+     */
+    static long readAll(FileChannel channel, long from, Consumer<ProductRecord> sink) throws IOException {
+        long size = channel.size();
+        long position = from;
+        while (position < size) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAX_MAPPED_REGION, size - position));
+            ProductRecord record;
+            while ((record = read(region)) != null) {
+                sink.accept(record);
+            }
+            if (region.position() == 0) {
+                break;
+            }
+            // A frame cut by the region boundary is picked up by the next mapping.
+            position += region.position();
+        }
+        return position;
+    }
+
+    private static int beginFrame(ByteBuffer buffer) {
+        int frameStart = buffer.position();
+        buffer.position(frameStart + FRAME_HEADER_BYTES);
+        return frameStart;
+    }
+
+    private static void endFrame(ByteBuffer buffer, int frameStart) {
+        int payloadStart = frameStart + FRAME_HEADER_BYTES;
+        int payloadLength = buffer.position() - payloadStart;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(payloadStart, payloadLength));
+        buffer.putInt(frameStart, payloadLength);
+        buffer.putInt(frameStart + Integer.BYTES, (int) crc.getValue());
+    }
+
+    private static int maxStringSize(String value) {
+        return Integer.BYTES + (value != null ? value.length() * 3 : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+        if (value == null) {
+            buffer.putInt(0);
+            buffer.put((byte) -1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        buffer.putInt(value.scale());
+        buffer.put((byte) unscaled.length);
+        buffer.put(unscaled);
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer) {
+        int scale = buffer.getInt();
+        int length = buffer.get();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static long toEpochNanos(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return NULL_TIMESTAMP;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long epochNanos) {
+        if (epochNanos == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
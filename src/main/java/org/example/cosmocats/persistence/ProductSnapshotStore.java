@@ -0,0 +1,107 @@
+package org.example.cosmocats.persistence;
+
+import org.example.cosmocats.domain.Product;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Point-in-time image of the catalog, written and read through memory-mapped
+ * regions. The file is written under a temporary name and atomically renamed,
+ * so a crash mid-snapshot leaves the previous snapshot intact.
+ */
+public class ProductSnapshotStore {
+
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final int MAGIC = 0x43435350;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES * 4;
+    private static final long WRITE_REGION = 64L << 20;
+
+    private final Path directory;
+
+    public ProductSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public record Header(long replayFromSegment, long nextProductId, long maxVersion, long productCount) {
+    }
+
+    public void write(long replayFromSegment, long nextProductId, Iterable<Product> products) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            long regionStart = HEADER_BYTES;
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, WRITE_REGION);
+            long count = 0;
+            long maxVersion = 0;
+
+            for (Product product : products) {
+                int size = ProductRecordCodec.maxEncodedSize(product);
+                if (region.remaining() < size) {
+                    regionStart += region.position();
+                    region.force();
+                    region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(WRITE_REGION, size));
+                }
+                ProductRecordCodec.writePut(region, product);
+                maxVersion = Math.max(maxVersion, product.getVersion());
+                count++;
+            }
+            long end = regionStart + region.position();
+            region.force();
+
+            header.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(replayFromSegment)
+                    .putLong(nextProductId)
+                    .putLong(maxVersion)
+                    .putLong(count);
+            header.force();
+            channel.truncate(end);
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Streams the snapshot's products to {@code sink} and returns its header,
+     * or returns null when no snapshot exists.
+     */
+    public Header read(Consumer<Product> sink) throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer mappedHeader = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (mappedHeader.getInt() != MAGIC || mappedHeader.getInt() != FORMAT_VERSION) {
+                throw new IOException("Unrecognized snapshot format: " + snapshot);
+            }
+            Header header = new Header(mappedHeader.getLong(), mappedHeader.getLong(),
+                    mappedHeader.getLong(), mappedHeader.getLong());
+
+            long[] read = new long[1];
+            ProductRecordCodec.readAll(channel, HEADER_BYTES, record -> {
+                sink.accept(record.product());
+                read[0]++;
+            });
+            if (read[0] != header.productCount()) {
+                throw new IOException(String.format("Snapshot %s is damaged: expected %d products, read %d",
+                        snapshot, header.productCount(), read[0]));
+            }
+            return header;
+        }
+    }
+}
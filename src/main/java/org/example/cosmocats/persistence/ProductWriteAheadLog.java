@@ -0,0 +1,305 @@
+package org.example.cosmocats.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.domain.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of product mutations split into numbered segment files.
+ * A single writer thread drains queued records in batches and writes each
+ * batch with one channel write and at most one fsync (group commit), so
+ * concurrent writers share fsyncs instead of queueing behind each other's.
+ */
+@Slf4j
+public class ProductWriteAheadLog implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DISCARDED_SUFFIX = ".discarded";
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int MAX_BATCH = 4_096;
+    private static final CompletableFuture<Long> QUEUED = CompletableFuture.completedFuture(null);
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private FileChannel channel;
+    private long segment;
+    private boolean dirty;
+    private long lastForceNanos = System.nanoTime();
+    private volatile boolean closed;
+
+    public ProductWriteAheadLog(Path directory, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        Files.createDirectories(directory);
+
+        // Never append to a segment left by a previous run: its tail may be torn.
+        List<Long> existing = listSegments(directory);
+        this.segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        this.channel = openSegment(segment);
+
+        this.writer = new Thread(this::runWriter, "product-wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public CompletableFuture<Long> appendPut(Product product) {
+        return enqueue(new Entry(ProductRecordCodec.PUT, product, product.getId(), product.getVersion()));
+    }
+
+    public CompletableFuture<Long> appendDelete(long productId, long version) {
+        return enqueue(new Entry(ProductRecordCodec.DELETE, null, productId, version));
+    }
+
+    /**
+     * Closes the current segment and starts the next one; completes with the
+     * number of the new segment once every record queued before it is written.
+     */
+    public CompletableFuture<Long> roll() {
+        Entry roll = new Entry(Entry.ROLL, null, 0, 0);
+        roll.done = new CompletableFuture<>();
+        put(roll);
+        return roll.done;
+    }
+
+    /**
+     * Deletes segments numbered below {@code segment}; used after a snapshot
+     * has made them redundant.
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        for (long existing : listSegments(directory)) {
+            if (existing < segment) {
+                Files.deleteIfExists(segmentPath(directory, existing));
+            }
+        }
+    }
+
+    /**
+     * Replays segments numbered {@code fromSegment} and up in order, up to the
+     * first truncated or corrupt record. The segment holding it is cut back to
+     * its last good record and every later segment is set aside, since applying
+     * them over the lost records could leave products in states they never had.
+     */
+    public static void replay(Path directory, long fromSegment, Consumer<ProductRecord> sink) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Long> segments = listSegments(directory).stream().filter(segment -> segment >= fromSegment).toList();
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segmentPath(directory, segments.get(i));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long end = ProductRecordCodec.readAll(channel, 0, sink);
+                if (end < channel.size()) {
+                    log.error("Stopped replay of {} at offset {}: truncated or corrupt record; dropping the {} bytes "
+                            + "after it and {} later segments", path, end, channel.size() - end, segments.size() - i - 1);
+                    channel.truncate(end);
+                    discard(directory, segments.subList(i + 1, segments.size()));
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        put(new Entry(Entry.SHUTDOWN, null, 0, 0));
+        writer.join();
+    }
+
+    private CompletableFuture<Long> enqueue(Entry entry) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            put(entry);
+            return QUEUED;
+        }
+        entry.done = new CompletableFuture<>();
+        put(entry);
+        return entry.done;
+    }
+
+    private void put(Entry entry) {
+        if (closed && entry.type != Entry.SHUTDOWN) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        try {
+            queue.put(entry);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while appending to the write-ahead log", ex);
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                Entry first = queue.poll(Math.max(1, TimeUnit.NANOSECONDS.toMillis(fsyncIntervalNanos)),
+                        TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    running = writeBatch(batch);
+                    batch.clear();
+                }
+                if (fsyncPolicy == FsyncPolicy.INTERVAL && dirty
+                        && System.nanoTime() - lastForceNanos >= fsyncIntervalNanos) {
+                    force();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException ex) {
+                log.error("Write-ahead log write failed", ex);
+                batch.forEach(entry -> {
+                    if (entry.done != null) {
+                        entry.done.completeExceptionally(ex);
+                    }
+                });
+                batch.clear();
+            }
+        }
+        try {
+            flushBuffer();
+            force();
+            channel.close();
+        } catch (IOException ex) {
+            log.error("Failed to close write-ahead log segment {}", segment, ex);
+        }
+    }
+
+    private boolean writeBatch(List<Entry> batch) throws IOException {
+        boolean running = true;
+        buffer.clear();
+        for (Entry entry : batch) {
+            switch (entry.type) {
+                case Entry.ROLL -> {
+                    flushBuffer();
+                    force();
+                    channel.close();
+                    segment++;
+                    channel = openSegment(segment);
+                }
+                case Entry.SHUTDOWN -> running = false;
+                case ProductRecordCodec.PUT -> {
+                    ensureCapacity(ProductRecordCodec.maxEncodedSize(entry.product));
+                    ProductRecordCodec.writePut(buffer, entry.product);
+                }
+                default -> {
+                    ensureCapacity(ProductRecordCodec.deleteEncodedSize());
+                    ProductRecordCodec.writeDelete(buffer, entry.productId, entry.version);
+                }
+            }
+        }
+        flushBuffer();
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            force();
+        }
+        for (Entry entry : batch) {
+            if (entry.done != null) {
+                entry.done.complete(segment);
+            }
+        }
+        return running;
+    }
+
+    private void ensureCapacity(int recordSize) throws IOException {
+        if (buffer.remaining() >= recordSize) {
+            return;
+        }
+        flushBuffer();
+        if (buffer.capacity() < recordSize) {
+            buffer = ByteBuffer.allocateDirect(recordSize);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+            dirty = true;
+        }
+        buffer.clear();
+    }
+
+    private void force() throws IOException {
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+        lastForceNanos = System.nanoTime();
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void discard(Path directory, List<Long> segments) throws IOException {
+        for (long segment : segments) {
+            Path path = segmentPath(directory, segment);
+            Files.move(path, path.resolveSibling(path.getFileName() + DISCARDED_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static final class Entry {
+        static final byte ROLL = 10;
+        static final byte SHUTDOWN = 11;
+
+        final byte type;
+        final Product product;
+        final long productId;
+        final long version;
+        CompletableFuture<Long> done;
+
+        Entry(byte type, Product product, long productId, long version) {
+            this.type = type;
+            this.product = product;
+            this.productId = productId;
+            this.version = version;
+        }
+    }
+}
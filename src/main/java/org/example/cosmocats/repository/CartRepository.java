@@ -0,0 +1,32 @@
+package org.example.cosmocats.repository;
+
+import org.example.cosmocats.domain.Cart;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public interface CartRepository {
+
+    Optional<Cart> findById(Long cartId);
+
+    /**
+     * Assigns a fresh id, then stores the cart.
+     */
+    Cart create(Cart cart);
+
+    /**
+     * Atomically replaces the stored cart with the result of {@code updater}.
+     * Updates of one cart are serialized, and the updater must return a new
+     * instance instead of mutating the current one.
+     */
+    Optional<Cart> update(Long cartId, UnaryOperator<Cart> updater);
+
+    /**
+     * Removes the cart if it still satisfies {@code condition} and returns it.
+     * Whoever removes a cart owns its reservations from then on.
+     */
+    Optional<Cart> deleteIf(Long cartId, Predicate<Cart> condition);
+
+    long count();
+}
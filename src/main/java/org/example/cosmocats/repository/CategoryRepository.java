@@ -0,0 +1,28 @@
+package org.example.cosmocats.repository;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.domain.RegisteredCategory;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryRepository {
+
+    /**
+     * Registered categories in id order.
+     */
+    List<RegisteredCategory> findAll();
+
+    Optional<RegisteredCategory> findById(Long categoryId);
+
+    Optional<RegisteredCategory> findByType(CategoryType categoryType);
+
+    /**
+     * Registers the category, or returns empty if it already is.
+     */
+    Optional<RegisteredCategory> create(CategoryType categoryType, String description);
+
+    Optional<RegisteredCategory> update(Long categoryId, String description);
+
+    Optional<RegisteredCategory> deleteById(Long categoryId);
+}
@@ -0,0 +1,25 @@
+package org.example.cosmocats.repository;
+
+import org.example.cosmocats.domain.Order;
+
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+public interface OrderRepository {
+
+    Optional<Order> findById(Long orderId);
+
+    /**
+     * Assigns a fresh id, then stores the order.
+     */
+    Order create(Order order);
+
+    /**
+     * Atomically replaces the stored order with the result of {@code updater}.
+     * Updates of one order are serialized, and the updater must return a new
+     * instance instead of mutating the current one.
+     */
+    Optional<Order> update(Long orderId, UnaryOperator<Order> updater);
+
+    Optional<Order> deleteById(Long orderId);
+}
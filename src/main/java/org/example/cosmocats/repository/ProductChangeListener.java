@@ -0,0 +1,17 @@
+package org.example.cosmocats.repository;
+
+import org.example.cosmocats.domain.Product;
+
+/**
+ * Observer of committed product changes. {@code previous} is null for a
+ * creation and {@code current} is null for a deletion.
+ * <p>
+ * Listeners run inside the store's per-product critical section, so the
+ * changes of one product arrive in commit order. They must be quick, must
+ * not throw and must not call back into the repository.
+ */
+@FunctionalInterface
+public interface ProductChangeListener {
+
+    void onProductChanged(Product previous, Product current);
+}
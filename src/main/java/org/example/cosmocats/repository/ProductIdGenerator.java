@@ -0,0 +1,20 @@
+package org.example.cosmocats.repository;
+
+/**
+ * Hands out ids for new products. Ids are never reused, including ids that a
+ * recovered or imported product already carries.
+ */
+public interface ProductIdGenerator {
+
+    long nextId();
+
+    /**
+     * The lowest id that may still be handed out.
+     */
+    long peekNextId();
+
+    /**
+     * Makes sure no id below {@code nextId} is handed out from now on.
+     */
+    void advanceTo(long nextId);
+}
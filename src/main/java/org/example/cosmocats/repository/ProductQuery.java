@@ -0,0 +1,40 @@
+package org.example.cosmocats.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Product;
+
+import java.math.BigDecimal;
+
+@Getter
+@Builder
+public class ProductQuery {
+    private final ProductSortField sort;
+    private final Comparable<?> afterKey;
+    private final Long afterId;
+    private final int limit;
+    private final CategoryType category;
+    private final ProductStatus status;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+
+    /**
+     * Checks the category, status and price filters; the sort cursor is left to the store.
+     */
+    public boolean matches(Product product) {
+        if (category != null && (product.getCategory() == null || product.getCategory().getType() != category)) {
+            return false;
+        }
+        if (status != null && product.getStatus() != status) {
+            return false;
+        }
+        BigDecimal price = product.getPrice();
+        if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) {
+            return false;
+        }
+        return maxPrice == null || (price != null && price.compareTo(maxPrice) <= 0);
+    }
+}
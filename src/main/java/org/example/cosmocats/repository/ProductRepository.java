@@ -0,0 +1,74 @@
+package org.example.cosmocats.repository;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public interface ProductRepository {
+
+    Collection<Product> findAll();
+
+    Optional<Product> findById(Long productId);
+
+    List<Product> findByCategory(CategoryType categoryType);
+
+    List<Product> findByStatus(ProductStatus productStatus);
+
+    /**
+     * Returns products priced within the inclusive range, cheapest first.
+     * A {@code null} bound leaves that side of the range open.
+     */
+    List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+
+    /**
+     * Lazily walks the catalog without copying it. With a non-null
+     * {@code updatedSince} only products updated at or after it are returned,
+     * oldest update first.
+     */
+    Stream<Product> streamUpdatedSince(LocalDateTime updatedSince);
+
+    /**
+     * Returns at most {@code query.limit} products matching the filters, in sort
+     * order, starting strictly after the cursor position carried by the query.
+     */
+    List<Product> findPage(ProductQuery query);
+
+    /**
+     * Assigns a fresh id and the initial version, then stores the product.
+     */
+    Product create(Product product);
+
+    /**
+     * Atomically replaces the stored product with the result of {@code updater}.
+     * The updater receives the current snapshot and must return a new instance
+     * instead of mutating it, because concurrent readers may still hold the old one.
+     */
+    Optional<Product> update(Long productId, UnaryOperator<Product> updater);
+
+    Optional<Product> deleteById(Long productId);
+
+    /**
+     * Stores a product handed over by another node under the id it already
+     * has, replacing any copy held here. It gets a fresh version from this
+     * store, so it outranks everything logged for the id before.
+     */
+    Product importProduct(Product product);
+
+    long count();
+
+    long countByCategory(CategoryType categoryType);
+
+    /**
+     * Counter bumped by every create, update and delete; equal values mean
+     * the catalog has not changed in between.
+     */
+    long catalogVersion();
+}
@@ -0,0 +1,756 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductChangeListener;
+import org.example.cosmocats.repository.ProductQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Product store for large catalogs that keeps products in primitive columns
+ * instead of one object graph each: prices as long cents, quantities as ints,
+ * category and status as enum ordinals, timestamps as epoch millis (UTC), and
+ * names and descriptions as handles into a deduplicated {@link StringArena}.
+ * A {@link Product} is materialized only when it is read.
+ * <p>
+ * Ids are handed out densely and never reused, so a product's id is its row
+ * number and no id map is needed. Columns grow in fixed-size chunks. Filtered
+ * and sorted reads scan the columns rather than maintaining skip-list
+ * indexes, and materialize only the rows they return.
+ * <p>
+ * Every row is guarded by one of a fixed set of striped {@link StampedLock}s.
+ * Writers hold it exclusively, which is the per-product critical section the
+ * listeners run in; readers decode optimistically and retry under the read
+ * lock if a writer got in between.
+ */
+@Repository
+@ConditionalOnProperty(name = "cosmocats.store.mode", havingValue = "columnar")
+public class ColumnarProductRepository implements ProductStore {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long MAX_ID = 1L << 31;
+    private static final int LOCK_STRIPES = 1024;
+
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final int NO_QUANTITY = Integer.MIN_VALUE;
+    private static final byte NO_ORDINAL = -1;
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(NO_VALUE + 1);
+    private static final CategoryType[] CATEGORY_TYPES = CategoryType.values();
+    private static final ProductStatus[] STATUSES = ProductStatus.values();
+
+    private final StampedLock[] locks = new StampedLock[LOCK_STRIPES];
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile Chunk[] chunks = new Chunk[16];
+    private final StringArena strings = new StringArena();
+
+    private final AtomicLong productIdGenerator = new AtomicLong(1);
+    // Seeded from the clock for the same reason as in the heap store.
+    private final AtomicLong catalogVersion = new AtomicLong(
+            TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+    private final AtomicLong liveCount = new AtomicLong();
+    private final AtomicLongArray categoryCounts = new AtomicLongArray(CATEGORY_TYPES.length);
+
+    private final List<ProductChangeListener> changeListeners;
+
+    public ColumnarProductRepository() {
+        this(List.of());
+    }
+
+    @Autowired
+    public ColumnarProductRepository(List<ProductChangeListener> changeListeners) {
+        this.changeListeners = List.copyOf(changeListeners);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    @Override
+    public Collection<Product> findAll() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Product> iterator() {
+                return streamAll().iterator();
+            }
+
+            @Override
+            public int size() {
+                return (int) Math.min(liveCount.get(), Integer.MAX_VALUE);
+            }
+        };
+    }
+
+    @Override
+    public Optional<Product> findById(Long productId) {
+        return Optional.ofNullable(read(productId));
+    }
+
+    @Override
+    public List<Product> findByCategory(CategoryType categoryType) {
+        byte ordinal = (byte) categoryType.ordinal();
+        List<Product> products = new ArrayList<>();
+        scan(1, (chunk, row, id) -> {
+            if (chunk.categories[row] == ordinal) {
+                Product product = read(id);
+                if (product != null && categoryTypeOf(product) == categoryType) {
+                    products.add(product);
+                }
+            }
+            return true;
+        });
+        return products;
+    }
+
+    @Override
+    public List<Product> findByStatus(ProductStatus productStatus) {
+        byte ordinal = (byte) productStatus.ordinal();
+        List<Product> products = new ArrayList<>();
+        scan(1, (chunk, row, id) -> {
+            if (chunk.statuses[row] == ordinal) {
+                Product product = read(id);
+                if (product != null && product.getStatus() == productStatus) {
+                    products.add(product);
+                }
+            }
+            return true;
+        });
+        return products;
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        long minCents = minPrice == null ? NO_VALUE + 1 : toCents(minPrice, RoundingMode.CEILING);
+        long maxCents = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice, RoundingMode.FLOOR);
+        RowKeyHeap matches = RowKeyHeap.unbounded();
+        scan(1, (chunk, row, id) -> {
+            long cents = chunk.prices[row];
+            if (cents != NO_VALUE && cents >= minCents && cents <= maxCents) {
+                matches.offer(cents, id);
+            }
+            return true;
+        });
+        matches.sortAscending();
+
+        List<Product> products = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            Product product = read(matches.idAt(i));
+            if (product != null && priceKey(product) == matches.keyAt(i)) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public Stream<Product> streamUpdatedSince(LocalDateTime updatedSince) {
+        if (updatedSince == null) {
+            return streamAll();
+        }
+        long sinceMillis = toMillis(updatedSince, RoundingMode.CEILING);
+        RowKeyHeap matches = RowKeyHeap.unbounded();
+        scan(1, (chunk, row, id) -> {
+            long updatedAt = chunk.updatedAt[row];
+            if (updatedAt != NO_VALUE && updatedAt >= sinceMillis) {
+                matches.offer(updatedAt, id);
+            }
+            return true;
+        });
+        matches.sortAscending();
+        return IntStream.range(0, matches.size())
+                .mapToObj(i -> {
+                    Product product = read(matches.idAt(i));
+                    return product != null && updatedAtKey(product) == matches.keyAt(i) ? product : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public List<Product> findPage(ProductQuery query) {
+        List<Product> page = new ArrayList<>(Math.min(query.getLimit(), 1024));
+        RowFilter filter = RowFilter.of(query);
+
+        switch (query.getSort()) {
+            case ID -> {
+                long fromId = query.getAfterId() == null ? 1 : query.getAfterId() + 1;
+                scan(fromId, (chunk, row, id) -> {
+                    if (!filter.test(chunk, row)) {
+                        return true;
+                    }
+                    Product product = read(id);
+                    if (product != null && query.matches(product)) {
+                        page.add(product);
+                    }
+                    return page.size() < query.getLimit();
+                });
+            }
+            case PRICE -> {
+                BigDecimal after = (BigDecimal) query.getAfterKey();
+                long afterCents = after == null ? NO_VALUE : toCents(after, RoundingMode.FLOOR);
+                boolean exact = after != null && after.compareTo(BigDecimal.valueOf(afterCents, 2)) == 0;
+                collectSorted(chunk -> chunk.prices, ColumnarProductRepository::priceKey,
+                        afterCents, afterIdOf(query, exact), filter, query, page);
+            }
+            case UPDATED_AT -> {
+                LocalDateTime after = (LocalDateTime) query.getAfterKey();
+                long afterMillis = after == null ? NO_VALUE : toMillis(after, RoundingMode.FLOOR);
+                boolean exact = after != null && after.getNano() % 1_000_000 == 0;
+                collectSorted(chunk -> chunk.updatedAt, ColumnarProductRepository::updatedAtKey,
+                        afterMillis, afterIdOf(query, exact), filter, query, page);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Product create(Product product) {
+        long newId = productIdGenerator.getAndIncrement();
+        product.setId(newId);
+        Chunk chunk = chunkForWrite(newId);
+        int row = rowOf(newId);
+
+        StampedLock lock = lockFor(newId);
+        long stamp = lock.writeLock();
+        try {
+            if (chunk.versions[row] != 0) {
+                throw new IllegalStateException("Product id already in use: " + newId);
+            }
+            product.setVersion(catalogVersion.incrementAndGet());
+            writeRow(chunk, row, product);
+            liveCount.incrementAndGet();
+            notifyListeners(null, product);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return product;
+    }
+
+    @Override
+    public Optional<Product> update(Long productId, UnaryOperator<Product> updater) {
+        Chunk chunk = chunkFor(productId);
+        if (chunk == null) {
+            return Optional.empty();
+        }
+        int row = rowOf(productId);
+
+        StampedLock lock = lockFor(productId);
+        long stamp = lock.writeLock();
+        try {
+            if (chunk.versions[row] == 0) {
+                return Optional.empty();
+            }
+            Product current = decode(chunk, row, productId);
+            Product next = updater.apply(current);
+            next.setId(productId);
+            next.setVersion(catalogVersion.incrementAndGet());
+            writeRow(chunk, row, next);
+            notifyListeners(current, next);
+            return Optional.of(next);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Optional<Product> deleteById(Long productId) {
+        Chunk chunk = chunkFor(productId);
+        if (chunk == null) {
+            return Optional.empty();
+        }
+        int row = rowOf(productId);
+
+        StampedLock lock = lockFor(productId);
+        long stamp = lock.writeLock();
+        try {
+            if (chunk.versions[row] == 0) {
+                return Optional.empty();
+            }
+            Product current = decode(chunk, row, productId);
+            clearRow(chunk, row);
+            liveCount.decrementAndGet();
+            catalogVersion.incrementAndGet();
+            notifyListeners(current, null);
+            return Optional.of(current);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean restore(Product product) {
+        long id = product.getId();
+        Chunk chunk = chunkForWrite(id);
+        int row = rowOf(id);
+        boolean applied = false;
+
+        StampedLock lock = lockFor(id);
+        long stamp = lock.writeLock();
+        try {
+            long storedVersion = chunk.versions[row];
+            if (storedVersion == 0 || storedVersion < product.getVersion()) {
+                Product current = storedVersion != 0 && !changeListeners.isEmpty() ? decode(chunk, row, id) : null;
+                if (storedVersion == 0) {
+                    liveCount.incrementAndGet();
+                }
+                writeRow(chunk, row, product);
+                notifyListeners(current, product);
+                applied = true;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        productIdGenerator.accumulateAndGet(id + 1, Math::max);
+        catalogVersion.accumulateAndGet(product.getVersion(), Math::max);
+        return applied;
+    }
+
+    @Override
+    public Product importProduct(Product product) {
+        product.setVersion(catalogVersion.incrementAndGet());
+        restore(product);
+        return product;
+    }
+
+    @Override
+    public void restoreDeletion(long productId, long version) {
+        Chunk chunk = chunkFor(productId);
+        if (chunk != null) {
+            int row = rowOf(productId);
+            StampedLock lock = lockFor(productId);
+            long stamp = lock.writeLock();
+            try {
+                long storedVersion = chunk.versions[row];
+                if (storedVersion != 0 && storedVersion < version) {
+                    Product current = decode(chunk, row, productId);
+                    clearRow(chunk, row);
+                    liveCount.decrementAndGet();
+                    notifyListeners(current, null);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        productIdGenerator.accumulateAndGet(productId + 1, Math::max);
+        catalogVersion.accumulateAndGet(version, Math::max);
+    }
+
+    @Override
+    public void revert(Product written, Product previous) {
+        long id = written.getId();
+        Chunk chunk = chunkFor(id);
+        if (chunk == null) {
+            return;
+        }
+        int row = rowOf(id);
+
+        StampedLock lock = lockFor(id);
+        long stamp = lock.writeLock();
+        try {
+            if (chunk.versions[row] != written.getVersion()) {
+                return;
+            }
+            Product current = decode(chunk, row, id);
+            if (previous == null) {
+                clearRow(chunk, row);
+                liveCount.decrementAndGet();
+            } else {
+                writeRow(chunk, row, previous);
+            }
+            catalogVersion.incrementAndGet();
+            notifyListeners(current, previous);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public long peekNextId() {
+        return productIdGenerator.get();
+    }
+
+    @Override
+    public void restoreNextId(long nextId) {
+        productIdGenerator.accumulateAndGet(nextId, Math::max);
+    }
+
+    @Override
+    public void restoreCatalogVersion(long version) {
+        catalogVersion.accumulateAndGet(version, Math::max);
+    }
+
+    @Override
+    public long count() {
+        return liveCount.get();
+    }
+
+    @Override
+    public long countByCategory(CategoryType categoryType) {
+        return categoryCounts.get(categoryType.ordinal());
+    }
+
+    @Override
+    public long catalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Number of distinct names and descriptions currently held.
+     */
+    public int distinctStrings() {
+        return strings.size();
+    }
+
+    private Stream<Product> streamAll() {
+        return LongStream.range(1, productIdGenerator.get())
+                .mapToObj(this::read)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Picks the next page in (key, id) order by scanning one column for rows past
+     * the cursor. A row that changed between the scan and its materialization is
+     * skipped, and the scan repeats from the last row examined until the page is
+     * full or the column is exhausted.
+     */
+    private void collectSorted(ColumnSelector column, ToLongFunction<Product> sortKey,
+                               long afterKey, long afterId, RowFilter filter,
+                               ProductQuery query, List<Product> page) {
+        long cursorKey = afterKey;
+        long cursorId = afterId;
+        while (page.size() < query.getLimit()) {
+            int wanted = query.getLimit() - page.size();
+            RowKeyHeap candidates = RowKeyHeap.bounded(wanted);
+            long fromKey = cursorKey;
+            long fromId = cursorId;
+            scan(1, (chunk, row, id) -> {
+                long key = column.select(chunk)[row];
+                if (key != NO_VALUE && (key > fromKey || (key == fromKey && id > fromId)) && filter.test(chunk, row)) {
+                    candidates.offer(key, id);
+                }
+                return true;
+            });
+            candidates.sortAscending();
+
+            boolean skipped = false;
+            for (int i = 0; i < candidates.size(); i++) {
+                Product product = read(candidates.idAt(i));
+                if (product != null && sortKey.applyAsLong(product) == candidates.keyAt(i) && query.matches(product)) {
+                    page.add(product);
+                } else {
+                    skipped = true;
+                }
+                cursorKey = candidates.keyAt(i);
+                cursorId = candidates.idAt(i);
+            }
+            if (!skipped || candidates.size() < wanted) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Visits the occupied rows from {@code fromId} upwards in id order until the
+     * visitor returns false. Column values seen here are unsynchronized and may be
+     * stale, so visitors only use them to preselect rows and then {@link #read}.
+     */
+    private void scan(long fromId, RowVisitor visitor) {
+        long end = productIdGenerator.get();
+        long id = Math.max(fromId, 1);
+        while (id < end) {
+            long chunkIndex = (id - 1) >>> CHUNK_BITS;
+            long chunkEnd = Math.min(end, ((chunkIndex + 1) << CHUNK_BITS) + 1);
+            Chunk chunk = chunkFor(id);
+            if (chunk != null) {
+                for (; id < chunkEnd; id++) {
+                    int row = rowOf(id);
+                    if (chunk.versions[row] != 0 && !visitor.visit(chunk, row, id)) {
+                        return;
+                    }
+                }
+            }
+            id = chunkEnd;
+        }
+    }
+
+    private Product read(Long productId) {
+        Chunk chunk = chunkFor(productId);
+        if (chunk == null) {
+            return null;
+        }
+        int row = rowOf(productId);
+        StampedLock lock = lockFor(productId);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Product product = decode(chunk, row, productId);
+                if (lock.validate(stamp)) {
+                    return product;
+                }
+            } catch (RuntimeException ex) {
+                // Columns torn by a concurrent writer; read again under the lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return decode(chunk, row, productId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Product decode(Chunk chunk, int row, long id) {
+        long version = chunk.versions[row];
+        if (version == 0) {
+            return null;
+        }
+        long cents = chunk.prices[row];
+        int quantity = chunk.quantities[row];
+        byte category = chunk.categories[row];
+        byte status = chunk.statuses[row];
+
+        Product product = new Product();
+        product.setId(id);
+        product.setName(strings.get(chunk.names[row]));
+        product.setDescription(strings.get(chunk.descriptions[row]));
+        product.setPrice(cents == NO_VALUE ? null : BigDecimal.valueOf(cents, 2).setScale(chunk.priceScales[row]));
+        product.setQuantity(quantity == NO_QUANTITY ? null : quantity);
+        product.setCategory(category == NO_ORDINAL ? null : Category.of(CATEGORY_TYPES[category]));
+        product.setStatus(status == NO_ORDINAL ? null : STATUSES[status]);
+        product.setCreatedAt(fromMillis(chunk.createdAt[row]));
+        product.setUpdatedAt(fromMillis(chunk.updatedAt[row]));
+        product.setVersion(version);
+        return product;
+    }
+
+    /**
+     * Stores {@code product} in a row whose lock the caller holds. Timestamps are
+     * truncated to millis on the product too, so it matches what later reads return.
+     */
+    private void writeRow(Chunk chunk, int row, Product product) {
+        BigDecimal price = product.getPrice();
+        long cents = price == null ? NO_VALUE : toExactCents(price);
+        LocalDateTime createdAt = truncateToMillis(product.getCreatedAt());
+        LocalDateTime updatedAt = truncateToMillis(product.getUpdatedAt());
+        product.setCreatedAt(createdAt);
+        product.setUpdatedAt(updatedAt);
+        CategoryType categoryType = categoryTypeOf(product);
+
+        boolean replacing = chunk.versions[row] != 0;
+        int oldName = chunk.names[row];
+        int oldDescription = chunk.descriptions[row];
+        byte oldCategory = chunk.categories[row];
+
+        chunk.names[row] = strings.intern(product.getName());
+        chunk.descriptions[row] = strings.intern(product.getDescription());
+        chunk.prices[row] = cents;
+        chunk.priceScales[row] = price == null ? 0 : (byte) price.scale();
+        chunk.quantities[row] = product.getQuantity() == null ? NO_QUANTITY : product.getQuantity();
+        chunk.categories[row] = categoryType == null ? NO_ORDINAL : (byte) categoryType.ordinal();
+        chunk.statuses[row] = product.getStatus() == null ? NO_ORDINAL : (byte) product.getStatus().ordinal();
+        chunk.createdAt[row] = createdAt == null ? NO_VALUE : toMillis(createdAt, RoundingMode.FLOOR);
+        chunk.updatedAt[row] = updatedAt == null ? NO_VALUE : toMillis(updatedAt, RoundingMode.FLOOR);
+        chunk.versions[row] = product.getVersion();
+
+        if (replacing) {
+            strings.release(oldName);
+            strings.release(oldDescription);
+            if (oldCategory != NO_ORDINAL) {
+                categoryCounts.decrementAndGet(oldCategory);
+            }
+        }
+        if (categoryType != null) {
+            categoryCounts.incrementAndGet(categoryType.ordinal());
+        }
+    }
+
+    private void clearRow(Chunk chunk, int row) {
+        strings.release(chunk.names[row]);
+        strings.release(chunk.descriptions[row]);
+        if (chunk.categories[row] != NO_ORDINAL) {
+            categoryCounts.decrementAndGet(chunk.categories[row]);
+        }
+        chunk.names[row] = StringArena.NULL;
+        chunk.descriptions[row] = StringArena.NULL;
+        chunk.versions[row] = 0;
+    }
+
+    private void notifyListeners(Product previous, Product current) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onProductChanged(previous, current);
+        }
+    }
+
+    private Chunk chunkFor(long id) {
+        if (id < 1 || id > MAX_ID) {
+            return null;
+        }
+        long index = (id - 1) >>> CHUNK_BITS;
+        Chunk[] current = chunks;
+        return index < current.length ? current[(int) index] : null;
+    }
+
+    private Chunk chunkForWrite(long id) {
+        Chunk chunk = chunkFor(id);
+        if (chunk != null) {
+            return chunk;
+        }
+        if (id < 1 || id > MAX_ID) {
+            throw new IllegalStateException("Product id " + id + " is outside the range of the columnar store");
+        }
+        int index = (int) ((id - 1) >>> CHUNK_BITS);
+        growLock.lock();
+        try {
+            Chunk[] current = chunks;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, index + 1));
+            }
+            if (current[index] == null) {
+                current[index] = new Chunk();
+            }
+            // Written back even when unchanged, to publish the new chunk.
+            chunks = current;
+            return current[index];
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private StampedLock lockFor(long id) {
+        return locks[(int) (id & (LOCK_STRIPES - 1))];
+    }
+
+    private static int rowOf(long id) {
+        return (int) ((id - 1) & CHUNK_MASK);
+    }
+
+    private static long afterIdOf(ProductQuery query, boolean exactKey) {
+        // A cursor key between two stored keys already excludes every row at the lower one.
+        if (!exactKey) {
+            return Long.MAX_VALUE;
+        }
+        return query.getAfterId() == null ? NO_VALUE : query.getAfterId();
+    }
+
+    private static long priceKey(Product product) {
+        return product.getPrice() == null ? NO_VALUE : toExactCents(product.getPrice());
+    }
+
+    private static long updatedAtKey(Product product) {
+        return product.getUpdatedAt() == null ? NO_VALUE : toMillis(product.getUpdatedAt(), RoundingMode.FLOOR);
+    }
+
+    private static long toExactCents(BigDecimal price) {
+        try {
+            if (price.scale() < Byte.MIN_VALUE || price.scale() > Byte.MAX_VALUE) {
+                throw new ArithmeticException("Scale out of range");
+            }
+            return price.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Price " + price + " is not a whole number of cents", ex);
+        }
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        BigDecimal cents = price.movePointRight(2).setScale(0, roundingMode);
+        return cents.max(MIN_CENTS).min(MAX_CENTS).longValue();
+    }
+
+    private static long toMillis(LocalDateTime time, RoundingMode roundingMode) {
+        long millis = time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+        return roundingMode == RoundingMode.CEILING && time.getNano() % 1_000_000 != 0 ? millis + 1 : millis;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        if (millis == NO_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime truncateToMillis(LocalDateTime time) {
+        return time == null ? null : time.withNano(time.getNano() / 1_000_000 * 1_000_000);
+    }
+
+    private static CategoryType categoryTypeOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getType() : null;
+    }
+
+    /**
+     * One block of {@link #CHUNK_SIZE} rows. A version of zero marks a free row.
+     */
+    private static final class Chunk {
+        final long[] versions = new long[CHUNK_SIZE];
+        final long[] prices = new long[CHUNK_SIZE];
+        final byte[] priceScales = new byte[CHUNK_SIZE];
+        final int[] quantities = new int[CHUNK_SIZE];
+        final byte[] categories = new byte[CHUNK_SIZE];
+        final byte[] statuses = new byte[CHUNK_SIZE];
+        final long[] createdAt = new long[CHUNK_SIZE];
+        final long[] updatedAt = new long[CHUNK_SIZE];
+        final int[] names = new int[CHUNK_SIZE];
+        final int[] descriptions = new int[CHUNK_SIZE];
+    }
+
+    /**
+     * The query's category, status and price filters as column values, so a scan
+     * can reject rows without materializing them.
+     */
+    private record RowFilter(byte category, byte status, long minCents, long maxCents) {
+
+        private static final byte ANY = -2;
+
+        static RowFilter of(ProductQuery query) {
+            return new RowFilter(
+                    query.getCategory() == null ? ANY : (byte) query.getCategory().ordinal(),
+                    query.getStatus() == null ? ANY : (byte) query.getStatus().ordinal(),
+                    query.getMinPrice() == null ? NO_VALUE : toCents(query.getMinPrice(), RoundingMode.CEILING),
+                    query.getMaxPrice() == null ? Long.MAX_VALUE : toCents(query.getMaxPrice(), RoundingMode.FLOOR));
+        }
+
+        boolean test(Chunk chunk, int row) {
+            if (category != ANY && chunk.categories[row] != category) {
+                return false;
+            }
+            if (status != ANY && chunk.statuses[row] != status) {
+                return false;
+            }
+            if (minCents == NO_VALUE && maxCents == Long.MAX_VALUE) {
+                return true;
+            }
+            long cents = chunk.prices[row];
+            return cents != NO_VALUE && cents >= minCents && cents <= maxCents;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowVisitor {
+        boolean visit(Chunk chunk, int row, long id);
+    }
+
+    @FunctionalInterface
+    private interface ColumnSelector {
+        long[] select(Chunk chunk);
+    }
+}
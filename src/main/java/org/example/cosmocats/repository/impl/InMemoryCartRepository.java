@@ -0,0 +1,58 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.domain.Cart;
+import org.example.cosmocats.repository.CartRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+@Repository
+public class InMemoryCartRepository implements CartRepository {
+
+    private final ConcurrentMap<Long, Cart> cartStore = new ConcurrentHashMap<>();
+    private final AtomicLong cartIdGenerator = new AtomicLong(1);
+
+    @Override
+    public Optional<Cart> findById(Long cartId) {
+        return Optional.ofNullable(cartStore.get(cartId));
+    }
+
+    @Override
+    public Cart create(Cart cart) {
+        cart.setId(cartIdGenerator.getAndIncrement());
+        cartStore.put(cart.getId(), cart);
+        return cart;
+    }
+
+    @Override
+    public Optional<Cart> update(Long cartId, UnaryOperator<Cart> updater) {
+        return Optional.ofNullable(cartStore.computeIfPresent(cartId, (id, current) -> {
+            Cart next = updater.apply(current);
+            next.setId(id);
+            return next;
+        }));
+    }
+
+    @Override
+    public Optional<Cart> deleteIf(Long cartId, Predicate<Cart> condition) {
+        Cart[] removed = new Cart[1];
+        cartStore.computeIfPresent(cartId, (id, current) -> {
+            if (!condition.test(current)) {
+                return current;
+            }
+            removed[0] = current;
+            return null;
+        });
+        return Optional.ofNullable(removed[0]);
+    }
+
+    @Override
+    public long count() {
+        return cartStore.size();
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.RegisteredCategory;
+import org.example.cosmocats.repository.CategoryRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * One slot per {@link CategoryType}, indexed by category id - 1. Every category
+ * starts out registered; an empty slot is a category closed to products.
+ */
+@Repository
+public class InMemoryCategoryRepository implements CategoryRepository {
+
+    private final AtomicReferenceArray<RegisteredCategory> slots =
+            new AtomicReferenceArray<>(CategoryType.values().length);
+
+    public InMemoryCategoryRepository() {
+        for (CategoryType categoryType : CategoryType.values()) {
+            slots.set(categoryType.ordinal(), new RegisteredCategory(Category.of(categoryType), defaultDescription(categoryType)));
+        }
+    }
+
+    @Override
+    public List<RegisteredCategory> findAll() {
+        List<RegisteredCategory> categories = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            RegisteredCategory category = slots.get(i);
+            if (category != null) {
+                categories.add(category);
+            }
+        }
+        return categories;
+    }
+
+    @Override
+    public Optional<RegisteredCategory> findById(Long categoryId) {
+        Category category = categoryId != null ? Category.ofId(categoryId) : null;
+        return category != null ? Optional.ofNullable(slots.get(slotOf(category))) : Optional.empty();
+    }
+
+    @Override
+    public Optional<RegisteredCategory> findByType(CategoryType categoryType) {
+        return Optional.ofNullable(slots.get(categoryType.ordinal()));
+    }
+
+    @Override
+    public Optional<RegisteredCategory> create(CategoryType categoryType, String description) {
+        RegisteredCategory created = new RegisteredCategory(Category.of(categoryType), description);
+        return slots.compareAndSet(categoryType.ordinal(), null, created) ? Optional.of(created) : Optional.empty();
+    }
+
+    @Override
+    public Optional<RegisteredCategory> update(Long categoryId, String description) {
+        Category category = categoryId != null ? Category.ofId(categoryId) : null;
+        if (category == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(slots.updateAndGet(slotOf(category),
+                current -> current != null ? new RegisteredCategory(category, description) : null));
+    }
+
+    @Override
+    public Optional<RegisteredCategory> deleteById(Long categoryId) {
+        Category category = categoryId != null ? Category.ofId(categoryId) : null;
+        return category != null ? Optional.ofNullable(slots.getAndSet(slotOf(category), null)) : Optional.empty();
+    }
+
+    private static int slotOf(Category category) {
+        return category.getType().ordinal();
+    }
+
+    private static String defaultDescription(CategoryType categoryType) {
+        String words = categoryType.name().replace('_', ' ').toLowerCase(Locale.ROOT);
+        return Character.toUpperCase(words.charAt(0)) + words.substring(1);
+    }
+}
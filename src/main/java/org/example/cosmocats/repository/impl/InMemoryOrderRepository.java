@@ -0,0 +1,44 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.domain.Order;
+import org.example.cosmocats.repository.OrderRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+@Repository
+public class InMemoryOrderRepository implements OrderRepository {
+
+    private final ConcurrentMap<Long, Order> orderStore = new ConcurrentHashMap<>();
+    private final AtomicLong orderIdGenerator = new AtomicLong(1);
+
+    @Override
+    public Optional<Order> findById(Long orderId) {
+        return Optional.ofNullable(orderStore.get(orderId));
+    }
+
+    @Override
+    public Order create(Order order) {
+        order.setId(orderIdGenerator.getAndIncrement());
+        orderStore.put(order.getId(), order);
+        return order;
+    }
+
+    @Override
+    public Optional<Order> update(Long orderId, UnaryOperator<Order> updater) {
+        return Optional.ofNullable(orderStore.computeIfPresent(orderId, (id, current) -> {
+            Order next = updater.apply(current);
+            next.setId(id);
+            return next;
+        }));
+    }
+
+    @Override
+    public Optional<Order> deleteById(Long orderId) {
+        return Optional.ofNullable(orderStore.remove(orderId));
+    }
+}
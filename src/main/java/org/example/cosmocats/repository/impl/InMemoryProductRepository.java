@@ -0,0 +1,447 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductChangeListener;
+import org.example.cosmocats.repository.ProductIdGenerator;
+import org.example.cosmocats.repository.ProductQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+@Repository
+@ConditionalOnProperty(name = "cosmocats.store.mode", havingValue = "heap", matchIfMissing = true)
+public class InMemoryProductRepository implements ProductStore {
+
+    private final ConcurrentMap<Long, Product> productStore = new ConcurrentHashMap<>();
+    private final ProductIdGenerator productIdGenerator;
+    // Seeded from the clock so versions, and the ETags built from them, keep
+    // moving forward across restarts of a non-persistent store.
+    private final AtomicLong catalogVersion = new AtomicLong(
+            TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+
+    private final ConcurrentSkipListSet<Long> idIndex = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<IndexEntry<BigDecimal>> priceIndex = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<IndexEntry<LocalDateTime>> updatedAtIndex = new ConcurrentSkipListSet<>();
+
+    // Both maps are fully populated up front and never structurally modified
+    // afterwards, so plain EnumMaps are safe to share between threads.
+    private final Map<CategoryType, ConcurrentSkipListSet<Long>> categoryIndex = new EnumMap<>(CategoryType.class);
+    private final Map<ProductStatus, ConcurrentSkipListSet<Long>> statusIndex = new EnumMap<>(ProductStatus.class);
+    // Kept next to the category buckets, whose size() walks the whole skip list.
+    private final Map<CategoryType, AtomicLong> categoryCounts = new EnumMap<>(CategoryType.class);
+
+    private final List<ProductChangeListener> changeListeners;
+
+    public InMemoryProductRepository() {
+        this(List.of(), new SequentialProductIdGenerator());
+    }
+
+    @Autowired
+    public InMemoryProductRepository(List<ProductChangeListener> changeListeners,
+                                     ProductIdGenerator productIdGenerator) {
+        this.changeListeners = List.copyOf(changeListeners);
+        this.productIdGenerator = productIdGenerator;
+        for (CategoryType categoryType : CategoryType.values()) {
+            categoryIndex.put(categoryType, new ConcurrentSkipListSet<>());
+            categoryCounts.put(categoryType, new AtomicLong());
+        }
+        for (ProductStatus productStatus : ProductStatus.values()) {
+            statusIndex.put(productStatus, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    @Override
+    public Collection<Product> findAll() {
+        return Collections.unmodifiableCollection(productStore.values());
+    }
+
+    @Override
+    public Optional<Product> findById(Long productId) {
+        return Optional.ofNullable(productStore.get(productId));
+    }
+
+    @Override
+    public List<Product> findByCategory(CategoryType categoryType) {
+        List<Product> products = new ArrayList<>();
+        for (Long id : categoryIndex.get(categoryType)) {
+            Product product = productStore.get(id);
+            if (product != null && categoryTypeOf(product) == categoryType) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findByStatus(ProductStatus productStatus) {
+        List<Product> products = new ArrayList<>();
+        for (Long id : statusIndex.get(productStatus)) {
+            Product product = productStore.get(id);
+            if (product != null && product.getStatus() == productStatus) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        NavigableSet<IndexEntry<BigDecimal>> range = priceIndex;
+        if (minPrice != null) {
+            range = range.tailSet(IndexEntry.lowest(minPrice), true);
+        }
+        if (maxPrice != null) {
+            range = range.headSet(IndexEntry.highest(maxPrice), true);
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (IndexEntry<BigDecimal> entry : range) {
+            Product product = productStore.get(entry.productId());
+            if (product != null && sameKey(entry.key(), product.getPrice())) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public Stream<Product> streamUpdatedSince(LocalDateTime updatedSince) {
+        if (updatedSince == null) {
+            return productStore.values().stream();
+        }
+        return updatedAtIndex.tailSet(IndexEntry.lowest(updatedSince), true).stream()
+                .map(entry -> {
+                    Product product = productStore.get(entry.productId());
+                    return product != null && sameKey(entry.key(), product.getUpdatedAt()) ? product : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public List<Product> findPage(ProductQuery query) {
+        List<Product> page = new ArrayList<>(Math.min(query.getLimit(), 1024));
+
+        switch (query.getSort()) {
+            case ID -> {
+                NavigableSet<Long> ids = idDrivingIndex(query);
+                if (query.getAfterId() != null) {
+                    ids = ids.tailSet(query.getAfterId(), false);
+                }
+                for (Long id : ids) {
+                    Product product = productStore.get(id);
+                    if (product != null && query.matches(product) && addAndCheckFull(page, product, query)) {
+                        break;
+                    }
+                }
+            }
+            case PRICE -> collectPage(priceRange(query), Product::getPrice, query, page);
+            case UPDATED_AT -> collectPage(tailAfterCursor(updatedAtIndex, query), Product::getUpdatedAt, query, page);
+        }
+        return page;
+    }
+
+    @Override
+    public Product create(Product product) {
+        Long newId = productIdGenerator.nextId();
+        product.setId(newId);
+
+        productStore.compute(newId, (id, existing) -> {
+            if (existing != null) {
+                throw new IllegalStateException("Product id already in use: " + id);
+            }
+            product.setVersion(catalogVersion.incrementAndGet());
+            addToIndexes(product);
+            notifyListeners(null, product);
+            return product;
+        });
+        return product;
+    }
+
+    @Override
+    public Optional<Product> update(Long productId, UnaryOperator<Product> updater) {
+        // computeIfPresent serializes writers of the same id, so every update
+        // sees the previous one and the version only ever moves forward.
+        // Index maintenance happens under the same per-key lock.
+        Product updated = productStore.computeIfPresent(productId, (id, current) -> {
+            Product next = updater.apply(current);
+            next.setId(id);
+            next.setVersion(catalogVersion.incrementAndGet());
+            moveInIndexes(current, next);
+            notifyListeners(current, next);
+            return next;
+        });
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public Optional<Product> deleteById(Long productId) {
+        Product[] removed = new Product[1];
+        productStore.computeIfPresent(productId, (id, current) -> {
+            removeFromIndexes(current);
+            catalogVersion.incrementAndGet();
+            notifyListeners(current, null);
+            removed[0] = current;
+            return null;
+        });
+        return Optional.ofNullable(removed[0]);
+    }
+
+    @Override
+    public boolean restore(Product product) {
+        boolean[] applied = new boolean[1];
+        productStore.compute(product.getId(), (id, current) -> {
+            if (current != null && current.getVersion() >= product.getVersion()) {
+                return current;
+            }
+            if (current == null) {
+                addToIndexes(product);
+            } else {
+                idIndex.add(id);
+                moveInIndexes(current, product);
+            }
+            notifyListeners(current, product);
+            applied[0] = true;
+            return product;
+        });
+        productIdGenerator.advanceTo(product.getId() + 1);
+        catalogVersion.accumulateAndGet(product.getVersion(), Math::max);
+        return applied[0];
+    }
+
+    @Override
+    public void revert(Product written, Product previous) {
+        productStore.computeIfPresent(written.getId(), (id, current) -> {
+            if (!current.getVersion().equals(written.getVersion())) {
+                return current;
+            }
+            if (previous == null) {
+                removeFromIndexes(current);
+            } else {
+                moveInIndexes(current, previous);
+            }
+            catalogVersion.incrementAndGet();
+            notifyListeners(current, previous);
+            return previous;
+        });
+    }
+
+    @Override
+    public Product importProduct(Product product) {
+        product.setVersion(catalogVersion.incrementAndGet());
+        restore(product);
+        return product;
+    }
+
+    @Override
+    public void restoreDeletion(long productId, long version) {
+        productStore.computeIfPresent(productId, (id, current) -> {
+            if (current.getVersion() >= version) {
+                return current;
+            }
+            removeFromIndexes(current);
+            notifyListeners(current, null);
+            return null;
+        });
+        productIdGenerator.advanceTo(productId + 1);
+        catalogVersion.accumulateAndGet(version, Math::max);
+    }
+
+    @Override
+    public long peekNextId() {
+        return productIdGenerator.peekNextId();
+    }
+
+    @Override
+    public void restoreNextId(long nextId) {
+        productIdGenerator.advanceTo(nextId);
+    }
+
+    @Override
+    public void restoreCatalogVersion(long version) {
+        catalogVersion.accumulateAndGet(version, Math::max);
+    }
+
+    @Override
+    public long count() {
+        return productStore.size();
+    }
+
+    @Override
+    public long countByCategory(CategoryType categoryType) {
+        return categoryCounts.get(categoryType).get();
+    }
+
+    @Override
+    public long catalogVersion() {
+        return catalogVersion.get();
+    }
+
+    private void notifyListeners(Product previous, Product current) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onProductChanged(previous, current);
+        }
+    }
+
+    private NavigableSet<Long> idDrivingIndex(ProductQuery query) {
+        // Both buckets are id-ordered, so a filtered id page can walk the
+        // bucket instead of skipping non-matching products in the id index.
+        if (query.getCategory() != null) {
+            return categoryIndex.get(query.getCategory());
+        }
+        if (query.getStatus() != null) {
+            return statusIndex.get(query.getStatus());
+        }
+        return idIndex;
+    }
+
+    private void addToIndexes(Product product) {
+        long id = product.getId();
+        idIndex.add(id);
+        CategoryType categoryType = categoryTypeOf(product);
+        if (categoryType != null) {
+            categoryIndex.get(categoryType).add(id);
+            categoryCounts.get(categoryType).incrementAndGet();
+        }
+        if (product.getStatus() != null) {
+            statusIndex.get(product.getStatus()).add(id);
+        }
+        if (product.getPrice() != null) {
+            priceIndex.add(new IndexEntry<>(product.getPrice(), id));
+        }
+        if (product.getUpdatedAt() != null) {
+            updatedAtIndex.add(new IndexEntry<>(product.getUpdatedAt(), id));
+        }
+    }
+
+    /**
+     * Adds the new index entries before removing the old ones, so a concurrent
+     * reader always finds the product in at least one bucket. Readers drop the
+     * stale entry by re-checking the key against the stored product.
+     */
+    private void moveInIndexes(Product current, Product next) {
+        long id = next.getId();
+        CategoryType currentCategory = categoryTypeOf(current);
+        CategoryType nextCategory = categoryTypeOf(next);
+        moveEntry(categoryIndex, currentCategory, nextCategory, id);
+        if (currentCategory != nextCategory) {
+            if (nextCategory != null) {
+                categoryCounts.get(nextCategory).incrementAndGet();
+            }
+            if (currentCategory != null) {
+                categoryCounts.get(currentCategory).decrementAndGet();
+            }
+        }
+        moveEntry(statusIndex, current.getStatus(), next.getStatus(), id);
+        moveEntry(priceIndex, current.getPrice(), next.getPrice(), id);
+        moveEntry(updatedAtIndex, current.getUpdatedAt(), next.getUpdatedAt(), id);
+    }
+
+    private static <E extends Enum<E>> void moveEntry(Map<E, ConcurrentSkipListSet<Long>> index,
+                                                      E oldKey, E newKey, long id) {
+        if (oldKey == newKey) {
+            return;
+        }
+        if (newKey != null) {
+            index.get(newKey).add(id);
+        }
+        if (oldKey != null) {
+            index.get(oldKey).remove(id);
+        }
+    }
+
+    private static <K extends Comparable<? super K>> void moveEntry(NavigableSet<IndexEntry<K>> index,
+                                                                    K oldKey, K newKey, long id) {
+        if (oldKey != null && newKey != null && oldKey.compareTo(newKey) == 0) {
+            return;
+        }
+        if (newKey != null) {
+            index.add(new IndexEntry<>(newKey, id));
+        }
+        if (oldKey != null) {
+            index.remove(new IndexEntry<>(oldKey, id));
+        }
+    }
+
+    private void removeFromIndexes(Product product) {
+        long id = product.getId();
+        idIndex.remove(id);
+        CategoryType categoryType = categoryTypeOf(product);
+        if (categoryType != null) {
+            categoryIndex.get(categoryType).remove(id);
+            categoryCounts.get(categoryType).decrementAndGet();
+        }
+        if (product.getStatus() != null) {
+            statusIndex.get(product.getStatus()).remove(id);
+        }
+        if (product.getPrice() != null) {
+            priceIndex.remove(new IndexEntry<>(product.getPrice(), id));
+        }
+        if (product.getUpdatedAt() != null) {
+            updatedAtIndex.remove(new IndexEntry<>(product.getUpdatedAt(), id));
+        }
+    }
+
+    private NavigableSet<IndexEntry<BigDecimal>> priceRange(ProductQuery query) {
+        NavigableSet<IndexEntry<BigDecimal>> range = tailAfterCursor(priceIndex, query);
+        if (query.getAfterKey() == null && query.getMinPrice() != null) {
+            range = range.tailSet(IndexEntry.lowest(query.getMinPrice()), true);
+        }
+        if (query.getMaxPrice() != null) {
+            range = range.headSet(IndexEntry.highest(query.getMaxPrice()), true);
+        }
+        return range;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K extends Comparable<? super K>> NavigableSet<IndexEntry<K>> tailAfterCursor(
+            NavigableSet<IndexEntry<K>> index, ProductQuery query) {
+        if (query.getAfterKey() == null) {
+            return index;
+        }
+        return index.tailSet(new IndexEntry<>((K) query.getAfterKey(), query.getAfterId()), false);
+    }
+
+    private <K extends Comparable<? super K>> void collectPage(NavigableSet<IndexEntry<K>> range,
+                                                               Function<Product, K> sortKey,
+                                                               ProductQuery query,
+                                                               List<Product> page) {
+        for (IndexEntry<K> entry : range) {
+            Product product = productStore.get(entry.productId());
+            // An entry can briefly point at a newer version of the product while
+            // an update is moving it within the index; skip it until it settles.
+            if (product == null || !sameKey(entry.key(), sortKey.apply(product)) || !query.matches(product)) {
+                continue;
+            }
+            if (addAndCheckFull(page, product, query)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean addAndCheckFull(List<Product> page, Product product, ProductQuery query) {
+        page.add(product);
+        return page.size() >= query.getLimit();
+    }
+
+    private static CategoryType categoryTypeOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getType() : null;
+    }
+
+    private static <K extends Comparable<? super K>> boolean sameKey(K indexed, K current) {
+        return current != null && indexed.compareTo(current) == 0;
+    }
+}
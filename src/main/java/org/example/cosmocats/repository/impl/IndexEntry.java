@@ -0,0 +1,18 @@
+package org.example.cosmocats.repository.impl;
+
+record IndexEntry<K extends Comparable<? super K>>(K key, long productId) implements Comparable<IndexEntry<K>> {
+
+    static <K extends Comparable<? super K>> IndexEntry<K> lowest(K key) {
+        return new IndexEntry<>(key, Long.MIN_VALUE);
+    }
+
+    static <K extends Comparable<? super K>> IndexEntry<K> highest(K key) {
+        return new IndexEntry<>(key, Long.MAX_VALUE);
+    }
+
+    @Override
+    public int compareTo(IndexEntry<K> other) {
+        int byKey = key.compareTo(other.key);
+        return byKey != 0 ? byKey : Long.compare(productId, other.productId);
+    }
+}
@@ -0,0 +1,248 @@
+package org.example.cosmocats.repository.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.persistence.FsyncPolicy;
+import org.example.cosmocats.persistence.ProductRecord;
+import org.example.cosmocats.persistence.ProductSnapshotStore;
+import org.example.cosmocats.persistence.ProductWriteAheadLog;
+import org.example.cosmocats.repository.ProductQuery;
+import org.example.cosmocats.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Durable decorator over the active in-memory store: every write is applied in memory
+ * and then appended to the write-ahead log, and undone again if the append
+ * fails. The catalog is periodically snapshotted so the log can be truncated.
+ * On startup the snapshot is loaded and the log replayed on top of it.
+ */
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(name = "cosmocats.persistence.enabled", havingValue = "true")
+public class JournaledProductRepository implements ProductRepository {
+
+    private static final int RESTORE_BATCH = 65_536;
+
+    private final ProductStore delegate;
+    private final ProductSnapshotStore snapshotStore;
+    private final ProductWriteAheadLog writeAheadLog;
+    private final ScheduledExecutorService snapshotScheduler;
+
+    public JournaledProductRepository(ProductStore delegate,
+                                      @Value("${cosmocats.persistence.directory:./data}") Path directory,
+                                      @Value("${cosmocats.persistence.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+                                      @Value("${cosmocats.persistence.fsync-interval-ms:100}") long fsyncIntervalMillis,
+                                      @Value("${cosmocats.persistence.snapshot-interval-ms:300000}") long snapshotIntervalMillis)
+            throws IOException {
+        this.delegate = delegate;
+        this.snapshotStore = new ProductSnapshotStore(directory);
+
+        recover(directory);
+        // Opened after recovery so the new run appends to a fresh segment.
+        this.writeAheadLog = new ProductWriteAheadLog(directory, fsyncPolicy, fsyncIntervalMillis);
+
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly,
+                snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Collection<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<Product> findById(Long productId) {
+        return delegate.findById(productId);
+    }
+
+    @Override
+    public List<Product> findByCategory(CategoryType categoryType) {
+        return delegate.findByCategory(categoryType);
+    }
+
+    @Override
+    public List<Product> findByStatus(ProductStatus productStatus) {
+        return delegate.findByStatus(productStatus);
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return delegate.findByPriceBetween(minPrice, maxPrice);
+    }
+
+    @Override
+    public Stream<Product> streamUpdatedSince(LocalDateTime updatedSince) {
+        return delegate.streamUpdatedSince(updatedSince);
+    }
+
+    @Override
+    public List<Product> findPage(ProductQuery query) {
+        return delegate.findPage(query);
+    }
+
+    @Override
+    public Product create(Product product) {
+        Product created = delegate.create(product);
+        log(() -> writeAheadLog.appendPut(created), () -> delegate.revert(created, null));
+        return created;
+    }
+
+    @Override
+    public Optional<Product> update(Long productId, UnaryOperator<Product> updater) {
+        Product[] previous = new Product[1];
+        Optional<Product> updated = delegate.update(productId, current -> {
+            previous[0] = current;
+            return updater.apply(current);
+        });
+        updated.ifPresent(product ->
+                log(() -> writeAheadLog.appendPut(product), () -> delegate.revert(product, previous[0])));
+        return updated;
+    }
+
+    @Override
+    public Product importProduct(Product product) {
+        Product imported = delegate.importProduct(product);
+        log(() -> writeAheadLog.appendPut(imported), () -> delegate.revert(imported, null));
+        return imported;
+    }
+
+    @Override
+    public Optional<Product> deleteById(Long productId) {
+        Optional<Product> removed = delegate.deleteById(productId);
+        // Ids are never reused, so any version above the last stored one
+        // outranks every record of the product during replay.
+        removed.ifPresent(product -> log(() -> writeAheadLog.appendDelete(productId, product.getVersion() + 1),
+                () -> delegate.restore(product)));
+        return removed;
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public long countByCategory(CategoryType categoryType) {
+        return delegate.countByCategory(categoryType);
+    }
+
+    @Override
+    public long catalogVersion() {
+        return delegate.catalogVersion();
+    }
+
+    /**
+     * Rolls the log, writes a snapshot and drops the segments it covers. Every
+     * write logged before the roll was applied in memory before it was logged,
+     * so the snapshot taken afterwards already contains it.
+     */
+    public void snapshot() throws IOException {
+        long segment = writeAheadLog.roll().join();
+        long nextId = delegate.peekNextId();
+        long started = System.nanoTime();
+        snapshotStore.write(segment, nextId, delegate.findAll());
+        writeAheadLog.deleteSegmentsBefore(segment);
+        log.info("Wrote snapshot of {} products in {} ms", delegate.count(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        snapshotScheduler.shutdownNow();
+        writeAheadLog.close();
+    }
+
+    /**
+     * Waits for a record to be logged. A write the log refuses is undone in
+     * memory before the failure is rethrown, so readers never see a change a
+     * restart would lose.
+     */
+    private void log(Supplier<CompletableFuture<Long>> append, Runnable revert) {
+        try {
+            append.get().join();
+        } catch (RuntimeException ex) {
+            revert.run();
+            throw ex;
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Scheduled snapshot failed; the write-ahead log keeps growing until one succeeds", ex);
+        }
+    }
+
+    private void recover(Path directory) throws IOException {
+        long started = System.nanoTime();
+        List<Product> batch = new ArrayList<>(RESTORE_BATCH);
+        ProductSnapshotStore.Header header = snapshotStore.read(product -> {
+            batch.add(product);
+            if (batch.size() == RESTORE_BATCH) {
+                restoreBatch(batch);
+            }
+        });
+        restoreBatch(batch);
+
+        long replayFrom = 0;
+        if (header != null) {
+            replayFrom = header.replayFromSegment();
+            delegate.restoreNextId(header.nextProductId());
+            delegate.restoreCatalogVersion(header.maxVersion());
+        }
+
+        // Writers append after leaving the per-product critical section, so the
+        // log may hold a product's last update after its deletion. Remembering
+        // deletions keeps such a record from resurrecting the product.
+        Map<Long, Long> tombstones = new HashMap<>();
+        long[] replayed = new long[1];
+        ProductWriteAheadLog.replay(directory, replayFrom, (ProductRecord record) -> {
+            replayed[0]++;
+            if (record.isDeletion()) {
+                tombstones.merge(record.productId(), record.version(), Math::max);
+                delegate.restoreDeletion(record.productId(), record.version());
+                return;
+            }
+            Long deletedAt = tombstones.get(record.productId());
+            if (deletedAt == null || deletedAt < record.version()) {
+                delegate.restore(record.product());
+            }
+        });
+
+        if (header != null || replayed[0] > 0) {
+            log.info("Recovered {} products from snapshot and {} log records in {} ms", delegate.count(),
+                    replayed[0], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    private void restoreBatch(List<Product> batch) {
+        batch.parallelStream().forEach(delegate::restore);
+        batch.clear();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductRepository;
+
+/**
+ * A product store that {@link JournaledProductRepository} can rebuild from a
+ * snapshot and the write-ahead log. Exactly one implementation is active,
+ * chosen by {@code cosmocats.store.mode}.
+ */
+interface ProductStore extends ProductRepository {
+
+    /**
+     * Installs a recovered product unless the store already holds the same or a
+     * newer version of it, so records can be applied in any order.
+     */
+    boolean restore(Product product);
+
+    /**
+     * Removes a recovered product if the stored copy is older than the deletion.
+     */
+    void restoreDeletion(long productId, long version);
+
+    /**
+     * Undoes a write that could not be logged: puts {@code previous} back, or
+     * removes the product if {@code previous} is null. Does nothing once a
+     * later write has replaced {@code written}.
+     */
+    void revert(Product written, Product previous);
+
+    long peekNextId();
+
+    void restoreNextId(long nextId);
+
+    void restoreCatalogVersion(long version);
+}
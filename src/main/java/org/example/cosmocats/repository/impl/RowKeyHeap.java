@@ -0,0 +1,112 @@
+package org.example.cosmocats.repository.impl;
+
+import java.util.Arrays;
+
+/**
+ * A max-heap of (key, product id) pairs in two primitive arrays, ordered by key
+ * and then id. With a bound it keeps the smallest {@code bound} pairs offered,
+ * which is how the columnar store picks a sorted page out of a column scan;
+ * without one it collects everything for a full sort.
+ */
+final class RowKeyHeap {
+
+    private final int bound;
+    private long[] keys;
+    private long[] ids;
+    private int size;
+
+    private RowKeyHeap(int bound, int initialCapacity) {
+        this.bound = bound;
+        this.keys = new long[initialCapacity];
+        this.ids = new long[initialCapacity];
+    }
+
+    static RowKeyHeap bounded(int bound) {
+        return new RowKeyHeap(bound, Math.max(1, Math.min(bound, 1024)));
+    }
+
+    static RowKeyHeap unbounded() {
+        return new RowKeyHeap(Integer.MAX_VALUE, 1024);
+    }
+
+    void offer(long key, long id) {
+        if (size < bound) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            keys[size] = key;
+            ids[size] = id;
+            siftUp(size++);
+        } else if (bound > 0 && less(key, id, keys[0], ids[0])) {
+            keys[0] = key;
+            ids[0] = id;
+            siftDown(0, size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Heap-sorts the pairs in place into ascending order; the heap is spent afterwards.
+     */
+    void sortAscending() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    long keyAt(int index) {
+        return keys[index];
+    }
+
+    long idAt(int index) {
+        return ids[index];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(keys[parent], ids[parent], keys[index], ids[index])) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int end) {
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < end && less(keys[largest], ids[largest], keys[left], ids[left])) {
+                largest = left;
+            }
+            if (right < end && less(keys[largest], ids[largest], keys[right], ids[right])) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+
+    private static boolean less(long key, long id, long otherKey, long otherId) {
+        return key < otherKey || (key == otherKey && id < otherId);
+    }
+}
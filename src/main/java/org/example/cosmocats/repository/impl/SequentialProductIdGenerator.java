@@ -0,0 +1,32 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.repository.ProductIdGenerator;
+import org.springframework.context.annotation.Fallback;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consecutive ids starting at 1, for a store that owns the whole id space.
+ */
+@Component
+@Fallback
+public class SequentialProductIdGenerator implements ProductIdGenerator {
+
+    private final AtomicLong next = new AtomicLong(1);
+
+    @Override
+    public long nextId() {
+        return next.getAndIncrement();
+    }
+
+    @Override
+    public long peekNextId() {
+        return next.get();
+    }
+
+    @Override
+    public void advanceTo(long nextId) {
+        next.accumulateAndGet(nextId, Math::max);
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.cosmocats.repository.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deduplicated, reference counted strings for {@link ColumnarProductRepository}.
+ * Each distinct value is kept once as UTF-8 bytes and addressed by an int
+ * handle, so a product row holds two ints instead of two String objects, and
+ * products sharing a name or description share its bytes. A value is dropped
+ * when the last row referencing it lets go of it.
+ * <p>
+ * Writers go through one lock. {@link #get} takes none: a handle is only read
+ * from a row the caller has validated, which keeps its reference alive.
+ */
+final class StringArena {
+
+    static final int NULL = -1;
+
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Handle-indexed; replaced wholesale when it grows, so get() needs no lock.
+    private volatile byte[][] values = new byte[INITIAL_CAPACITY][];
+
+    // Everything below is guarded by lock.
+    private int[] refCounts = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int nextHandle;
+    private int size;
+    // Open addressing with linear probing over handles, kept at most half full.
+    private int[] table = newTable(INITIAL_CAPACITY * 2);
+
+    /**
+     * Returns the handle of {@code value}, adding it if it is not stored yet,
+     * and takes one reference to it.
+     */
+    int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = spread(value.hashCode());
+        lock.lock();
+        try {
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            for (int handle = table[slot]; handle != EMPTY; handle = table[slot]) {
+                if (hashes[handle] == hash && Arrays.equals(values[handle], bytes)) {
+                    refCounts[handle]++;
+                    return handle;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int handle = allocateHandle();
+            values[handle] = bytes;
+            hashes[handle] = hash;
+            refCounts[handle] = 1;
+            table[slot] = handle;
+            if (++size * 2 > table.length) {
+                rehash(table.length * 2);
+            }
+            return handle;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops one reference taken by {@link #intern}.
+     */
+    void release(int handle) {
+        if (handle == NULL) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (--refCounts[handle] > 0) {
+                return;
+            }
+            removeFromTable(handle);
+            values[handle] = null;
+            if (freeCount == freeHandles.length) {
+                freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+            }
+            freeHandles[freeCount++] = handle;
+            size--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Decodes the value behind {@code handle}. A handle read without holding its
+     * row's lock may already be gone; the caller must validate the row before
+     * trusting the result.
+     */
+    String get(int handle) {
+        if (handle == NULL) {
+            return null;
+        }
+        byte[][] current = values;
+        byte[] bytes = handle >= 0 && handle < current.length ? current[handle] : null;
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int allocateHandle() {
+        if (freeCount > 0) {
+            return freeHandles[--freeCount];
+        }
+        if (nextHandle == values.length) {
+            int capacity = values.length * 2;
+            refCounts = Arrays.copyOf(refCounts, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        return nextHandle++;
+    }
+
+    /**
+     * Removes {@code handle} and shifts the rest of its probe run back, so
+     * lookups never need tombstones.
+     */
+    private void removeFromTable(int handle) {
+        int mask = table.length - 1;
+        int slot = hashes[handle] & mask;
+        while (table[slot] != handle) {
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hashes[table[next]] & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, next].
+            boolean homeBetween = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!homeBetween) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = newTable(capacity);
+        int mask = capacity - 1;
+        for (int handle : table) {
+            if (handle != EMPTY) {
+                int slot = hashes[handle] & mask;
+                while (rehashed[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                rehashed[slot] = handle;
+            }
+        }
+        table = rehashed;
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] newTable = new int[capacity];
+        Arrays.fill(newTable, EMPTY);
+        return newTable;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.cosmocats.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing one term, with the term's frequency in each. Doc ids
+ * are handed out in increasing order, so appending keeps the list sorted.
+ */
+final class Postings {
+
+    private int[] docs = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    void add(int doc, int frequency) {
+        if (size == docs.length) {
+            int capacity = size + (size >> 1) + 1;
+            docs = Arrays.copyOf(docs, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+        }
+        docs[size] = doc;
+        frequencies[size] = frequency;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int frequency(int index) {
+        return frequencies[index];
+    }
+
+    /**
+     * Finds {@code doc} at or after position {@code from} by galloping, which
+     * is cheap when successive lookups move forward through the list. Returns
+     * its position, or {@code -(insertionPoint) - 1} if absent.
+     */
+    int advance(int from, int doc) {
+        int low = from;
+        int bound = 1;
+        while (low + bound < size && docs[low + bound] < doc) {
+            low += bound;
+            bound <<= 1;
+        }
+        return Arrays.binarySearch(docs, low, Math.min(low + bound + 1, size), doc);
+    }
+
+    /**
+     * Drops entries whose doc maps to -1 and renumbers the rest. The mapping
+     * must preserve order, which keeps the list sorted.
+     */
+    void remap(int[] newDocIds) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int newDoc = newDocIds[docs[i]];
+            if (newDoc >= 0) {
+                docs[kept] = newDoc;
+                frequencies[kept] = frequencies[i];
+                kept++;
+            }
+        }
+        size = kept;
+        if (size < docs.length / 4) {
+            docs = Arrays.copyOf(docs, Math.max(4, size));
+            frequencies = Arrays.copyOf(frequencies, Math.max(4, size));
+        }
+    }
+}
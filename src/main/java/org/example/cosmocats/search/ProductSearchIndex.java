@@ -0,0 +1,539 @@
+package org.example.cosmocats.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names and descriptions, ranked with
+ * BM25. Each stored product version is one document with a dense int id, and
+ * every term keeps its postings in primitive int arrays.
+ * <p>
+ * The repository reports changes from inside its write path, where only a
+ * queue append happens. A background thread tokenizes the queued changes and
+ * applies them in batches, so the index trails the store by milliseconds.
+ * An update adds a new document and marks the old one dead; dead documents
+ * are compacted away once they outnumber the live ones.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements ProductChangeListener {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Name terms count twice, so a match in the name outranks one in the description.
+    private static final int NAME_WEIGHT = 2;
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final float FUZZY_WEIGHT = 0.5f;
+    private static final int MAX_PREFIX_EXPANSIONS = 16;
+    private static final int MAX_PREFIX_SCAN = 512;
+    private static final int MAX_FUZZY_EXPANSIONS = 32;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_APPLY_BATCH = 4_096;
+    private static final int MIN_DEAD_FOR_COMPACTION = 50_000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Queue<Change> pendingChanges = new ConcurrentLinkedQueue<>();
+    // Only one thread drains the queue at a time, so a product's changes are
+    // applied in the order they were committed.
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final Thread indexer;
+    private volatile boolean running = true;
+
+    // Everything below is guarded by indexLock.
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private final BitSet liveDocs = new BitSet();
+    private long[] docProductIds = new long[1024];
+    private long[] docVersions = new long[1024];
+    private int[] docLengths = new int[1024];
+    private byte[] docCategories = new byte[1024];
+    private byte[] docStatuses = new byte[1024];
+    private int nextDoc;
+    private int liveCount;
+    private long totalLength;
+
+    public ProductSearchIndex() {
+        this.indexer = new Thread(this::runIndexer, "product-search-indexer");
+        this.indexer.setDaemon(true);
+        this.indexer.start();
+    }
+
+    @Override
+    public void onProductChanged(Product previous, Product current) {
+        if (current != null) {
+            pendingChanges.add(new Change(current.getId(), current.getVersion(), current));
+        } else {
+            pendingChanges.add(new Change(previous.getId(), previous.getVersion(), null));
+        }
+        LockSupport.unpark(indexer);
+    }
+
+    /**
+     * Applies every change queued so far on the calling thread.
+     */
+    public void refresh() {
+        drainLock.lock();
+        try {
+            List<PreparedChange> batch;
+            while (!(batch = prepareBatch()).isEmpty()) {
+                indexLock.writeLock().lock();
+                try {
+                    batch.forEach(this::apply);
+                    compactIfSparse();
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    public int size() {
+        indexLock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code query.limit} products containing every query term,
+     * best match first. A query term matches exact terms, and with the query's
+     * prefix and fuzzy options also completions and near misses, which score
+     * lower than exact matches.
+     */
+    public List<SearchHit> search(SearchQuery query) {
+        List<String> tokens = SearchTokenizer.tokenize(query.text());
+        if (tokens.isEmpty() || query.limit() <= 0) {
+            return List.of();
+        }
+
+        indexLock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return List.of();
+            }
+            List<Expansion[]> expandedTokens = new ArrayList<>(tokens.size());
+            int driver = 0;
+            long driverCost = Long.MAX_VALUE;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean prefix = query.prefix() && i == tokens.size() - 1;
+                Expansion[] expansions = expand(tokens.get(i), prefix, query.fuzzy());
+                if (expansions.length == 0) {
+                    return List.of();
+                }
+                long cost = 0;
+                for (Expansion expansion : expansions) {
+                    cost += expansion.postings().size();
+                }
+                if (cost < driverCost) {
+                    driverCost = cost;
+                    driver = i;
+                }
+                expandedTokens.add(expansions);
+            }
+
+            // Walk the rarest term's documents and probe the others, so a query
+            // costs about the size of its most selective term.
+            return rank(expandedTokens, driver, query);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(indexer);
+        indexer.join();
+    }
+
+    private void runIndexer() {
+        while (running) {
+            if (pendingChanges.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                refresh();
+            } catch (RuntimeException ex) {
+                log.error("Failed to apply product changes to the search index", ex);
+            }
+        }
+    }
+
+    private List<PreparedChange> prepareBatch() {
+        List<PreparedChange> batch = new ArrayList<>();
+        Change change;
+        while (batch.size() < MAX_APPLY_BATCH && (change = pendingChanges.poll()) != null) {
+            batch.add(prepare(change));
+        }
+        return batch;
+    }
+
+    private static PreparedChange prepare(Change change) {
+        Product product = change.product();
+        if (product == null) {
+            return new PreparedChange(change, null, 0);
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : SearchTokenizer.tokenize(product.getName())) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+            length += NAME_WEIGHT;
+        }
+        for (String term : SearchTokenizer.tokenize(product.getDescription())) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+        return new PreparedChange(change, frequencies, length);
+    }
+
+    private void apply(PreparedChange prepared) {
+        Change change = prepared.change();
+        Integer existing = docByProductId.get(change.productId());
+        // Versions only grow, so a change older than the indexed document is stale.
+        if (existing != null && docVersions[existing] > change.version()) {
+            return;
+        }
+        if (change.product() == null) {
+            if (existing != null) {
+                removeDoc(existing);
+            }
+            return;
+        }
+        if (existing != null) {
+            if (docVersions[existing] == change.version()) {
+                return;
+            }
+            removeDoc(existing);
+        }
+        addDoc(change.product(), prepared.termFrequencies(), prepared.length());
+    }
+
+    private void addDoc(Product product, Map<String, Integer> termFrequencies, int length) {
+        if (nextDoc == docProductIds.length) {
+            int capacity = nextDoc * 2;
+            docProductIds = Arrays.copyOf(docProductIds, capacity);
+            docVersions = Arrays.copyOf(docVersions, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docCategories = Arrays.copyOf(docCategories, capacity);
+            docStatuses = Arrays.copyOf(docStatuses, capacity);
+        }
+        int doc = nextDoc++;
+        docProductIds[doc] = product.getId();
+        docVersions[doc] = product.getVersion();
+        docLengths[doc] = length;
+        docCategories[doc] = product.getCategory() != null && product.getCategory().getType() != null
+                ? (byte) product.getCategory().getType().ordinal() : -1;
+        docStatuses[doc] = product.getStatus() != null ? (byte) product.getStatus().ordinal() : -1;
+        termFrequencies.forEach((term, frequency) ->
+                terms.computeIfAbsent(term, ignored -> new Postings()).add(doc, frequency));
+
+        liveDocs.set(doc);
+        liveCount++;
+        totalLength += length;
+        docByProductId.put(product.getId(), doc);
+    }
+
+    private void removeDoc(int doc) {
+        liveDocs.clear(doc);
+        liveCount--;
+        totalLength -= docLengths[doc];
+        docByProductId.remove(docProductIds[doc]);
+    }
+
+    private void compactIfSparse() {
+        int dead = nextDoc - liveCount;
+        if (dead < MIN_DEAD_FOR_COMPACTION || dead < liveCount) {
+            return;
+        }
+        long started = System.nanoTime();
+        int[] newDocIds = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (!liveDocs.get(doc)) {
+                newDocIds[doc] = -1;
+                continue;
+            }
+            // New ids never exceed old ones, so moving in place is safe.
+            newDocIds[doc] = live;
+            docProductIds[live] = docProductIds[doc];
+            docVersions[live] = docVersions[doc];
+            docLengths[live] = docLengths[doc];
+            docCategories[live] = docCategories[doc];
+            docStatuses[live] = docStatuses[doc];
+            docByProductId.put(docProductIds[live], live);
+            live++;
+        }
+        terms.values().removeIf(postings -> {
+            postings.remap(newDocIds);
+            return postings.size() == 0;
+        });
+        liveDocs.clear();
+        liveDocs.set(0, live);
+        nextDoc = live;
+        log.debug("Compacted search index: dropped {} dead documents in {} ms", dead,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private Expansion[] expand(String token, boolean prefix, boolean fuzzy) {
+        Map<String, Expansion> expansions = new LinkedHashMap<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            expansions.put(token, expansion(exact, 1f));
+        }
+        if (prefix) {
+            addPrefixExpansions(token, expansions);
+        }
+        // A term found as typed is taken to be spelled right, which keeps
+        // fuzzy queries as cheap as exact ones for correctly spelled words.
+        if (fuzzy && exact == null && token.length() >= MIN_FUZZY_LENGTH) {
+            addFuzzyExpansions(token, expansions);
+        }
+        return expansions.values().toArray(Expansion[]::new);
+    }
+
+    private void addPrefixExpansions(String token, Map<String, Expansion> expansions) {
+        // Completions are ranked by document frequency, the usual proxy for
+        // what someone typing the prefix is most likely after.
+        PriorityQueue<Map.Entry<String, Postings>> mostFrequent = new PriorityQueue<>(
+                MAX_PREFIX_EXPANSIONS + 1, Comparator.comparingInt(term -> term.getValue().size()));
+        int scanned = 0;
+        for (Map.Entry<String, Postings> term
+                : terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+            if (scanned++ == MAX_PREFIX_SCAN) {
+                break;
+            }
+            mostFrequent.add(term);
+            if (mostFrequent.size() > MAX_PREFIX_EXPANSIONS) {
+                mostFrequent.poll();
+            }
+        }
+        for (Map.Entry<String, Postings> term : mostFrequent) {
+            expansions.putIfAbsent(term.getKey(), expansion(term.getValue(), PREFIX_WEIGHT));
+        }
+    }
+
+    private void addFuzzyExpansions(String token, Map<String, Expansion> expansions) {
+        // Only terms sharing the first character are scanned, which keeps the
+        // scan to a small slice of the dictionary; typos in the first letter are missed.
+        int maxEdits = token.length() >= 8 ? 2 : 1;
+        char first = token.charAt(0);
+        int added = 0;
+        for (Map.Entry<String, Postings> term
+                : terms.subMap(String.valueOf(first), true, String.valueOf((char) (first + 1)), false).entrySet()) {
+            String candidate = term.getKey();
+            if (Math.abs(candidate.length() - token.length()) > maxEdits || expansions.containsKey(candidate)) {
+                continue;
+            }
+            if (withinEditDistance(token, candidate, maxEdits)) {
+                expansions.put(candidate, expansion(term.getValue(), FUZZY_WEIGHT));
+                if (++added == MAX_FUZZY_EXPANSIONS) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private Expansion expansion(Postings postings, float weight) {
+        int documentFrequency = Math.min(postings.size(), liveCount);
+        float idf = (float) Math.log(1 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        return new Expansion(postings, weight * idf);
+    }
+
+    private static int[] candidates(Expansion[] expansions) {
+        if (expansions.length == 1) {
+            Postings postings = expansions[0].postings();
+            int[] docs = new int[postings.size()];
+            for (int i = 0; i < docs.length; i++) {
+                docs[i] = postings.doc(i);
+            }
+            return docs;
+        }
+        int total = 0;
+        for (Expansion expansion : expansions) {
+            total += expansion.postings().size();
+        }
+        int[] docs = new int[total];
+        int size = 0;
+        for (Expansion expansion : expansions) {
+            Postings postings = expansion.postings();
+            for (int i = 0; i < postings.size(); i++) {
+                docs[size++] = postings.doc(i);
+            }
+        }
+        Arrays.sort(docs);
+        int unique = 0;
+        for (int i = 0; i < docs.length; i++) {
+            if (i == 0 || docs[i] != docs[i - 1]) {
+                docs[unique++] = docs[i];
+            }
+        }
+        return Arrays.copyOf(docs, unique);
+    }
+
+    private List<SearchHit> rank(List<Expansion[]> expandedTokens, int driver, SearchQuery query) {
+        float averageLength = (float) totalLength / liveCount;
+        byte category = query.category() != null ? (byte) query.category().ordinal() : -1;
+        byte status = query.status() != null ? (byte) query.status().ordinal() : -1;
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(query.limit() + 1,
+                Comparator.comparingDouble(SearchHit::score));
+        int[][] cursors = new int[expandedTokens.size()][];
+        for (int token = 0; token < cursors.length; token++) {
+            cursors[token] = new int[expandedTokens.get(token).length];
+        }
+
+        Expansion[] driving = expandedTokens.get(driver);
+        if (driving.length == 1) {
+            // The common case: the driving term's frequency is at hand, and
+            // only the other terms need probing.
+            Expansion expansion = driving[0];
+            Postings postings = expansion.postings();
+            for (int i = 0; i < postings.size(); i++) {
+                int doc = postings.doc(i);
+                if (!accepts(doc, category, status)) {
+                    continue;
+                }
+                float lengthNorm = lengthNorm(doc, averageLength);
+                float others = scoreTokens(doc, lengthNorm, expandedTokens, driver, cursors);
+                if (others >= 0) {
+                    offer(top, query.limit(), doc,
+                            others + termScore(expansion, postings.frequency(i), lengthNorm));
+                }
+            }
+        } else {
+            for (int doc : candidates(driving)) {
+                if (!accepts(doc, category, status)) {
+                    continue;
+                }
+                float score = scoreTokens(doc, lengthNorm(doc, averageLength), expandedTokens, -1, cursors);
+                if (score >= 0) {
+                    offer(top, query.limit(), doc, score);
+                }
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                .thenComparingLong(SearchHit::productId));
+        return hits;
+    }
+
+    private boolean accepts(int doc, byte category, byte status) {
+        return liveDocs.get(doc)
+                && (category < 0 || docCategories[doc] == category)
+                && (status < 0 || docStatuses[doc] == status);
+    }
+
+    private float lengthNorm(int doc, float averageLength) {
+        return K1 * (1 - B + B * docLengths[doc] / averageLength);
+    }
+
+    private static float termScore(Expansion expansion, int frequency, float lengthNorm) {
+        return expansion.idf() * frequency * (K1 + 1) / (frequency + lengthNorm);
+    }
+
+    /**
+     * Sums the best-matching expansion of every token except {@code skip}, or
+     * returns -1 if some token does not occur in the document. Candidates come
+     * in increasing doc order, so each expansion keeps a cursor and only ever
+     * searches forward from it.
+     */
+    private static float scoreTokens(int doc, float lengthNorm, List<Expansion[]> expandedTokens,
+                                     int skip, int[][] cursors) {
+        float score = 0;
+        for (int token = 0; token < expandedTokens.size(); token++) {
+            if (token == skip) {
+                continue;
+            }
+            Expansion[] expansions = expandedTokens.get(token);
+            int[] tokenCursors = cursors[token];
+            float best = -1;
+            for (int e = 0; e < expansions.length; e++) {
+                Postings postings = expansions[e].postings();
+                int index = postings.advance(tokenCursors[e], doc);
+                if (index >= 0) {
+                    tokenCursors[e] = index;
+                    best = Math.max(best, termScore(expansions[e], postings.frequency(index), lengthNorm));
+                } else {
+                    tokenCursors[e] = -index - 1;
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private void offer(PriorityQueue<SearchHit> top, int limit, int doc, float score) {
+        if (top.size() < limit) {
+            top.add(new SearchHit(docProductIds[doc], score));
+        } else if (score > top.peek().score()) {
+            top.poll();
+            top.add(new SearchHit(docProductIds[doc], score));
+        }
+    }
+
+    /**
+     * Bounded edit distance check counting an adjacent transposition as one
+     * edit (optimal string alignment), since swapped letters are the most
+     * common typo. Gives up as soon as a whole row exceeds {@code maxEdits}.
+     */
+    private static boolean withinEditDistance(String source, String target, int maxEdits) {
+        int columns = target.length() + 1;
+        int[] beforePrevious = new int[columns];
+        int[] previous = new int[columns];
+        int[] current = new int[columns];
+        for (int j = 0; j < columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char sourceChar = source.charAt(i - 1);
+            for (int j = 1; j < columns; j++) {
+                char targetChar = target.charAt(j - 1);
+                int distance = Math.min(previous[j - 1] + (sourceChar == targetChar ? 0 : 1),
+                        Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && sourceChar == target.charAt(j - 2) && source.charAt(i - 2) == targetChar) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[columns - 1] <= maxEdits;
+    }
+
+    private record Change(long productId, long version, Product product) {
+    }
+
+    private record PreparedChange(Change change, Map<String, Integer> termFrequencies, int length) {
+    }
+
+    private record Expansion(Postings postings, float idf) {
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.cosmocats.search;
+
+public record SearchHit(long productId, float score) {
+}
@@ -0,0 +1,12 @@
+package org.example.cosmocats.search;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+
+/**
+ * @param prefix treat the last query term as a prefix, for autocomplete
+ * @param fuzzy  also match terms one or two edits away from a query term
+ */
+public record SearchQuery(String text, CategoryType category, ProductStatus status,
+                          int limit, boolean prefix, boolean fuzzy) {
+}
@@ -0,0 +1,24 @@
+package org.example.cosmocats.service;
+
+import org.example.cosmocats.dto.CartDTO;
+import org.example.cosmocats.dto.CartItemDTO;
+
+public interface CartService {
+
+    CartDTO createCart();
+
+    CartDTO getCartById(Long cartId);
+
+    /**
+     * Reserves stock for the item and adds it to the cart, extending the
+     * cart's reservation deadline.
+     */
+    CartDTO addItem(Long cartId, CartItemDTO cartItemDTO);
+
+    CartDTO removeItem(Long cartId, Long productId);
+
+    /**
+     * Drops the cart and returns everything it reserved to stock.
+     */
+    void deleteCart(Long cartId);
+}
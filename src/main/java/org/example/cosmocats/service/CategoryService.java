@@ -0,0 +1,38 @@
+package org.example.cosmocats.service;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.dto.CategoryDTO;
+
+import java.util.List;
+
+public interface CategoryService {
+
+    /**
+     * Registered categories with their product counts; the cost grows with
+     * the number of categories, not products.
+     */
+    List<CategoryDTO> listCategories();
+
+    CategoryDTO getCategoryById(Long categoryId);
+
+    /**
+     * Reopens a category that was deleted. Fails with
+     * {@link org.example.cosmocats.service.exception.CategoryAlreadyExistsException}
+     * if it is registered already.
+     */
+    CategoryDTO createCategory(CategoryDTO categoryDTO);
+
+    CategoryDTO updateCategory(Long categoryId, String description);
+
+    /**
+     * Closes a category to products. Only an empty category can be deleted.
+     */
+    void deleteCategory(Long categoryId);
+
+    /**
+     * The shared instance products of this type reference, provided the
+     * category is registered.
+     */
+    Category resolveCategory(CategoryType categoryType);
+}
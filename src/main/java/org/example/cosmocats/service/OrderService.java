@@ -0,0 +1,30 @@
+package org.example.cosmocats.service;
+
+import org.example.cosmocats.common.OrderStatus;
+import org.example.cosmocats.dto.OrderDTO;
+import org.example.cosmocats.dto.OrderPipelineStatsDTO;
+import org.example.cosmocats.dto.OrderRequestDTO;
+
+import java.time.Duration;
+
+public interface OrderService {
+
+    /**
+     * Records the order as PENDING and queues it for checkout. Fails fast with
+     * {@link org.example.cosmocats.service.exception.OrderQueueFullException}
+     * when the pipeline is saturated.
+     */
+    OrderDTO submitOrder(OrderRequestDTO orderRequestDTO);
+
+    /**
+     * Waits up to {@code timeout} for a queued order to be settled and returns
+     * its latest state, which is still PENDING if the wait timed out.
+     */
+    OrderDTO awaitOrder(Long orderId, Duration timeout);
+
+    OrderDTO getOrderById(Long orderId);
+
+    OrderDTO updateOrderStatus(Long orderId, OrderStatus orderStatus);
+
+    OrderPipelineStatsDTO getPipelineStats();
+}
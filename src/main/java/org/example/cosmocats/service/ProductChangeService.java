@@ -0,0 +1,13 @@
+package org.example.cosmocats.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ProductChangeService {
+
+    /**
+     * Streams product changes starting at {@code fromSequence}, or at the next
+     * change when it is null. A consumer whose position is no longer buffered
+     * gets a single {@code resync} event and the stream ends.
+     */
+    SseEmitter subscribe(Long fromSequence);
+}
@@ -0,0 +1,9 @@
+package org.example.cosmocats.service;
+
+import org.example.cosmocats.dto.ProductSearchRequestDTO;
+import org.example.cosmocats.dto.ProductSearchResultDTO;
+
+public interface ProductSearchService {
+
+    ProductSearchResultDTO searchProducts(ProductSearchRequestDTO searchRequest);
+}
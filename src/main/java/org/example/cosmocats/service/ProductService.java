@@ -1,18 +1,71 @@
 package org.example.cosmocats.service;
 
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
 import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductService {
 
+    int MAX_BATCH_SIZE = 50_000;
+
     List<ProductDTO> listAllProducts();
 
+    ProductPageDTO listProducts(ProductPageRequestDTO pageRequest);
+
+    Stream<ProductDTO> streamProducts(LocalDateTime updatedSince);
+
+    List<ProductDTO> findByCategory(CategoryType categoryType);
+
+    List<ProductDTO> findByStatus(ProductStatus productStatus);
+
+    List<ProductDTO> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+
     ProductDTO getProductById(Long productId);
 
+    /**
+     * The product together with the version it was read at, taken from one
+     * snapshot so that an ETag built from the version matches the body.
+     */
+    VersionedProductDTO getVersionedProduct(Long productId);
+
+    long getCatalogVersion();
+
     ProductDTO createProduct(ProductDTO productRequestDTO);
 
     ProductDTO updateProduct(Long productId, ProductDTO productRequestDTO);
 
     void deleteProduct(Long productId);
+
+    /**
+     * Atomically takes {@code quantity} units out of stock, marking the product
+     * out of stock when none are left. Fails without side effects if the
+     * product does not have that many units available.
+     */
+    ProductDTO reserveStock(Long productId, int quantity);
+
+    /**
+     * Takes as many units as are available, up to {@code maxQuantity}, in one
+     * atomic step and returns how many were taken at what price. Missing and
+     * discontinued products yield zero.
+     */
+    StockReservationDTO reserveUpTo(Long productId, int maxQuantity);
+
+    /**
+     * Returns previously reserved units to stock. A product deleted in the
+     * meantime is ignored.
+     */
+    void releaseStock(Long productId, int quantity);
+
+    ProductBatchResultDTO applyBatch(List<ProductBatchOperationDTO> operations);
 }
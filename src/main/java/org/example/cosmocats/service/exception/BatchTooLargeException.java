@@ -0,0 +1,7 @@
+package org.example.cosmocats.service.exception;
+
+public class BatchTooLargeException extends DomainException {
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
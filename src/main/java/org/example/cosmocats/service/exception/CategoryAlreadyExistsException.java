@@ -0,0 +1,7 @@
+package org.example.cosmocats.service.exception;
+
+public class CategoryAlreadyExistsException extends DomainException {
+    public CategoryAlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.cosmocats.service.exception;
+
+public class CategoryInUseException extends DomainException {
+    public CategoryInUseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.cosmocats.service.exception;
+
+public class CategoryNotFoundException extends DomainException {
+    public CategoryNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.cosmocats.service.exception;
+
+/**
+ * Base for exceptions that describe an expected outcome such as a missing id
+ * or a rejected request. They are answered with a problem response and never
+ * logged, so they skip the stack trace, which is most of their cost.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.cosmocats.service.exception;
+
+public class InvalidCursorException extends DomainException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
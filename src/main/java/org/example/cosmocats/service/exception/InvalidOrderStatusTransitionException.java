@@ -0,0 +1,7 @@
+package org.example.cosmocats.service.exception;
+
+public class InvalidOrderStatusTransitionException extends DomainException {
+    public InvalidOrderStatusTransitionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.cosmocats.service.exception;
+
+public class OrderNotFoundException extends DomainException {
+    public OrderNotFoundException(String message) {
+        super(message);
+    }
+}
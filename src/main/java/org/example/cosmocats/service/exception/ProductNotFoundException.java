@@ -1,6 +1,6 @@
 package org.example.cosmocats.service.exception;
 
-public class ProductNotFoundException extends RuntimeException {
+public class ProductNotFoundException extends DomainException {
     public ProductNotFoundException(String message) {
         super(message);
     }
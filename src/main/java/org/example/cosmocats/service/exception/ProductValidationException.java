@@ -0,0 +1,17 @@
+package org.example.cosmocats.service.exception;
+
+import lombok.Getter;
+import org.springframework.validation.FieldError;
+
+import java.util.List;
+
+@Getter
+public class ProductValidationException extends DomainException {
+
+    private final List<FieldError> fieldErrors;
+
+    public ProductValidationException(String message, List<FieldError> fieldErrors) {
+        super(message);
+        this.fieldErrors = fieldErrors;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.cosmocats.service.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ProductWriteDeadlineExceededException extends DomainException {
+
+    private final long retryAfterSeconds;
+
+    public ProductWriteDeadlineExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.cosmocats.service.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ProductWriteQueueFullException extends DomainException {
+
+    private final long retryAfterSeconds;
+
+    public ProductWriteQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
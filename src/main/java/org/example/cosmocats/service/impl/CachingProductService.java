@@ -0,0 +1,248 @@
+package org.example.cosmocats.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.changes.ProductChange;
+import org.example.cosmocats.changes.ProductChangeLog;
+import org.example.cosmocats.common.BatchOperationType;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.mapper.ProductMapper;
+import org.example.cosmocats.service.ProductService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache in front of the product service, for when reads stop
+ * being in-memory lookups. Products by id and list pages are held in Caffeine
+ * caches, which bound their size with W-TinyLFU eviction. Concurrent misses
+ * on the same key share one load, and entries read after
+ * {@code refresh-after-write} are reloaded in the background while the old
+ * value keeps being served.
+ * <p>
+ * Writes made through this service invalidate the product before returning.
+ * Writes that reach the store some other way, such as checkout, are picked up
+ * from the {@link ProductChangeLog} by a background thread; if it ever falls
+ * behind the log, the whole by-id cache is dropped. Pages are keyed by the
+ * catalog version, so any write retires every cached page.
+ * <p>
+ * Cached DTOs are mutable and shared between requests, so every read hands
+ * out a copy rather than the cached instance.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cosmocats.cache.products.enabled", havingValue = "true")
+public class CachingProductService implements ProductService {
+
+    private static final int INVALIDATION_BATCH = 1024;
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ProductService delegate;
+    private final ProductChangeLog changeLog;
+    private final ProductMapper productMapper;
+    private final LoadingCache<Long, VersionedProductDTO> products;
+    private final Cache<PageKey, ProductPageDTO> pages;
+    private final Thread invalidator;
+    private volatile boolean running = true;
+
+    public CachingProductService(@Qualifier("productServiceImpl") ProductService delegate,
+                                 ProductChangeLog changeLog, ProductMapper productMapper, MeterRegistry meterRegistry,
+                                 @Value("${cosmocats.cache.products.max-entries:100000}") long maxEntries,
+                                 @Value("${cosmocats.cache.products.max-pages:10000}") long maxPages,
+                                 @Value("${cosmocats.cache.products.refresh-after-write:30s}") Duration refreshAfterWrite,
+                                 @Value("${cosmocats.cache.products.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.delegate = delegate;
+        this.changeLog = changeLog;
+        this.productMapper = productMapper;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(delegate::getVersionedProduct);
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "product-pages");
+
+        this.invalidator = new Thread(this::followChanges, "product-cache-invalidator");
+        this.invalidator.setDaemon(true);
+        this.invalidator.start();
+    }
+
+    @Override
+    public ProductDTO getProductById(Long productId) {
+        return productMapper.copyProductDTO(products.get(productId).getProduct());
+    }
+
+    @Override
+    public VersionedProductDTO getVersionedProduct(Long productId) {
+        VersionedProductDTO cached = products.get(productId);
+        return new VersionedProductDTO(cached.getVersion(), productMapper.copyProductDTO(cached.getProduct()));
+    }
+
+    @Override
+    public ProductPageDTO listProducts(ProductPageRequestDTO pageRequest) {
+        PageKey key = new PageKey(delegate.getCatalogVersion(), pageRequest.getLimit(), pageRequest.getAfter(),
+                pageRequest.getCategory(), pageRequest.getStatus(), pageRequest.getMinPrice(),
+                pageRequest.getMaxPrice(), pageRequest.getSort());
+        ProductPageDTO cached = pages.get(key, ignored -> delegate.listProducts(pageRequest));
+        return new ProductPageDTO(cached.getItems().stream().map(productMapper::copyProductDTO).toList(),
+                cached.getNextCursor());
+    }
+
+    @Override
+    public List<ProductDTO> listAllProducts() {
+        return delegate.listAllProducts();
+    }
+
+    @Override
+    public Stream<ProductDTO> streamProducts(LocalDateTime updatedSince) {
+        return delegate.streamProducts(updatedSince);
+    }
+
+    @Override
+    public List<ProductDTO> findByCategory(CategoryType categoryType) {
+        return delegate.findByCategory(categoryType);
+    }
+
+    @Override
+    public List<ProductDTO> findByStatus(ProductStatus productStatus) {
+        return delegate.findByStatus(productStatus);
+    }
+
+    @Override
+    public List<ProductDTO> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return delegate.findByPriceBetween(minPrice, maxPrice);
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return delegate.getCatalogVersion();
+    }
+
+    @Override
+    public ProductDTO createProduct(ProductDTO productRequestDTO) {
+        return delegate.createProduct(productRequestDTO);
+    }
+
+    @Override
+    public ProductDTO updateProduct(Long productId, ProductDTO productRequestDTO) {
+        try {
+            return delegate.updateProduct(productId, productRequestDTO);
+        } finally {
+            products.invalidate(productId);
+        }
+    }
+
+    @Override
+    public void deleteProduct(Long productId) {
+        try {
+            delegate.deleteProduct(productId);
+        } finally {
+            products.invalidate(productId);
+        }
+    }
+
+    @Override
+    public ProductDTO reserveStock(Long productId, int quantity) {
+        try {
+            return delegate.reserveStock(productId, quantity);
+        } finally {
+            products.invalidate(productId);
+        }
+    }
+
+    @Override
+    public StockReservationDTO reserveUpTo(Long productId, int maxQuantity) {
+        try {
+            return delegate.reserveUpTo(productId, maxQuantity);
+        } finally {
+            products.invalidate(productId);
+        }
+    }
+
+    @Override
+    public void releaseStock(Long productId, int quantity) {
+        try {
+            delegate.releaseStock(productId, quantity);
+        } finally {
+            products.invalidate(productId);
+        }
+    }
+
+    @Override
+    public ProductBatchResultDTO applyBatch(List<ProductBatchOperationDTO> operations) {
+        try {
+            return delegate.applyBatch(operations);
+        } finally {
+            List<Long> touched = new ArrayList<>();
+            for (ProductBatchOperationDTO operation : operations) {
+                if (operation != null && operation.getId() != null && operation.getOp() != BatchOperationType.CREATE) {
+                    touched.add(operation.getId());
+                }
+            }
+            products.invalidateAll(touched);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        invalidator.interrupt();
+    }
+
+    private void followChanges() {
+        List<ProductChange> batch = new ArrayList<>(INVALIDATION_BATCH);
+        long position = changeLog.nextSequence();
+        while (running) {
+            if (!changeLog.read(position, INVALIDATION_BATCH, batch)) {
+                log.warn("Product cache fell behind the change log at sequence {}; dropping all cached products",
+                        position);
+                position = changeLog.nextSequence();
+                products.invalidateAll();
+                continue;
+            }
+            if (batch.isEmpty()) {
+                changeLog.awaitChange(position, IDLE_WAIT_NANOS);
+                continue;
+            }
+            for (ProductChange change : batch) {
+                products.invalidate(change.current() != null ? change.current().getId() : change.previous().getId());
+            }
+            position += batch.size();
+            batch.clear();
+        }
+    }
+
+    private record PageKey(long catalogVersion, Integer limit, String after, CategoryType category,
+                           ProductStatus status, BigDecimal minPrice, BigDecimal maxPrice, ProductSortField sort) {
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.cosmocats.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.domain.Cart;
+import org.example.cosmocats.dto.CartDTO;
+import org.example.cosmocats.dto.CartItemDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.mapper.CartMapper;
+import org.example.cosmocats.repository.CartRepository;
+import org.example.cosmocats.service.CartService;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.CartNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class CartServiceImpl implements CartService {
+
+    private final CartRepository cartRepository;
+    private final ProductService productService;
+    private final CartMapper cartMapper;
+    private final Duration reservationTtl;
+    private final HashedTimerWheel expirationWheel;
+
+    public CartServiceImpl(CartRepository cartRepository, ProductService productService, CartMapper cartMapper,
+                           @Value("${cosmocats.cart.reservation-ttl:15m}") Duration reservationTtl) {
+        this.cartRepository = cartRepository;
+        this.productService = productService;
+        this.cartMapper = cartMapper;
+        this.reservationTtl = reservationTtl;
+        this.expirationWheel = new HashedTimerWheel("cart-expiration", 1, TimeUnit.SECONDS, 512);
+    }
+
+    @Override
+    public CartDTO createCart() {
+        Cart cart = new Cart();
+        cart.setTotalPrice(BigDecimal.ZERO);
+        cart.setExpiresAt(LocalDateTime.now().plus(reservationTtl));
+        Cart createdCart = cartRepository.create(cart);
+        scheduleExpiration(createdCart.getId());
+        return cartMapper.convertToCartDTO(createdCart);
+    }
+
+    @Override
+    public CartDTO getCartById(Long cartId) {
+        return cartMapper.convertToCartDTO(findLiveCart(cartId));
+    }
+
+    @Override
+    public CartDTO addItem(Long cartId, CartItemDTO cartItemDTO) {
+        Long productId = cartItemDTO.getProductId();
+        int quantity = cartItemDTO.getQuantity();
+
+        // Stock is reserved before the cart is locked, so a slow product write
+        // never holds the cart's lock. If the cart has expired or been deleted
+        // by the time the reservation is recorded, the stock goes back.
+        findLiveCart(cartId);
+        ProductDTO reservedProduct = productService.reserveStock(productId, quantity);
+        Cart updatedCart;
+        try {
+            updatedCart = cartRepository.update(cartId, currentCart -> {
+                requireLive(currentCart);
+                Cart cartToUpdate = copyCart(currentCart);
+                cartToUpdate.getItems().merge(productId, quantity, Integer::sum);
+                cartToUpdate.getUnitPrices().put(productId, reservedProduct.getPrice());
+                cartToUpdate.setTotalPrice(totalPrice(cartToUpdate));
+                cartToUpdate.setExpiresAt(LocalDateTime.now().plus(reservationTtl));
+                return cartToUpdate;
+            }).orElseThrow(() -> cartNotFound(cartId));
+        } catch (RuntimeException ex) {
+            productService.releaseStock(productId, quantity);
+            throw ex;
+        }
+
+        scheduleExpiration(cartId);
+        return cartMapper.convertToCartDTO(updatedCart);
+    }
+
+    @Override
+    public CartDTO removeItem(Long cartId, Long productId) {
+        // The item leaves the cart first and its stock is released once the
+        // cart's lock is free, so the stock is never released twice.
+        int[] released = new int[1];
+        Cart updatedCart = cartRepository.update(cartId, currentCart -> {
+            requireLive(currentCart);
+            Integer reserved = currentCart.getItems().get(productId);
+            if (reserved == null) {
+                return currentCart;
+            }
+            released[0] = reserved;
+
+            Cart cartToUpdate = copyCart(currentCart);
+            cartToUpdate.getItems().remove(productId);
+            cartToUpdate.getUnitPrices().remove(productId);
+            cartToUpdate.setTotalPrice(totalPrice(cartToUpdate));
+            return cartToUpdate;
+        }).orElseThrow(() -> cartNotFound(cartId));
+
+        if (released[0] > 0) {
+            productService.releaseStock(productId, released[0]);
+        }
+        return cartMapper.convertToCartDTO(updatedCart);
+    }
+
+    @Override
+    public void deleteCart(Long cartId) {
+        Cart removedCart = cartRepository.deleteIf(cartId, cart -> true)
+                .orElseThrow(() -> cartNotFound(cartId));
+        releaseReservations(removedCart);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        expirationWheel.close();
+    }
+
+    private void scheduleExpiration(Long cartId) {
+        // Every touch schedules a fresh timeout; earlier ones find the deadline
+        // moved forward and do nothing, which is cheaper than cancelling them.
+        expirationWheel.schedule(reservationTtl.toNanos(), TimeUnit.NANOSECONDS, () -> expireCart(cartId));
+    }
+
+    private void expireCart(Long cartId) {
+        LocalDateTime now = LocalDateTime.now();
+        cartRepository.deleteIf(cartId, cart -> !cart.getExpiresAt().isAfter(now))
+                .ifPresent(expiredCart -> {
+                    releaseReservations(expiredCart);
+                    log.debug("Cart {} expired, released {} reserved products", cartId, expiredCart.getItems().size());
+                });
+    }
+
+    private void releaseReservations(Cart cart) {
+        cart.getItems().forEach(productService::releaseStock);
+    }
+
+    private Cart findLiveCart(Long cartId) {
+        Cart cart = cartRepository.findById(cartId).orElseThrow(() -> cartNotFound(cartId));
+        requireLive(cart);
+        return cart;
+    }
+
+    private static void requireLive(Cart cart) {
+        // Between its deadline and the next timer tick an expired cart is still
+        // stored, but it must already behave as gone.
+        if (!cart.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw cartNotFound(cart.getId());
+        }
+    }
+
+    private static BigDecimal totalPrice(Cart cart) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> item : cart.getItems().entrySet()) {
+            BigDecimal unitPrice = cart.getUnitPrices().get(item.getKey());
+            if (unitPrice != null) {
+                total = total.add(unitPrice.multiply(BigDecimal.valueOf(item.getValue())));
+            }
+        }
+        return total;
+    }
+
+    private static Cart copyCart(Cart cart) {
+        return new Cart(cart.getId(), new HashMap<>(cart.getItems()), new HashMap<>(cart.getUnitPrices()),
+                cart.getTotalPrice(), cart.getExpiresAt());
+    }
+
+    private static CartNotFoundException cartNotFound(Long cartId) {
+        return new CartNotFoundException(String.format("Cart not found - wrong id: %d", cartId));
+    }
+}
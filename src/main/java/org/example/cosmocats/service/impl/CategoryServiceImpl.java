@@ -0,0 +1,96 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.RegisteredCategory;
+import org.example.cosmocats.dto.CategoryDTO;
+import org.example.cosmocats.mapper.CategoryMapper;
+import org.example.cosmocats.repository.CategoryRepository;
+import org.example.cosmocats.repository.ProductRepository;
+import org.example.cosmocats.service.CategoryService;
+import org.example.cosmocats.service.exception.CategoryAlreadyExistsException;
+import org.example.cosmocats.service.exception.CategoryInUseException;
+import org.example.cosmocats.service.exception.CategoryNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class CategoryServiceImpl implements CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryMapper categoryMapper;
+
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ProductRepository productRepository,
+                               CategoryMapper categoryMapper) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryMapper = categoryMapper;
+    }
+
+    @Override
+    public List<CategoryDTO> listCategories() {
+        List<RegisteredCategory> categories = categoryRepository.findAll();
+        List<CategoryDTO> result = new ArrayList<>(categories.size());
+        for (RegisteredCategory category : categories) {
+            result.add(toDTO(category));
+        }
+        return result;
+    }
+
+    @Override
+    public CategoryDTO getCategoryById(Long categoryId) {
+        return categoryRepository.findById(categoryId)
+                .map(this::toDTO)
+                .orElseThrow(() -> notFound(categoryId));
+    }
+
+    @Override
+    public CategoryDTO createCategory(CategoryDTO categoryDTO) {
+        CategoryType categoryType = CategoryType.valueOf(categoryDTO.getType());
+        return categoryRepository.create(categoryType, categoryDTO.getDescription())
+                .map(this::toDTO)
+                .orElseThrow(() -> new CategoryAlreadyExistsException(
+                        String.format("Category %s already exists", categoryType)));
+    }
+
+    @Override
+    public CategoryDTO updateCategory(Long categoryId, String description) {
+        return categoryRepository.update(categoryId, description)
+                .map(this::toDTO)
+                .orElseThrow(() -> notFound(categoryId));
+    }
+
+    @Override
+    public void deleteCategory(Long categoryId) {
+        RegisteredCategory category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> notFound(categoryId));
+        // A product created in the category after this check keeps its
+        // category; the category is simply closed to further products.
+        long productCount = productRepository.countByCategory(category.category().getType());
+        if (productCount > 0) {
+            throw new CategoryInUseException(String.format(
+                    "Category %d still has %d products", categoryId, productCount));
+        }
+        categoryRepository.deleteById(categoryId);
+    }
+
+    @Override
+    public Category resolveCategory(CategoryType categoryType) {
+        return categoryRepository.findByType(categoryType)
+                .map(RegisteredCategory::category)
+                .orElseThrow(() -> new CategoryNotFoundException(
+                        String.format("Category %s is not registered", categoryType)));
+    }
+
+    private CategoryDTO toDTO(RegisteredCategory category) {
+        return categoryMapper.toCategoryDTO(category,
+                productRepository.countByCategory(category.category().getType()));
+    }
+
+    private static CategoryNotFoundException notFound(Long categoryId) {
+        return new CategoryNotFoundException(String.format("Category not found - wrong id: %d", categoryId));
+    }
+}
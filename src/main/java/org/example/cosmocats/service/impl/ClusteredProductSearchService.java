@@ -0,0 +1,82 @@
+package org.example.cosmocats.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.example.cosmocats.cluster.ClusterClient;
+import org.example.cosmocats.cluster.ClusterMembership;
+import org.example.cosmocats.cluster.ClusterNode;
+import org.example.cosmocats.dto.ProductSearchHitDTO;
+import org.example.cosmocats.dto.ProductSearchRequestDTO;
+import org.example.cosmocats.dto.ProductSearchResultDTO;
+import org.example.cosmocats.service.ProductSearchService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Searches every node's index at once and keeps the best hits. Scores are
+ * computed per node, against that node's share of the catalog.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusteredProductSearchService implements ProductSearchService {
+
+    private final ProductSearchServiceImpl local;
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ExecutorService scatterExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cluster-search-", 0).factory());
+
+    public ClusteredProductSearchService(ProductSearchServiceImpl local, ClusterMembership membership,
+                                         ClusterClient clusterClient) {
+        this.local = local;
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+    }
+
+    @Override
+    public ProductSearchResultDTO searchProducts(ProductSearchRequestDTO searchRequest) {
+        List<CompletableFuture<ProductSearchResultDTO>> remote = new ArrayList<>();
+        for (ClusterNode node : membership.current().members()) {
+            if (node.id() != membership.self().id()) {
+                remote.add(CompletableFuture.supplyAsync(
+                        () -> clusterClient.searchProducts(node, searchRequest), scatterExecutor));
+            }
+        }
+
+        List<ProductSearchHitDTO> hits = new ArrayList<>(searchOwned(searchRequest).getItems());
+        for (CompletableFuture<ProductSearchResultDTO> result : remote) {
+            try {
+                hits.addAll(result.join().getItems());
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+        hits.sort(Comparator.comparingDouble(ProductSearchHitDTO::getScore).reversed());
+        int limit = ProductSearchServiceImpl.limitOf(searchRequest);
+        return new ProductSearchResultDTO(hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits);
+    }
+
+    public ProductSearchResultDTO searchOwned(ProductSearchRequestDTO searchRequest) {
+        List<ProductSearchHitDTO> hits = local.searchProducts(searchRequest).getItems().stream()
+                .filter(hit -> membership.isLocal(hit.getProduct().getId()))
+                .toList();
+        return new ProductSearchResultDTO(hits);
+    }
+
+    @PreDestroy
+    public void close() {
+        scatterExecutor.shutdownNow();
+    }
+}
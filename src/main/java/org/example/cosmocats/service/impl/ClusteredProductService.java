@@ -0,0 +1,541 @@
+package org.example.cosmocats.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.example.cosmocats.cluster.ClusterClient;
+import org.example.cosmocats.cluster.ClusterMembership;
+import org.example.cosmocats.cluster.ClusterNode;
+import org.example.cosmocats.common.BatchOperationType;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.dto.ProductBatchItemResultDTO;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.ProductShardPageDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.BatchTooLargeException;
+import org.example.cosmocats.service.exception.ClusterUnavailableException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * The product catalog spread over the cluster. Each product lives on the node
+ * the hash ring assigns its id to: requests for one product are answered
+ * there, new products are created on the node that receives them, and
+ * listings ask every node and merge the answers.
+ * <p>
+ * The {@code *Owned} methods serve other nodes. They only touch products this
+ * node owns, and fail with 503 for the rest, so a request that raced a
+ * membership change is retried instead of landing on a stale copy.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "cosmocats.cluster.enabled", havingValue = "true")
+public class ClusteredProductService implements ProductService {
+
+    private static final long MOVED_RETRY_AFTER_SECONDS = 1;
+
+    private final ProductService local;
+    private final ProductServiceImpl store;
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ExecutorService scatterExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cluster-scatter-", 0).factory());
+    private final long catalogVersionTtlNanos;
+    private final AtomicBoolean refreshingCatalogVersion = new AtomicBoolean();
+    private volatile RemoteCatalogVersion remoteCatalogVersion;
+    // A kept share read before this is out of date.
+    private volatile long forwardedWriteAt = System.nanoTime();
+
+    public ClusteredProductService(ObjectProvider<CachingProductService> cachingProductService,
+                                   ProductServiceImpl productServiceImpl, ClusterMembership membership,
+                                   ClusterClient clusterClient,
+                                   @Value("${cosmocats.cluster.catalog-version-ttl:1s}") Duration catalogVersionTtl) {
+        CachingProductService caching = cachingProductService.getIfAvailable();
+        this.local = caching != null ? caching : productServiceImpl;
+        this.store = productServiceImpl;
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+        this.catalogVersionTtlNanos = catalogVersionTtl.toNanos();
+    }
+
+    @Override
+    public List<ProductDTO> listAllProducts() {
+        return gatherProducts(node -> clusterClient.findProducts(node, null, null, null, null),
+                local::listAllProducts);
+    }
+
+    /**
+     * Merges one page from every node. Each node has nothing left before its
+     * next cursor, so the merged items are complete in sort order up to the
+     * smallest of those cursors; the page stops there, which can leave it
+     * shorter than the limit.
+     */
+    @Override
+    public ProductPageDTO listProducts(ProductPageRequestDTO pageRequest) {
+        ProductSortField sort = ProductServiceImpl.sortOf(pageRequest);
+        int limit = ProductServiceImpl.limitOf(pageRequest);
+        List<ProductShardPageDTO> shards = scatter(node -> clusterClient.listShardPage(node, pageRequest),
+                () -> listOwnedPage(pageRequest));
+
+        ProductCursorCodec.Position bound = null;
+        String boundCursor = null;
+        List<PageEntry> entries = new ArrayList<>();
+        for (ProductShardPageDTO shard : shards) {
+            if (shard.getNextCursor() != null) {
+                ProductCursorCodec.Position next = ProductCursorCodec.position(sort, shard.getNextCursor());
+                if (bound == null || next.compareTo(bound) < 0) {
+                    bound = next;
+                    boundCursor = shard.getNextCursor();
+                }
+            }
+            for (int i = 0; i < shard.getItems().size(); i++) {
+                String cursor = shard.getCursors().get(i);
+                entries.add(new PageEntry(ProductCursorCodec.position(sort, cursor), cursor, shard.getItems().get(i)));
+            }
+        }
+        entries.sort(Comparator.comparing(PageEntry::position));
+
+        List<ProductDTO> items = new ArrayList<>(Math.min(limit, entries.size()));
+        String lastCursor = null;
+        boolean hasMore = bound != null;
+        for (PageEntry entry : entries) {
+            if (items.size() == limit || (bound != null && entry.position().compareTo(bound) > 0)) {
+                hasMore = true;
+                break;
+            }
+            items.add(entry.product());
+            lastCursor = entry.cursor();
+        }
+        String nextCursor = !hasMore ? null : lastCursor != null ? lastCursor : boundCursor;
+        return new ProductPageDTO(items, nextCursor);
+    }
+
+    /**
+     * This node's products followed by every other node's, each node in its
+     * own order. Other nodes are only contacted once the stream reaches them.
+     */
+    @Override
+    public Stream<ProductDTO> streamProducts(LocalDateTime updatedSince) {
+        return membership.current().members().stream()
+                .flatMap(node -> isSelf(node)
+                        ? streamOwnedProducts(updatedSince)
+                        : clusterClient.exportProducts(node, updatedSince));
+    }
+
+    @Override
+    public List<ProductDTO> findByCategory(CategoryType categoryType) {
+        return gatherProducts(node -> clusterClient.findProducts(node, categoryType, null, null, null),
+                () -> local.findByCategory(categoryType));
+    }
+
+    @Override
+    public List<ProductDTO> findByStatus(ProductStatus productStatus) {
+        return gatherProducts(node -> clusterClient.findProducts(node, null, productStatus, null, null),
+                () -> local.findByStatus(productStatus));
+    }
+
+    @Override
+    public List<ProductDTO> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return gatherProducts(node -> clusterClient.findProducts(node, null, null, minPrice, maxPrice),
+                () -> local.findByPriceBetween(minPrice, maxPrice));
+    }
+
+    @Override
+    public ProductDTO getProductById(Long productId) {
+        ClusterNode owner = membership.ownerOf(productId);
+        return isSelf(owner)
+                ? local.getProductById(productId)
+                : clusterClient.getProduct(owner, productId).getProduct();
+    }
+
+    @Override
+    public VersionedProductDTO getVersionedProduct(Long productId) {
+        ClusterNode owner = membership.ownerOf(productId);
+        return isSelf(owner)
+                ? local.getVersionedProduct(productId)
+                : clusterClient.getProduct(owner, productId);
+    }
+
+    /**
+     * The sum of every node's catalog version. Each of them only grows, so
+     * the sum changes whenever any node's catalog does.
+     * <p>
+     * Every listing asks for it before anything else, so the other nodes'
+     * share is kept for {@code catalog-version-ttl} rather than fetched each
+     * time. This node's share is always current, and writes forwarded from
+     * here drop the kept share, so a client only sees the other nodes'
+     * changes late when they were made through another node.
+     */
+    @Override
+    public long getCatalogVersion() {
+        long epoch = membership.current().epoch();
+        RemoteCatalogVersion remote = remoteCatalogVersion;
+        boolean usable = remote != null && remote.epoch() == epoch && remote.readAt() - forwardedWriteAt > 0;
+        if (!usable || System.nanoTime() - remote.readAt() > catalogVersionTtlNanos) {
+            // One caller refreshes; the others keep using the kept share meanwhile if there is one.
+            if (refreshingCatalogVersion.compareAndSet(false, true)) {
+                try {
+                    remote = readRemoteCatalogVersion(epoch);
+                    remoteCatalogVersion = remote;
+                } finally {
+                    refreshingCatalogVersion.set(false);
+                }
+            } else if (!usable) {
+                remote = readRemoteCatalogVersion(epoch);
+            }
+        }
+        return remote.sum() + local.getCatalogVersion();
+    }
+
+    @Override
+    public ProductDTO createProduct(ProductDTO productRequestDTO) {
+        // The id generator only hands out ids that stay on this node.
+        Lock lock = membership.lockForCreate();
+        try {
+            return local.createProduct(productRequestDTO);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ProductDTO updateProduct(Long productId, ProductDTO productRequestDTO) {
+        ClusterNode owner = membership.ownerOf(productId);
+        if (isSelf(owner)) {
+            return updateOwned(productId, productRequestDTO);
+        }
+        try {
+            return clusterClient.updateProduct(owner, productId, productRequestDTO);
+        } finally {
+            forwardedWriteAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void deleteProduct(Long productId) {
+        ClusterNode owner = membership.ownerOf(productId);
+        if (isSelf(owner)) {
+            deleteOwned(productId);
+        } else {
+            try {
+                clusterClient.deleteProduct(owner, productId);
+            } finally {
+                forwardedWriteAt = System.nanoTime();
+            }
+        }
+    }
+
+    @Override
+    public ProductDTO reserveStock(Long productId, int quantity) {
+        ClusterNode owner = membership.ownerOf(productId);
+        if (isSelf(owner)) {
+            return reserveStockOwned(productId, quantity);
+        }
+        try {
+            return clusterClient.reserveStock(owner, productId, quantity);
+        } finally {
+            forwardedWriteAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public StockReservationDTO reserveUpTo(Long productId, int maxQuantity) {
+        ClusterNode owner = membership.ownerOf(productId);
+        if (isSelf(owner)) {
+            return reserveUpToOwned(productId, maxQuantity);
+        }
+        try {
+            return clusterClient.reserveUpTo(owner, productId, maxQuantity);
+        } finally {
+            forwardedWriteAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void releaseStock(Long productId, int quantity) {
+        ClusterNode owner = membership.ownerOf(productId);
+        if (isSelf(owner)) {
+            releaseStockOwned(productId, quantity);
+        } else {
+            try {
+                clusterClient.releaseStock(owner, productId, quantity);
+            } finally {
+                forwardedWriteAt = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Splits the batch by owner and applies the parts on their nodes at the
+     * same time. Creates and operations without an id stay here. A node that
+     * cannot be reached fails its own operations, not the whole batch.
+     */
+    @Override
+    public ProductBatchResultDTO applyBatch(List<ProductBatchOperationDTO> operations) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException(
+                    String.format("Batch of %d operations exceeds the limit of %d", operations.size(), MAX_BATCH_SIZE));
+        }
+
+        Map<ClusterNode, List<Integer>> indexesByNode = new LinkedHashMap<>();
+        for (int index = 0; index < operations.size(); index++) {
+            ProductBatchOperationDTO operation = operations.get(index);
+            ClusterNode node = operation.getOp() == null || operation.getOp() == BatchOperationType.CREATE
+                    || operation.getId() == null
+                    ? membership.self()
+                    : membership.ownerOf(operation.getId());
+            indexesByNode.computeIfAbsent(node, ignored -> new ArrayList<>()).add(index);
+        }
+
+        Map<ClusterNode, CompletableFuture<ProductBatchResultDTO>> parts = new LinkedHashMap<>();
+        indexesByNode.forEach((node, indexes) -> {
+            List<ProductBatchOperationDTO> part = indexes.stream().map(operations::get).toList();
+            parts.put(node, isSelf(node)
+                    ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.supplyAsync(() -> clusterClient.applyBatch(node, part), scatterExecutor));
+        });
+
+        ProductBatchItemResultDTO[] results = new ProductBatchItemResultDTO[operations.size()];
+        for (Map.Entry<ClusterNode, List<Integer>> entry : indexesByNode.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            List<ProductBatchItemResultDTO> partResults;
+            try {
+                partResults = isSelf(entry.getKey())
+                        ? applyBatchOwned(indexes.stream().map(operations::get).toList()).getResults()
+                        : gather(parts.get(entry.getKey())).getResults();
+            } catch (ClusterUnavailableException ex) {
+                for (int index : indexes) {
+                    results[index] = ProductBatchItemResultDTO.failure(index, operations.get(index).getId(),
+                            Map.of("id", ex.getMessage()));
+                }
+                continue;
+            }
+            for (ProductBatchItemResultDTO result : partResults) {
+                int index = indexes.get(result.getIndex());
+                results[index] = new ProductBatchItemResultDTO(index, result.getId(), result.getErrors());
+            }
+        }
+        if (indexesByNode.keySet().stream().anyMatch(node -> !isSelf(node))) {
+            forwardedWriteAt = System.nanoTime();
+        }
+        return toBatchResult(results);
+    }
+
+    public VersionedProductDTO getOwnedProduct(long productId) {
+        requireOwned(productId);
+        return local.getVersionedProduct(productId);
+    }
+
+    public ProductDTO updateOwned(long productId, ProductDTO productRequestDTO) {
+        return writeOwned(productId, () -> local.updateProduct(productId, productRequestDTO));
+    }
+
+    public void deleteOwned(long productId) {
+        writeOwned(productId, () -> {
+            local.deleteProduct(productId);
+            return null;
+        });
+    }
+
+    public ProductDTO reserveStockOwned(long productId, int quantity) {
+        return writeOwned(productId, () -> local.reserveStock(productId, quantity));
+    }
+
+    public StockReservationDTO reserveUpToOwned(long productId, int maxQuantity) {
+        return writeOwned(productId, () -> local.reserveUpTo(productId, maxQuantity));
+    }
+
+    public void releaseStockOwned(long productId, int quantity) {
+        writeOwned(productId, () -> {
+            local.releaseStock(productId, quantity);
+            return null;
+        });
+    }
+
+    /**
+     * Applies the operations on products this node can write; the others fail
+     * individually with a hint to retry.
+     */
+    public ProductBatchResultDTO applyBatchOwned(List<ProductBatchOperationDTO> operations) {
+        ProductBatchItemResultDTO[] results = new ProductBatchItemResultDTO[operations.size()];
+        List<Integer> accepted = new ArrayList<>(operations.size());
+        Lock lock = membership.lockForCreate();
+        try {
+            for (int index = 0; index < operations.size(); index++) {
+                ProductBatchOperationDTO operation = operations.get(index);
+                if (operation.getOp() != null && operation.getOp() != BatchOperationType.CREATE
+                        && operation.getId() != null && !membership.isWritable(operation.getId())) {
+                    results[index] = ProductBatchItemResultDTO.failure(index, operation.getId(), Map.of("id",
+                            String.format("Product %d is moving between nodes, retry shortly", operation.getId())));
+                } else {
+                    accepted.add(index);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                ProductBatchResultDTO applied = local.applyBatch(accepted.stream().map(operations::get).toList());
+                for (ProductBatchItemResultDTO result : applied.getResults()) {
+                    int index = accepted.get(result.getIndex());
+                    results[index] = new ProductBatchItemResultDTO(index, result.getId(), result.getErrors());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return toBatchResult(results);
+    }
+
+    public ProductShardPageDTO listOwnedPage(ProductPageRequestDTO pageRequest) {
+        return store.listShardPage(pageRequest, membership::isLocal);
+    }
+
+    /**
+     * The products this node owns, narrowed by at most one of the filters.
+     */
+    public List<ProductDTO> findOwnedProducts(CategoryType category, ProductStatus status,
+                                              BigDecimal minPrice, BigDecimal maxPrice) {
+        List<ProductDTO> products;
+        if (category != null) {
+            products = local.findByCategory(category);
+        } else if (status != null) {
+            products = local.findByStatus(status);
+        } else if (minPrice != null && maxPrice != null) {
+            products = local.findByPriceBetween(minPrice, maxPrice);
+        } else {
+            products = local.listAllProducts();
+        }
+        return owned(products);
+    }
+
+    public Stream<ProductDTO> streamOwnedProducts(LocalDateTime updatedSince) {
+        return local.streamProducts(updatedSince).filter(product -> membership.isLocal(product.getId()));
+    }
+
+    public long getOwnedCatalogVersion() {
+        return local.getCatalogVersion();
+    }
+
+    @PreDestroy
+    public void close() {
+        scatterExecutor.shutdownNow();
+    }
+
+    private <T> T writeOwned(long productId, Supplier<T> write) {
+        Lock lock = membership.lockForWrite(productId);
+        try {
+            requireOwned(productId);
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requireOwned(long productId) {
+        if (!membership.isLocal(productId)) {
+            throw new ClusterUnavailableException(String.format(
+                    "Product %d has moved to node %d", productId, membership.ownerOf(productId).id()),
+                    MOVED_RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private RemoteCatalogVersion readRemoteCatalogVersion(long epoch) {
+        long readAt = System.nanoTime();
+        long sum = 0;
+        for (long nodeVersion : scatter(clusterClient::getCatalogVersion, () -> 0L)) {
+            sum += nodeVersion;
+        }
+        return new RemoteCatalogVersion(epoch, sum, readAt);
+    }
+
+    private boolean isSelf(ClusterNode node) {
+        return node.id() == membership.self().id();
+    }
+
+    private List<ProductDTO> owned(List<ProductDTO> products) {
+        // Until a membership change is committed, copies of products moving
+        // here sit next to the products still owned.
+        return products.stream().filter(product -> membership.isLocal(product.getId())).toList();
+    }
+
+    private List<ProductDTO> gatherProducts(Function<ClusterNode, List<ProductDTO>> remote,
+                                            Supplier<List<ProductDTO>> own) {
+        List<ProductDTO> products = new ArrayList<>();
+        for (List<ProductDTO> part : scatter(remote, () -> owned(own.get()))) {
+            products.addAll(part);
+        }
+        products.sort(Comparator.comparing(ProductDTO::getId));
+        return products;
+    }
+
+    /**
+     * Asks every member at once and returns the answers in member order. This
+     * node's part runs on the calling thread while the others are in flight.
+     */
+    private <T> List<T> scatter(Function<ClusterNode, T> remote, Supplier<T> own) {
+        List<ClusterNode> members = membership.current().members();
+        List<CompletableFuture<T>> pending = new ArrayList<>(members.size());
+        for (ClusterNode node : members) {
+            pending.add(isSelf(node) ? null : CompletableFuture.supplyAsync(() -> remote.apply(node), scatterExecutor));
+        }
+        T ownResult = own.get();
+        List<T> results = new ArrayList<>(members.size());
+        for (CompletableFuture<T> result : pending) {
+            results.add(result == null ? ownResult : gather(result));
+        }
+        return results;
+    }
+
+    private static <T> T gather(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static ProductBatchResultDTO toBatchResult(ProductBatchItemResultDTO[] results) {
+        int failed = 0;
+        for (ProductBatchItemResultDTO result : results) {
+            if (result.getErrors() != null) {
+                failed++;
+            }
+        }
+        return new ProductBatchResultDTO(results.length - failed, failed, Arrays.asList(results));
+    }
+
+    private record PageEntry(ProductCursorCodec.Position position, String cursor, ProductDTO product) {
+    }
+
+    private record RemoteCatalogVersion(long epoch, long sum, long readAt) {
+    }
+}
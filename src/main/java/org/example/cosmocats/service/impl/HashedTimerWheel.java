@@ -0,0 +1,110 @@
+package org.example.cosmocats.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel: scheduling is a lock-free enqueue and each tick only
+ * visits one bucket, so millions of pending timeouts cost nothing until they
+ * are due. Timeouts fire up to one tick late, on the wheel's own thread.
+ */
+@Slf4j
+final class HashedTimerWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+
+    private long tick;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    HashedTimerWheel(String name, long tickDuration, TimeUnit unit, int bucketCount) {
+        if (Integer.bitCount(bucketCount) != 1) {
+            throw new IllegalArgumentException("Bucket count must be a power of two: " + bucketCount);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = bucketCount - 1;
+        this.buckets = new ArrayDeque[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    void schedule(long delay, TimeUnit unit, Runnable task) {
+        pending.add(new Timeout(System.nanoTime() - startNanos + unit.toNanos(delay), task));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+                continue;
+            }
+            transferPending();
+            expire(buckets[(int) (tick & mask)], deadline);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        // Buckets are only touched by the worker thread, so they need no locking.
+        for (Timeout timeout; (timeout = pending.poll()) != null; ) {
+            long dueTick = Math.max(timeout.deadlineNanos / tickNanos, tick);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket, long tickDeadline) {
+        Iterator<Timeout> timeouts = bucket.iterator();
+        while (timeouts.hasNext()) {
+            Timeout timeout = timeouts.next();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                continue;
+            }
+            if (timeout.deadlineNanos > tickDeadline) {
+                continue;
+            }
+            timeouts.remove();
+            try {
+                timeout.task.run();
+            } catch (RuntimeException ex) {
+                log.error("Timer task failed", ex);
+            }
+        }
+    }
+
+    private static final class Timeout {
+        final long deadlineNanos;
+        final Runnable task;
+        long remainingRounds;
+
+        Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+    }
+}
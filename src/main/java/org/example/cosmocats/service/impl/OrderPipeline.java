@@ -0,0 +1,226 @@
+package org.example.cosmocats.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.common.OrderStatus;
+import org.example.cosmocats.domain.Order;
+import org.example.cosmocats.domain.OrderItem;
+import org.example.cosmocats.dto.OrderPipelineStatsDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.repository.OrderRepository;
+import org.example.cosmocats.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Checkout pipeline: orders wait in a bounded queue and a single stage
+ * settles them in batches. Stock for a batch is taken with one atomic
+ * decrement per distinct product instead of one per order line, then
+ * handed out to the batch's orders first come, first served. An order that
+ * cannot be settled is cancelled rather than left pending, and stock the
+ * batch took but did not hand out is always released.
+ */
+@Slf4j
+@Component
+public class OrderPipeline {
+
+    private final BlockingQueue<PendingOrder> queue;
+    private final int maxBatchSize;
+    private final OrderRepository orderRepository;
+    private final ProductService productService;
+    private final Thread batcher;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong processedOrders = new AtomicLong();
+    private final AtomicLong rejectedOrders = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile boolean running = true;
+
+    public OrderPipeline(OrderRepository orderRepository, ProductService productService,
+                         @Value("${cosmocats.orders.queue-capacity:10000}") int queueCapacity,
+                         @Value("${cosmocats.orders.max-batch-size:512}") int maxBatchSize) {
+        this.orderRepository = orderRepository;
+        this.productService = productService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.batcher = new Thread(this::run, "order-pipeline");
+        this.batcher.setDaemon(true);
+        this.batcher.start();
+    }
+
+    /**
+     * Queues a pending order without blocking. Returns null when the queue is
+     * full, so the caller can shed load instead of parking a request thread.
+     */
+    public CompletableFuture<Order> submit(Order pendingOrder) {
+        PendingOrder pending = new PendingOrder(pendingOrder, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            rejectedOrders.incrementAndGet();
+            return null;
+        }
+        return pending.completion();
+    }
+
+    public OrderPipelineStatsDTO getStats() {
+        long batchCount = batches.get();
+        long processed = processedOrders.get();
+        return new OrderPipelineStatsDTO(queue.size(), queue.size() + queue.remainingCapacity(),
+                batchCount, processed, rejectedOrders.get(), lastBatchSize,
+                batchCount == 0 ? 0 : (double) processed / batchCount);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        batcher.interrupt();
+        batcher.join();
+    }
+
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            try {
+                settle(batch);
+            } catch (RuntimeException ex) {
+                log.error("Failed to settle a batch of {} orders", batch.size(), ex);
+                batch.stream().filter(pending -> !pending.completion().isDone()).forEach(pending -> fail(pending, ex));
+            }
+            lastBatchSize = batch.size();
+            batches.incrementAndGet();
+            processedOrders.addAndGet(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void settle(List<PendingOrder> batch) {
+        Map<Long, Integer> demand = new LinkedHashMap<>();
+        for (PendingOrder pending : batch) {
+            for (OrderItem item : pending.order().getItems()) {
+                demand.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+
+        // Whatever happens below, stock the batch took and did not hand out goes back.
+        Map<Long, Integer> granted = new HashMap<>();
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        Set<Long> unreserved = new HashSet<>();
+        try {
+            demand.forEach((productId, quantity) -> {
+                try {
+                    StockReservationDTO reservation = productService.reserveUpTo(productId, quantity);
+                    if (reservation.getQuantity() > 0) {
+                        granted.put(productId, reservation.getQuantity());
+                        prices.put(productId, reservation.getUnitPrice());
+                    }
+                } catch (RuntimeException ex) {
+                    // Only the orders for this product fail; the rest of the batch goes ahead.
+                    log.warn("Could not reserve product {} for a batch of orders", productId, ex);
+                    unreserved.add(productId);
+                }
+            });
+
+            for (PendingOrder pending : batch) {
+                try {
+                    pending.completion().complete(settle(pending.order(), granted, prices, unreserved));
+                } catch (RuntimeException ex) {
+                    log.error("Failed to settle order {}", pending.order().getId(), ex);
+                    fail(pending, ex);
+                }
+            }
+        } finally {
+            granted.forEach(this::releaseLeftover);
+        }
+    }
+
+    private Order settle(Order order, Map<Long, Integer> granted, Map<Long, BigDecimal> prices, Set<Long> unreserved) {
+        Long missingProductId = firstUnfilledItem(order, granted);
+        if (missingProductId == null) {
+            return confirm(order, granted, prices);
+        }
+        return cancel(order, String.format(unreserved.contains(missingProductId)
+                ? "Could not reserve product %d" : "Insufficient stock for product %d", missingProductId));
+    }
+
+    /**
+     * Cancels an order that could not be settled, so it does not stay pending
+     * forever, and fails its completion if even that is impossible.
+     */
+    private void fail(PendingOrder pending, RuntimeException cause) {
+        try {
+            pending.completion().complete(cancel(pending.order(), "Order could not be settled"));
+        } catch (RuntimeException ex) {
+            cause.addSuppressed(ex);
+            pending.completion().completeExceptionally(cause);
+        }
+    }
+
+    private void releaseLeftover(Long productId, Integer leftover) {
+        if (leftover <= 0) {
+            return;
+        }
+        try {
+            productService.releaseStock(productId, leftover);
+        } catch (RuntimeException ex) {
+            log.error("Failed to release {} units of product {} left over from a batch", leftover, productId, ex);
+        }
+    }
+
+    private static Long firstUnfilledItem(Order order, Map<Long, Integer> granted) {
+        for (OrderItem item : order.getItems()) {
+            if (granted.getOrDefault(item.getProductId(), 0) < item.getQuantity()) {
+                return item.getProductId();
+            }
+        }
+        return null;
+    }
+
+    private Order confirm(Order order, Map<Long, Integer> granted, Map<Long, BigDecimal> prices) {
+        List<OrderItem> pricedItems = new ArrayList<>(order.getItems().size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            BigDecimal unitPrice = prices.get(item.getProductId());
+            pricedItems.add(new OrderItem(item.getProductId(), item.getQuantity(), unitPrice));
+            if (unitPrice != null) {
+                total = total.add(unitPrice.multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+        }
+        BigDecimal totalAmount = total;
+        Order confirmed = transition(order, OrderStatus.CONFIRMED, settled -> {
+            settled.setItems(pricedItems);
+            settled.setTotalAmount(totalAmount);
+        });
+        // Handed out only once confirmed, so the stock of a failed confirmation is released.
+        order.getItems().forEach(item -> granted.merge(item.getProductId(), -item.getQuantity(), Integer::sum));
+        return confirmed;
+    }
+
+    private Order cancel(Order order, String reason) {
+        return transition(order, OrderStatus.CANCELLED, settled -> settled.setFailureReason(reason));
+    }
+
+    private Order transition(Order order, OrderStatus status, Consumer<Order> changes) {
+        return orderRepository.update(order.getId(), current -> {
+            Order next = new Order(current.getId(), current.getItems(), current.getTotalAmount(),
+                    status, current.getOrderDate(), current.getFailureReason());
+            changes.accept(next);
+            return next;
+        }).orElse(order);
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<Order> completion) {
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.common.OrderStatus;
+import org.example.cosmocats.domain.Order;
+import org.example.cosmocats.domain.OrderItem;
+import org.example.cosmocats.dto.OrderDTO;
+import org.example.cosmocats.dto.OrderItemDTO;
+import org.example.cosmocats.dto.OrderPipelineStatsDTO;
+import org.example.cosmocats.dto.OrderRequestDTO;
+import org.example.cosmocats.mapper.OrderMapper;
+import org.example.cosmocats.repository.OrderRepository;
+import org.example.cosmocats.service.OrderService;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.InvalidOrderStatusTransitionException;
+import org.example.cosmocats.service.exception.OrderNotFoundException;
+import org.example.cosmocats.service.exception.OrderQueueFullException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class OrderServiceImpl implements OrderService {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final OrderRepository orderRepository;
+    private final OrderPipeline orderPipeline;
+    private final ProductService productService;
+    private final OrderMapper orderMapper;
+    private final ConcurrentMap<Long, CompletableFuture<Order>> inFlight = new ConcurrentHashMap<>();
+
+    public OrderServiceImpl(OrderRepository orderRepository, OrderPipeline orderPipeline,
+                            ProductService productService, OrderMapper orderMapper) {
+        this.orderRepository = orderRepository;
+        this.orderPipeline = orderPipeline;
+        this.productService = productService;
+        this.orderMapper = orderMapper;
+    }
+
+    @Override
+    public OrderDTO submitOrder(OrderRequestDTO orderRequestDTO) {
+        // Repeated lines for the same product are merged so each order asks
+        // for a product's stock only once.
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemDTO item : orderRequestDTO.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        List<OrderItem> items = quantities.entrySet().stream()
+                .map(item -> new OrderItem(item.getKey(), item.getValue(), null))
+                .toList();
+
+        Order order = new Order();
+        order.setItems(items);
+        order.setStatus(OrderStatus.PENDING);
+        order.setOrderDate(LocalDateTime.now());
+        Order pendingOrder = orderRepository.create(order);
+
+        CompletableFuture<Order> completion = orderPipeline.submit(pendingOrder);
+        if (completion == null) {
+            orderRepository.deleteById(pendingOrder.getId());
+            throw new OrderQueueFullException("Checkout is at capacity, please retry shortly", RETRY_AFTER_SECONDS);
+        }
+        inFlight.put(pendingOrder.getId(), completion);
+        completion.whenComplete((settled, failure) -> inFlight.remove(pendingOrder.getId()));
+        return orderMapper.convertToOrderDTO(pendingOrder);
+    }
+
+    @Override
+    public OrderDTO awaitOrder(Long orderId, Duration timeout) {
+        CompletableFuture<Order> completion = inFlight.get(orderId);
+        if (completion != null) {
+            try {
+                return orderMapper.convertToOrderDTO(completion.get(timeout.toNanos(), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException | ExecutionException ex) {
+                // Fall through to whatever state the order has reached.
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return getOrderById(orderId);
+    }
+
+    @Override
+    public OrderDTO getOrderById(Long orderId) {
+        return orderMapper.convertToOrderDTO(findOrder(orderId));
+    }
+
+    @Override
+    public OrderDTO updateOrderStatus(Long orderId, OrderStatus orderStatus) {
+        OrderStatus[] previousStatus = new OrderStatus[1];
+        Order updatedOrder = orderRepository.update(orderId, currentOrder -> {
+            OrderStatus currentStatus = currentOrder.getStatus();
+            // PENDING orders belong to the checkout pipeline until it settles them.
+            if (currentStatus == OrderStatus.PENDING || !currentStatus.canTransitionTo(orderStatus)) {
+                throw new InvalidOrderStatusTransitionException(String.format(
+                        "Order %d cannot move from %s to %s", orderId, currentStatus, orderStatus));
+            }
+            previousStatus[0] = currentStatus;
+            return new Order(currentOrder.getId(), currentOrder.getItems(), currentOrder.getTotalAmount(),
+                    orderStatus, currentOrder.getOrderDate(), currentOrder.getFailureReason());
+        }).orElseThrow(() -> orderNotFound(orderId));
+
+        if (orderStatus == OrderStatus.CANCELLED && previousStatus[0] == OrderStatus.CONFIRMED) {
+            updatedOrder.getItems().forEach(item -> productService.releaseStock(item.getProductId(), item.getQuantity()));
+        }
+        return orderMapper.convertToOrderDTO(updatedOrder);
+    }
+
+    @Override
+    public OrderPipelineStatsDTO getPipelineStats() {
+        return orderPipeline.getStats();
+    }
+
+    private Order findOrder(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow(() -> orderNotFound(orderId));
+    }
+
+    private static OrderNotFoundException orderNotFound(Long orderId) {
+        return new OrderNotFoundException(String.format("Order not found - wrong id: %d", orderId));
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.cosmocats.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.changes.ProductChange;
+import org.example.cosmocats.changes.ProductChangeLog;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.dto.ProductChangeEventDTO;
+import org.example.cosmocats.dto.ProductChangeResyncDTO;
+import org.example.cosmocats.mapper.ProductMapper;
+import org.example.cosmocats.service.ProductChangeService;
+import org.example.cosmocats.service.exception.TooManySubscribersException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Serves the change log over Server-Sent Events. Each subscriber is driven by
+ * its own virtual thread that reads from its position in the log and blocks
+ * on the socket when the client reads slowly. That backpressure stops at the
+ * subscriber: writers keep filling the ring, and a subscriber that falls a
+ * whole ring behind is sent a {@code resync} event and disconnected.
+ */
+@Slf4j
+@Service
+public class ProductChangeServiceImpl implements ProductChangeService {
+
+    private static final int MAX_EVENTS_PER_WRITE = 256;
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final ProductChangeLog changeLog;
+    private final ProductMapper productMapper;
+    private final int maxSubscribers;
+    private final long heartbeatNanos;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong subscriberIds = new AtomicLong();
+
+    public ProductChangeServiceImpl(ProductChangeLog changeLog, ProductMapper productMapper,
+                                    @Value("${cosmocats.changes.max-subscribers:1000}") int maxSubscribers,
+                                    @Value("${cosmocats.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.changeLog = changeLog;
+        this.productMapper = productMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long fromSequence) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new TooManySubscribersException(String.format(
+                    "The change stream is serving its limit of %d subscribers", maxSubscribers), RETRY_AFTER_SECONDS);
+        }
+
+        long start = fromSequence != null ? fromSequence : changeLog.nextSequence();
+        SseEmitter emitter = new SseEmitter();
+        Subscription subscription = new Subscription(emitter, start);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        Thread.ofVirtual()
+                .name("product-changes-" + subscriberIds.incrementAndGet())
+                .start(subscription);
+        return emitter;
+    }
+
+    private ProductChangeEventDTO toEvent(ProductChange change) {
+        Product subject = change.current() != null ? change.current() : change.previous();
+        return new ProductChangeEventDTO(
+                change.sequence(),
+                change.type().name(),
+                subject.getId(),
+                subject.getVersion(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(change.timestampMillis()), ZoneId.systemDefault()),
+                change.previous() != null ? productMapper.convertToProductDTO(change.previous()) : null,
+                change.current() != null ? productMapper.convertToProductDTO(change.current()) : null);
+    }
+
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+        private final List<ProductChange> batch = new ArrayList<>(MAX_EVENTS_PER_WRITE);
+        private volatile boolean open = true;
+        private volatile Thread thread;
+        private long position;
+
+        Subscription(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                long lastWrite = System.nanoTime();
+                while (open) {
+                    if (!changeLog.read(position, MAX_EVENTS_PER_WRITE, batch)) {
+                        emitter.send(SseEmitter.event()
+                                .name("resync")
+                                .data(new ProductChangeResyncDTO(position, changeLog.oldestSequence(),
+                                        changeLog.nextSequence()), MediaType.APPLICATION_JSON));
+                        emitter.complete();
+                        return;
+                    }
+                    if (batch.isEmpty()) {
+                        long waitNanos = heartbeatNanos - (System.nanoTime() - lastWrite);
+                        if (waitNanos <= 0) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                            lastWrite = System.nanoTime();
+                        } else {
+                            changeLog.awaitChange(position, waitNanos);
+                        }
+                        continue;
+                    }
+                    sendBatch();
+                    lastWrite = System.nanoTime();
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the request timed out; the container completes the emitter.
+                log.debug("Change stream subscriber stopped at sequence {}: {}", position, ex.toString());
+            } finally {
+                subscribers.decrementAndGet();
+            }
+        }
+
+        void close() {
+            open = false;
+            Thread current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+
+        private void sendBatch() throws IOException {
+            // One write and flush for the whole batch rather than one per event.
+            Set<ResponseBodyEmitter.DataWithMediaType> events = new LinkedHashSet<>();
+            for (ProductChange change : batch) {
+                events.addAll(SseEmitter.event()
+                        .id(Long.toString(change.sequence()))
+                        .name("change")
+                        .data(toEvent(change), MediaType.APPLICATION_JSON)
+                        .build());
+            }
+            emitter.send(events);
+            position += batch.size();
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductQuery;
+import org.example.cosmocats.service.exception.InvalidCursorException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+final class ProductCursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    private ProductCursorCodec() {
+    }
+
+    static String encode(ProductSortField sort, Product lastProduct) {
+        String position = switch (sort) {
+            case ID -> String.valueOf(lastProduct.getId());
+            case PRICE -> lastProduct.getPrice().toPlainString() + SEPARATOR + lastProduct.getId();
+            case UPDATED_AT -> lastProduct.getUpdatedAt().toString() + SEPARATOR + lastProduct.getId();
+        };
+        String raw = sort.name() + SEPARATOR + position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static void decodeInto(ProductQuery.ProductQueryBuilder query, ProductSortField sort, String cursor) {
+        Position position = position(sort, cursor);
+        if (position.key() != null) {
+            query.afterKey(position.key());
+        }
+        query.afterId(position.id());
+    }
+
+    /**
+     * The place in the sort order a cursor points at, so that pages read from
+     * several nodes can be merged.
+     */
+    static Position position(ProductSortField sort, String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+
+        if (!parts[0].equals(sort.name())) {
+            throw new InvalidCursorException("Cursor was not issued for sort " + sort);
+        }
+
+        try {
+            return switch (sort) {
+                case ID -> {
+                    requireParts(parts, 2, cursor);
+                    yield new Position(null, Long.parseLong(parts[1]));
+                }
+                case PRICE -> {
+                    requireParts(parts, 3, cursor);
+                    yield new Position(new BigDecimal(parts[1]), Long.parseLong(parts[2]));
+                }
+                case UPDATED_AT -> {
+                    requireParts(parts, 3, cursor);
+                    yield new Position(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+                }
+            };
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+    }
+
+    record Position(Comparable<?> key, long id) implements Comparable<Position> {
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compareTo(Position other) {
+            int byKey = key == null ? 0 : ((Comparable) key).compareTo(other.key);
+            return byKey != 0 ? byKey : Long.compare(id, other.id);
+        }
+    }
+
+    private static void requireParts(String[] parts, int expected, String cursor) {
+        if (parts.length != expected) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.dto.ProductSearchHitDTO;
+import org.example.cosmocats.dto.ProductSearchRequestDTO;
+import org.example.cosmocats.dto.ProductSearchResultDTO;
+import org.example.cosmocats.mapper.ProductMapper;
+import org.example.cosmocats.repository.ProductRepository;
+import org.example.cosmocats.search.ProductSearchIndex;
+import org.example.cosmocats.search.SearchHit;
+import org.example.cosmocats.search.SearchQuery;
+import org.example.cosmocats.service.ProductSearchService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    public ProductSearchServiceImpl(ProductSearchIndex productSearchIndex, ProductRepository productRepository,
+                                    ProductMapper productMapper) {
+        this.productSearchIndex = productSearchIndex;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+    }
+
+    @Override
+    public ProductSearchResultDTO searchProducts(ProductSearchRequestDTO searchRequest) {
+        int limit = limitOf(searchRequest);
+        List<SearchHit> hits = productSearchIndex.search(new SearchQuery(searchRequest.getQ(),
+                searchRequest.getCategory(), searchRequest.getStatus(), limit,
+                searchRequest.isPrefix(), searchRequest.isFuzzy()));
+
+        // The index trails the store slightly; products deleted since are skipped.
+        List<ProductSearchHitDTO> items = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            Product product = productRepository.findById(hit.productId()).orElse(null);
+            if (product != null) {
+                items.add(new ProductSearchHitDTO(hit.score(), productMapper.convertToProductDTO(product)));
+            }
+        }
+        return new ProductSearchResultDTO(items);
+    }
+
+    static int limitOf(ProductSearchRequestDTO searchRequest) {
+        return searchRequest.getLimit() == null
+                ? DEFAULT_LIMIT
+                : Math.max(1, Math.min(searchRequest.getLimit(), MAX_LIMIT));
+    }
+}
@@ -1,133 +1,394 @@
 package org.example.cosmocats.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.cosmocats.cache.ProductJsonCache;
+import org.example.cosmocats.common.BatchOperationType;
 import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductSortField;
 import org.example.cosmocats.common.ProductStatus;
 import org.example.cosmocats.domain.Category;
 import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.dto.ProductBatchItemResultDTO;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
 import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.ProductShardPageDTO;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
 import org.example.cosmocats.mapper.ProductMapper;
+import org.example.cosmocats.repository.ProductQuery;
+import org.example.cosmocats.repository.ProductRepository;
+import org.example.cosmocats.service.CategoryService;
 import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.BatchTooLargeException;
+import org.example.cosmocats.service.exception.CategoryNotFoundException;
+import org.example.cosmocats.service.exception.InsufficientStockException;
 import org.example.cosmocats.service.exception.ProductNotFoundException;
+import org.springframework.context.annotation.Fallback;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
+@Fallback
+@Timed(value = "cosmocats.product.service", histogram = true)
 public class ProductServiceImpl implements ProductService {
 
-    private final Map<Long, Product> inMemoryProductStore = new HashMap<>();
-    private final AtomicLong productIdGenerator = new AtomicLong(1);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ProductJsonCache productJsonCache;
+    private final CategoryService categoryService;
 
-    public ProductServiceImpl(ProductMapper productMapper) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper,
+                              Validator validator, ProductJsonCache productJsonCache,
+                              CategoryService categoryService) {
+        this.productRepository = productRepository;
         this.productMapper = productMapper;
-        initializeSampleProducts();
-    }
-
-    private void initializeSampleProducts() {
-        addSampleProduct("Galaxy Star Ball",
-                "Anti-gravity toy that floats in the galaxy",
-                new BigDecimal("29.99"), 50, CategoryType.ANTI_GRAVITY_TOYS);
-
-        addSampleProduct("Cosmic Milk",
-                "Tasty milk from intergalactic store",
-                new BigDecimal("15.50"), 100, CategoryType.COSMIC_FOOD);
-
-        addSampleProduct("Space Laser",
-                "Laser for intergalactic cat entertainment",
-                new BigDecimal("12.75"), 25, CategoryType.SPACE_THINGIES);
-    }
-
-    private void addSampleProduct(String name, String description,
-                                  BigDecimal price, Integer quantity, CategoryType categoryType) {
-        Category category = new Category();
-        category.setId(1L);
-        category.setType(categoryType);
-        category.setDescription(categoryType.name());
-
-        Product product = new Product();
-        product.setId(productIdGenerator.getAndIncrement());
-        product.setName(name);
-        product.setDescription(description);
-        product.setPrice(price);
-        product.setQuantity(quantity);
-        product.setCategory(category);
-        product.setStatus(ProductStatus.AVAILABLE);
-        product.setCreatedAt(LocalDateTime.now());
-        product.setUpdatedAt(LocalDateTime.now());
-
-        inMemoryProductStore.put(product.getId(), product);
+        this.validator = validator;
+        this.productJsonCache = productJsonCache;
+        this.categoryService = categoryService;
     }
 
     @Override
     public List<ProductDTO> listAllProducts() {
-        return inMemoryProductStore.values().stream()
+        return productRepository.findAll().stream()
                 .map(productMapper::convertToProductDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public ProductDTO getProductById(Long productId) {
-        Product product = inMemoryProductStore.get(productId);
-        if (product == null) {
-            throw new ProductNotFoundException("Product not found - wrong id: " + productId);
+    public ProductPageDTO listProducts(ProductPageRequestDTO pageRequest) {
+        ProductSortField sort = sortOf(pageRequest);
+        int limit = limitOf(pageRequest);
+        List<Product> products = findPage(pageRequest, sort, limit);
+        boolean hasMore = products.size() > limit;
+        if (hasMore) {
+            products = products.subList(0, limit);
         }
-        return productMapper.convertToProductDTO(product);
+
+        List<ProductDTO> items = productMapper.convertToProductDTOList(products);
+        String nextCursor = hasMore ? ProductCursorCodec.encode(sort, products.get(limit - 1)) : null;
+        return new ProductPageDTO(items, nextCursor);
     }
 
-    @Override
-    public ProductDTO createProduct(ProductDTO productRequestDTO) {
-        Product product = productMapper.convertToProductEntity(productRequestDTO);
+    /**
+     * This node's share of a page of a clustered catalog: the page as the
+     * local store has it, without the products {@code owned} rejects, and with
+     * a cursor for every item so pages from several nodes can be merged. The
+     * next cursor follows the unfiltered page.
+     */
+    public ProductShardPageDTO listShardPage(ProductPageRequestDTO pageRequest, LongPredicate owned) {
+        ProductSortField sort = sortOf(pageRequest);
+        int limit = limitOf(pageRequest);
+        List<Product> products = findPage(pageRequest, sort, limit);
+        boolean hasMore = products.size() > limit;
+        if (hasMore) {
+            products = products.subList(0, limit);
+        }
 
-        Long newId = productIdGenerator.getAndIncrement();
-        product.setId(newId);
+        List<ProductDTO> items = new ArrayList<>(products.size());
+        List<String> cursors = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (owned.test(product.getId())) {
+                items.add(productMapper.convertToProductDTO(product));
+                cursors.add(ProductCursorCodec.encode(sort, product));
+            }
+        }
+        String nextCursor = hasMore ? ProductCursorCodec.encode(sort, products.get(limit - 1)) : null;
+        return new ProductShardPageDTO(items, cursors, nextCursor);
+    }
 
-        Category category = new Category();
-        category.setType(CategoryType.valueOf(productRequestDTO.getCategory()));
-        category.setDescription(productRequestDTO.getCategory());
-        product.setCategory(category);
+    static ProductSortField sortOf(ProductPageRequestDTO pageRequest) {
+        return pageRequest.getSort() != null ? pageRequest.getSort() : ProductSortField.ID;
+    }
 
-        if (productRequestDTO.getStatus() == null || productRequestDTO.getStatus().isBlank()) {
-            product.setStatus(ProductStatus.AVAILABLE);
+    static int limitOf(ProductPageRequestDTO pageRequest) {
+        return pageRequest.getLimit() == null
+                ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(pageRequest.getLimit(), MAX_PAGE_SIZE));
+    }
+
+    private List<Product> findPage(ProductPageRequestDTO pageRequest, ProductSortField sort, int limit) {
+        ProductQuery.ProductQueryBuilder query = ProductQuery.builder()
+                .sort(sort)
+                // one extra row tells us whether there is a next page
+                .limit(limit + 1)
+                .category(pageRequest.getCategory())
+                .status(pageRequest.getStatus())
+                .minPrice(pageRequest.getMinPrice())
+                .maxPrice(pageRequest.getMaxPrice());
+        if (pageRequest.getAfter() != null && !pageRequest.getAfter().isBlank()) {
+            ProductCursorCodec.decodeInto(query, sort, pageRequest.getAfter());
         }
+        return productRepository.findPage(query.build());
+    }
 
-        product.setCreatedAt(LocalDateTime.now());
-        product.setUpdatedAt(LocalDateTime.now());
+    @Override
+    public Stream<ProductDTO> streamProducts(LocalDateTime updatedSince) {
+        return productRepository.streamUpdatedSince(updatedSince)
+                .map(productMapper::convertToProductDTO);
+    }
+
+    @Override
+    public List<ProductDTO> findByCategory(CategoryType categoryType) {
+        return productMapper.convertToProductDTOList(productRepository.findByCategory(categoryType));
+    }
+
+    @Override
+    public List<ProductDTO> findByStatus(ProductStatus productStatus) {
+        return productMapper.convertToProductDTOList(productRepository.findByStatus(productStatus));
+    }
+
+    @Override
+    public List<ProductDTO> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return productMapper.convertToProductDTOList(productRepository.findByPriceBetween(minPrice, maxPrice));
+    }
 
-        inMemoryProductStore.put(newId, product);
-        return productMapper.convertToProductDTO(product);
+    @Override
+    public ProductDTO getProductById(Long productId) {
+        return productMapper.convertToProductDTO(findProduct(productId));
+    }
+
+    @Override
+    public VersionedProductDTO getVersionedProduct(Long productId) {
+        Product product = findProduct(productId);
+        return new VersionedProductDTO(product.getVersion(), productMapper.convertToProductDTO(product));
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return productRepository.catalogVersion();
+    }
+
+    private Product findProduct(Long productId) {
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found - wrong id: " + productId));
+    }
+
+    @Override
+    public ProductDTO createProduct(ProductDTO productRequestDTO) {
+        return productMapper.convertToProductDTO(createProductEntity(productRequestDTO));
     }
 
     @Override
     public ProductDTO updateProduct(Long productId, ProductDTO productRequestDTO) {
-        Product productToUpdate = inMemoryProductStore.get(productId);
-        if (productToUpdate == null) {
-            throw new ProductNotFoundException(
-                    String.format("Product not found - wrong id: %d", productId)
-            );
+        return productMapper.convertToProductDTO(updateProductEntity(productId, productRequestDTO));
+    }
+
+    @Override
+    public void deleteProduct(Long productId) {
+        productRepository.deleteById(productId);
+        productJsonCache.evict(productId);
+    }
+
+    @Override
+    public ProductDTO reserveStock(Long productId, int quantity) {
+        // The repository serializes updates per product, which makes this a
+        // compare-and-set on the stock level without any cross-product locking.
+        Product reservedProduct = productRepository.update(productId, currentProduct -> {
+            int available = availableStock(currentProduct);
+            if (available < quantity) {
+                throw new InsufficientStockException(String.format(
+                        "Only %d units of product %d available, requested %d", available, productId, quantity));
+            }
+            return withStockTaken(currentProduct, quantity);
+        }).orElseThrow(() -> new ProductNotFoundException(
+                String.format("Product not found - wrong id: %d", productId)
+        ));
+
+        productJsonCache.evict(productId);
+        return productMapper.convertToProductDTO(reservedProduct);
+    }
+
+    @Override
+    public StockReservationDTO reserveUpTo(Long productId, int maxQuantity) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null || availableStock(product) == 0) {
+            return new StockReservationDTO(0, null);
         }
 
-        productMapper.updateProductEntityFromDTO(productRequestDTO, productToUpdate);
+        int[] taken = new int[1];
+        BigDecimal[] unitPrice = new BigDecimal[1];
+        try {
+            productRepository.update(productId, currentProduct -> {
+                taken[0] = Math.min(availableStock(currentProduct), maxQuantity);
+                if (taken[0] == 0) {
+                    // Sold out since the check above; abort instead of storing an unchanged copy.
+                    throw new InsufficientStockException(
+                            String.format("Product %d is out of stock", productId));
+                }
+                unitPrice[0] = currentProduct.getPrice();
+                return withStockTaken(currentProduct, taken[0]);
+            });
+        } catch (InsufficientStockException ex) {
+            return new StockReservationDTO(0, null);
+        }
+        productJsonCache.evict(productId);
+        return new StockReservationDTO(taken[0], unitPrice[0]);
+    }
 
-        if (productRequestDTO.getCategory() != null) {
-            Category category = new Category();
-            category.setType(CategoryType.valueOf(productRequestDTO.getCategory()));
-            category.setDescription(productRequestDTO.getCategory());
-            productToUpdate.setCategory(category);
+    private static int availableStock(Product product) {
+        if (product.getStatus() == ProductStatus.DISCONTINUED || product.getQuantity() == null) {
+            return 0;
         }
+        return product.getQuantity();
+    }
 
+    private Product withStockTaken(Product currentProduct, int quantity) {
+        Product productToUpdate = productMapper.copyProduct(currentProduct);
+        productToUpdate.setQuantity(currentProduct.getQuantity() - quantity);
+        if (productToUpdate.getQuantity() == 0) {
+            productToUpdate.setStatus(ProductStatus.OUT_OF_STOCK);
+        }
         productToUpdate.setUpdatedAt(LocalDateTime.now());
-        inMemoryProductStore.put(productId, productToUpdate);
+        return productToUpdate;
+    }
 
-        return productMapper.convertToProductDTO(productToUpdate);
+    @Override
+    public void releaseStock(Long productId, int quantity) {
+        productRepository.update(productId, currentProduct -> {
+            Product productToUpdate = productMapper.copyProduct(currentProduct);
+            int available = currentProduct.getQuantity() != null ? currentProduct.getQuantity() : 0;
+            productToUpdate.setQuantity(available + quantity);
+            if (currentProduct.getStatus() == ProductStatus.OUT_OF_STOCK) {
+                productToUpdate.setStatus(ProductStatus.AVAILABLE);
+            }
+            productToUpdate.setUpdatedAt(LocalDateTime.now());
+            return productToUpdate;
+        });
+        productJsonCache.evict(productId);
     }
 
     @Override
-    public void deleteProduct(Long productId) {
-        inMemoryProductStore.remove(productId);
+    public ProductBatchResultDTO applyBatch(List<ProductBatchOperationDTO> operations) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException(
+                    String.format("Batch of %d operations exceeds the limit of %d", operations.size(), MAX_BATCH_SIZE));
+        }
+
+        // Validation is the expensive, side-effect free part, so it runs in
+        // parallel; the store is then updated in a single ordered pass.
+        ProductBatchItemResultDTO[] results = new ProductBatchItemResultDTO[operations.size()];
+        IntStream.range(0, operations.size()).parallel().forEach(index -> {
+            Map<String, String> errors = validateBatchOperation(operations.get(index));
+            if (!errors.isEmpty()) {
+                results[index] = ProductBatchItemResultDTO.failure(index, operations.get(index).getId(), errors);
+            }
+        });
+
+        int failed = 0;
+        for (int index = 0; index < results.length; index++) {
+            if (results[index] == null) {
+                results[index] = applyBatchOperation(index, operations.get(index));
+            }
+            if (results[index].getErrors() != null) {
+                failed++;
+            }
+        }
+        return new ProductBatchResultDTO(results.length - failed, failed, Arrays.asList(results));
+    }
+
+    private Map<String, String> validateBatchOperation(ProductBatchOperationDTO operation) {
+        if (operation.getReadErrors() != null) {
+            return operation.getReadErrors();
+        }
+        Map<String, String> errors = new HashMap<>();
+        if (operation.getOp() == null) {
+            errors.put("op", "Operation is required");
+            return errors;
+        }
+        if (operation.getOp() != BatchOperationType.CREATE && operation.getId() == null) {
+            errors.put("id", "Product id is required");
+        }
+        if (operation.getOp() != BatchOperationType.DELETE) {
+            if (operation.getProduct() == null) {
+                errors.put("product", "Product is required");
+            } else {
+                for (ConstraintViolation<ProductDTO> violation : validator.validate(operation.getProduct())) {
+                    // A property can break several constraints; report them all.
+                    errors.merge("product." + violation.getPropertyPath(), violation.getMessage(),
+                            (first, second) -> first + "; " + second);
+                }
+            }
+        }
+        return errors;
+    }
+
+    private ProductBatchItemResultDTO applyBatchOperation(int index, ProductBatchOperationDTO operation) {
+        switch (operation.getOp()) {
+            case CREATE -> {
+                try {
+                    return ProductBatchItemResultDTO.success(index, createProductEntity(operation.getProduct()).getId());
+                } catch (CategoryNotFoundException ex) {
+                    return ProductBatchItemResultDTO.failure(index, null, Map.of("product.category", ex.getMessage()));
+                }
+            }
+            case UPDATE -> {
+                try {
+                    updateProductEntity(operation.getId(), operation.getProduct());
+                    return ProductBatchItemResultDTO.success(index, operation.getId());
+                } catch (ProductNotFoundException ex) {
+                    return ProductBatchItemResultDTO.failure(index, operation.getId(), Map.of("id", ex.getMessage()));
+                } catch (CategoryNotFoundException ex) {
+                    return ProductBatchItemResultDTO.failure(index, operation.getId(),
+                            Map.of("product.category", ex.getMessage()));
+                }
+            }
+            default -> {
+                productRepository.deleteById(operation.getId());
+                productJsonCache.evict(operation.getId());
+                return ProductBatchItemResultDTO.success(index, operation.getId());
+            }
+        }
+    }
+
+    private Product createProductEntity(ProductDTO productRequestDTO) {
+        Product product = productMapper.convertToProductEntity(productRequestDTO);
+        product.setCategory(categoryService.resolveCategory(CategoryType.valueOf(productRequestDTO.getCategory())));
+
+        if (productRequestDTO.getStatus() == null || productRequestDTO.getStatus().isBlank()) {
+            product.setStatus(ProductStatus.AVAILABLE);
+        }
+
+        product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(LocalDateTime.now());
+
+        return productRepository.create(product);
+    }
+
+    private Product updateProductEntity(Long productId, ProductDTO productRequestDTO) {
+        Category category = productRequestDTO.getCategory() != null
+                ? categoryService.resolveCategory(CategoryType.valueOf(productRequestDTO.getCategory()))
+                : null;
+        Product updatedProduct = productRepository.update(productId, currentProduct -> {
+            Product productToUpdate = productMapper.copyProduct(currentProduct);
+            productMapper.updateProductEntityFromDTO(productRequestDTO, productToUpdate);
+
+            if (category != null) {
+                productToUpdate.setCategory(category);
+            }
+
+            productToUpdate.setUpdatedAt(LocalDateTime.now());
+            return productToUpdate;
+        }).orElseThrow(() -> new ProductNotFoundException(
+                String.format("Product not found - wrong id: %d", productId)
+        ));
+
+        productJsonCache.evict(productId);
+        return updatedProduct;
     }
 }
@@ -0,0 +1,185 @@
+package org.example.cosmocats.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.cosmocats.service.exception.ProductWriteDeadlineExceededException;
+import org.example.cosmocats.service.exception.ProductWriteQueueFullException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the expensive part of large product writes, parsing and validating the
+ * body and mapping it, on a small pool of its own so a spike of such writes
+ * leaves the request threads to cheap reads. The pool's queue is bounded and a
+ * write that does not fit is refused with 429 straight away.
+ * <p>
+ * Every write has a deadline, and it can be cancelled while it runs, for
+ * example when its client goes away. Either stops it at its next checkpoint.
+ * A write commits before it changes the store; from then on it runs to the end
+ * whatever happens, so it is never left half applied.
+ */
+@Component
+public class ProductWriteOffloader {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private static final int OPEN = 0;
+    private static final int COMMITTED = 1;
+    private static final int ABANDONED = 2;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor deadlines;
+    private final Counter rejected;
+    private final Counter expired;
+    private final Counter cancelled;
+
+    public ProductWriteOffloader(MeterRegistry meterRegistry,
+                                 @Value("${cosmocats.async-writes.threads:0}") int threads,
+                                 @Value("${cosmocats.async-writes.queue-capacity:64}") int queueCapacity) {
+        // The work is CPU bound, so more threads than cores would only queue on the cores instead.
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("product-write-", 1).daemon().factory());
+        this.deadlines = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("product-write-deadlines").daemon().factory());
+        this.deadlines.setRemoveOnCancelPolicy(true);
+
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        this.expired = outcomeCounter(meterRegistry, "expired");
+        this.cancelled = outcomeCounter(meterRegistry, "cancelled");
+        Gauge.builder("cosmocats.async.writes.queued", executor, pool -> pool.getQueue().size())
+                .description("Offloaded product writes waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("cosmocats.async.writes.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Offloaded product writes running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues {@code task} to run within {@code budget}. Throws
+     * {@link ProductWriteQueueFullException} rather than blocking when the
+     * queue is full. The result fails with
+     * {@link ProductWriteDeadlineExceededException} if the task has not
+     * committed by the deadline.
+     */
+    public <T> OffloadedWrite<T> submit(Duration budget, WriteTask<T> task) {
+        OffloadedWrite<T> write = new OffloadedWrite<>();
+        try {
+            executor.execute(() -> write.run(task));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ProductWriteQueueFullException("Product writes are at capacity, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        ScheduledFuture<?> deadline = deadlines.schedule(() -> {
+            if (write.abandon()) {
+                expired.increment();
+                write.result.completeExceptionally(new ProductWriteDeadlineExceededException(String.format(
+                        "Write was not carried out within its %d ms budget", budget.toMillis()), RETRY_AFTER_SECONDS));
+            }
+        }, budget.toNanos(), TimeUnit.NANOSECONDS);
+        write.result.whenComplete((value, failure) -> deadline.cancel(false));
+        return write;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        deadlines.shutdownNow();
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cosmocats.async.writes.abandoned")
+                .description("Offloaded product writes that were not carried out, by reason")
+                .tag("reason", outcome)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface WriteTask<T> {
+
+        /**
+         * Does the write. Long steps should call {@link OffloadedWrite#checkpoint()}
+         * now and then, and the task must call {@link OffloadedWrite#commit()}
+         * before it changes anything.
+         */
+        T run(OffloadedWrite<T> write) throws Exception;
+    }
+
+    /**
+     * One queued write and its result.
+     */
+    public final class OffloadedWrite<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(OPEN);
+
+        private OffloadedWrite() {
+        }
+
+        public CompletableFuture<T> result() {
+            return result;
+        }
+
+        /**
+         * Stops the task with a {@link CancellationException} if the write was
+         * cancelled or ran out of time.
+         */
+        public void checkpoint() {
+            if (state.get() == ABANDONED) {
+                throw new CancellationException("Write was abandoned");
+            }
+        }
+
+        /**
+         * Marks the point of no return: after this the write is neither
+         * cancelled nor timed out.
+         */
+        public void commit() {
+            if (!state.compareAndSet(OPEN, COMMITTED)) {
+                throw new CancellationException("Write was abandoned");
+            }
+        }
+
+        /**
+         * Gives up on the write unless it has already committed, in which
+         * case it runs to the end as usual.
+         */
+        public void cancel() {
+            if (abandon()) {
+                cancelled.increment();
+                result.cancel(false);
+            }
+        }
+
+        private boolean abandon() {
+            return !result.isDone() && state.compareAndSet(OPEN, ABANDONED);
+        }
+
+        private void run(WriteTask<T> task) {
+            if (state.get() == ABANDONED) {
+                return;
+            }
+            try {
+                result.complete(task.run(this));
+            } catch (Throwable failure) {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.cosmocats.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductRepository;
+import org.example.cosmocats.service.CategoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Puts a few sample products into an empty catalog once the application is
+ * up, on a thread of its own so startup does not wait for it. A persistent
+ * store recovers its own catalog and is left alone, and so is a cluster node:
+ * each node would seed its own copies, and the cluster would list every
+ * sample product once per node.
+ * <p>
+ * The switch is read at runtime rather than as a bean condition, so an
+ * AOT-processed build can still turn it off.
+ */
+@Slf4j
+@Component
+public class SampleProductSeeder {
+
+    private final ProductRepository productRepository;
+    private final CategoryService categoryService;
+    private final boolean enabled;
+    private final boolean clustered;
+
+    public SampleProductSeeder(ProductRepository productRepository, CategoryService categoryService,
+                               @Value("${cosmocats.sample-data.enabled:true}") boolean enabled,
+                               @Value("${cosmocats.cluster.enabled:false}") boolean clustered) {
+        this.productRepository = productRepository;
+        this.categoryService = categoryService;
+        this.enabled = enabled;
+        this.clustered = clustered;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!enabled || clustered) {
+            return;
+        }
+        Thread.ofVirtual().name("sample-product-seeder").start(() -> {
+            if (productRepository.count() == 0) {
+                initializeSampleProducts();
+                log.info("Seeded the empty catalog with sample products");
+            }
+        });
+    }
+
+    private void initializeSampleProducts() {
+        addSampleProduct("Galaxy Star Ball",
+                "Anti-gravity toy that floats in the galaxy",
+                new BigDecimal("29.99"), 50, CategoryType.ANTI_GRAVITY_TOYS);
+
+        addSampleProduct("Cosmic Milk",
+                "Tasty milk from intergalactic store",
+                new BigDecimal("15.50"), 100, CategoryType.COSMIC_FOOD);
+
+        addSampleProduct("Space Laser",
+                "Laser for intergalactic cat entertainment",
+                new BigDecimal("12.75"), 25, CategoryType.SPACE_THINGIES);
+    }
+
+    private void addSampleProduct(String name, String description,
+                                  BigDecimal price, Integer quantity, CategoryType categoryType) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        product.setCategory(categoryService.resolveCategory(categoryType));
+        product.setStatus(ProductStatus.AVAILABLE);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(LocalDateTime.now());
+
+        productRepository.create(product);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.cosmocats.changes;
+
+import org.example.cosmocats.common.ProductChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cosmocats.domain.ProductFixtures.stored;
+
+class ProductChangeLogTest {
+
+    private final ProductChangeLog changeLog = new ProductChangeLog(4);
+
+    @AfterEach
+    void close() {
+        changeLog.close();
+    }
+
+    @Test
+    void readsChangesInOrderFromAPosition() {
+        long start = changeLog.nextSequence();
+        changeLog.onProductChanged(null, stored(1, 1));
+        changeLog.onProductChanged(stored(1, 1), stored(1, 2));
+        changeLog.onProductChanged(stored(1, 2), null);
+
+        List<ProductChange> changes = new ArrayList<>();
+        assertThat(changeLog.read(start, 10, changes)).isTrue();
+
+        assertThat(changes).extracting(ProductChange::sequence).containsExactly(start, start + 1, start + 2);
+        assertThat(changes).extracting(ProductChange::type).containsExactly(
+                ProductChangeType.CREATED, ProductChangeType.UPDATED, ProductChangeType.DELETED);
+        assertThat(changeLog.read(start + 3, 10, changes)).isTrue();
+        assertThat(changes).hasSize(3);
+    }
+
+    @Test
+    void aReaderLappedByTheWritersMustResync() {
+        long start = changeLog.nextSequence();
+        for (int i = 1; i <= 5; i++) {
+            changeLog.onProductChanged(null, stored(i, i));
+        }
+
+        List<ProductChange> changes = new ArrayList<>();
+        assertThat(changeLog.read(start, 10, changes)).isFalse();
+        assertThat(changes).isEmpty();
+        assertThat(changeLog.oldestSequence()).isEqualTo(start + 1);
+        assertThat(changeLog.read(changeLog.oldestSequence(), 10, changes)).isTrue();
+        assertThat(changes).hasSize(4);
+    }
+
+    @Test
+    void positionsThisLogNeverIssuedMustResync() {
+        List<ProductChange> changes = new ArrayList<>();
+
+        assertThat(changeLog.read(changeLog.nextSequence() - 1, 10, changes)).isFalse();
+        assertThat(changeLog.read(changeLog.nextSequence() + 1, 10, changes)).isFalse();
+        assertThat(changeLog.read(changeLog.nextSequence(), 10, changes)).isTrue();
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void awaitingAStoredChangeReturnsAtOnce() {
+        long start = changeLog.nextSequence();
+        changeLog.onProductChanged(null, stored(1, 1));
+
+        assertThat(changeLog.awaitChange(start, Long.MAX_VALUE)).isTrue();
+        assertThat(changeLog.awaitChange(start + 1, 1_000_000)).isFalse();
+    }
+}
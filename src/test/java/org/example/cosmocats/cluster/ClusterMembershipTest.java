@@ -0,0 +1,103 @@
+package org.example.cosmocats.cluster;
+
+import org.example.cosmocats.service.exception.ClusterUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusterMembershipTest {
+
+    private static final URI SELF_URL = URI.create("http://localhost:8080");
+    private static final ClusterNode PEER = new ClusterNode(2, URI.create("http://localhost:8082"));
+
+    private final ClusterMembership membership =
+            new ClusterMembership(1, SELF_URL, List.of("2=http://localhost:8082"), 128, "heap");
+
+    @Test
+    void startsWithTheConfiguredMembersAndItself() {
+        assertThat(membership.current().epoch()).isZero();
+        assertThat(membership.current().members()).containsExactly(membership.self(), PEER);
+        assertThat(membership.pending()).isNull();
+    }
+
+    @Test
+    void pendingChangeRefusesWritesToMovingProductsOnly() {
+        membership.prepare(membership.newView(1, withJoiner()));
+
+        long moving = firstLocal(id -> membership.pending().ring().ownerOf(id).id() == 3);
+        long staying = firstLocal(id -> membership.pending().ring().ownerOf(id).id() == 1);
+
+        assertThatThrownBy(() -> membership.lockForWrite(moving))
+                .isInstanceOf(ClusterUnavailableException.class);
+        assertThat(membership.isWritable(moving)).isFalse();
+        assertThat(membership.canCreate(moving)).isFalse();
+
+        Lock lock = membership.lockForWrite(staying);
+        lock.unlock();
+        assertThat(membership.isWritable(staying)).isTrue();
+        assertThat(membership.canCreate(staying)).isTrue();
+
+        // Until the commit, the current ring still routes the moving product here.
+        assertThat(membership.isLocal(moving)).isTrue();
+    }
+
+    @Test
+    void commitSwitchesToThePendingRing() {
+        membership.prepare(membership.newView(1, withJoiner()));
+        long moving = firstLocal(id -> membership.pending().ring().ownerOf(id).id() == 3);
+
+        assertThat(membership.commit(2)).isFalse();
+        assertThat(membership.commit(1)).isTrue();
+
+        assertThat(membership.current().epoch()).isEqualTo(1);
+        assertThat(membership.pending()).isNull();
+        assertThat(membership.ownerOf(moving).id()).isEqualTo(3);
+        assertThat(membership.isLocal(moving)).isFalse();
+    }
+
+    @Test
+    void abortKeepsTheCurrentRing() {
+        membership.prepare(membership.newView(1, withJoiner()));
+        long moving = firstLocal(id -> membership.pending().ring().ownerOf(id).id() == 3);
+
+        membership.abort(1);
+
+        assertThat(membership.pending()).isNull();
+        assertThat(membership.current().epoch()).isZero();
+        membership.lockForWrite(moving).unlock();
+    }
+
+    @Test
+    void refusesStaleOrConcurrentChanges() {
+        membership.prepare(membership.newView(1, withJoiner()));
+
+        assertThatThrownBy(() -> membership.prepare(membership.newView(2, withJoiner())))
+                .isInstanceOf(ClusterUnavailableException.class);
+
+        membership.commit(1);
+        assertThatThrownBy(() -> membership.prepare(membership.newView(1, withJoiner())))
+                .isInstanceOf(ClusterUnavailableException.class);
+    }
+
+    private List<ClusterNode> withJoiner() {
+        List<ClusterNode> members = new ArrayList<>(membership.current().members());
+        members.add(new ClusterNode(3, URI.create("http://localhost:8083")));
+        return members;
+    }
+
+    private long firstLocal(LongPredicate condition) {
+        return LongStream.rangeClosed(1, 10_000)
+                .filter(membership::isLocal)
+                .filter(condition)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.cosmocats.cluster;
+
+import org.example.cosmocats.controller.GlobalException.ProblemResponseWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterSecretFilterTest {
+
+    private static final String SECRET = "s3cret";
+
+    private final ClusterSecretFilter filter = new ClusterSecretFilter(new ProblemResponseWriter(), SECRET);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/internal/cluster/members",
+            "/internal/cluster;x=1/members",
+            "/internal;x/cluster/products/1025",
+            "/internal/cluster/members;jsessionid=1",
+            "/internal%2Fcluster/members",
+            "/internal/%63luster/members",
+            "/internal/x/../cluster/members",
+            "/internal/./cluster/members",
+            "//internal/cluster/members",
+            "/internal/cluster"
+    })
+    void clusterPathsWithoutTheSecretAreRefused(String uri) throws Exception {
+        MockHttpServletResponse response = send(uri, null);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/internal/cluster/members", "/internal/cluster;x=1/members"})
+    void clusterPathsWithAWrongSecretAreRefused(String uri) throws Exception {
+        assertThat(send(uri, "guess").getStatus()).isEqualTo(401);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/internal/cluster/members", "/internal/cluster;x=1/members"})
+    void clusterPathsWithTheSecretGoThrough(String uri) throws Exception {
+        assertThat(send(uri, SECRET).getStatus()).isEqualTo(200);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/v1/api/products", "/internal/clusterfoo", "/v1/api/internal/cluster/members"})
+    void otherPathsAreLeftAlone(String uri) throws Exception {
+        assertThat(send(uri, null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void theServletPathIsCheckedAsWellAsTheUri() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/anything");
+        request.setServletPath("/internal/cluster/members");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    private MockHttpServletResponse send(String uri, String secret) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (secret != null) {
+            request.addHeader(ClusterSecretFilter.CLUSTER_SECRET, secret);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.cosmocats.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Test
+    void everyMemberBuildsTheSameRingWhateverTheOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(node(1), node(2), node(3)), 128);
+        ConsistentHashRing shuffled = new ConsistentHashRing(List.of(node(3), node(1), node(2)), 128);
+
+        for (long id = 1; id <= PRODUCTS; id++) {
+            assertThat(shuffled.ownerOf(id)).isEqualTo(ring.ownerOf(id));
+        }
+        assertThat(ring.nodes()).extracting(ClusterNode::id).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void productsAreSpreadEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(node(1), node(2), node(3), node(4)), 128);
+
+        Map<Integer, Integer> owned = new HashMap<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            owned.merge(ring.ownerOf(id).id(), 1, Integer::sum);
+        }
+
+        assertThat(owned).containsOnlyKeys(1, 2, 3, 4);
+        assertThat(owned.values()).allSatisfy(count ->
+                assertThat(count).isBetween(PRODUCTS / 4 * 7 / 10, PRODUCTS / 4 * 13 / 10));
+    }
+
+    @Test
+    void addingANodeOnlyMovesProductsToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of(node(1), node(2), node(3)), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(node(1), node(2), node(3), node(4)), 128);
+
+        int moved = 0;
+        for (long id = 1; id <= PRODUCTS; id++) {
+            ClusterNode owner = after.ownerOf(id);
+            if (!owner.equals(before.ownerOf(id))) {
+                assertThat(owner.id()).isEqualTo(4);
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(PRODUCTS / 4 * 7 / 10, PRODUCTS / 4 * 13 / 10);
+    }
+
+    private static ClusterNode node(int id) {
+        return new ClusterNode(id, URI.create("http://localhost:" + (8080 + id)));
+    }
+}
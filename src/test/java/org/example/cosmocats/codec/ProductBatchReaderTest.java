@@ -0,0 +1,62 @@
+package org.example.cosmocats.codec;
+
+import org.example.cosmocats.common.BatchOperationType;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductBatchReaderTest {
+
+    private final ProductBatchReader reader = new ProductBatchReader(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void readsEveryOperation() throws IOException {
+        List<ProductBatchOperationDTO> operations = read("""
+                [{"op":"CREATE","product":{"name":"Cosmic Milk","price":15.50}},
+                 {"op":"DELETE","id":7}]""");
+
+        assertThat(operations).extracting(ProductBatchOperationDTO::getOp)
+                .containsExactly(BatchOperationType.CREATE, BatchOperationType.DELETE);
+        assertThat(operations.get(0).getProduct().getPrice()).isEqualByComparingTo(new BigDecimal("15.50"));
+        assertThat(operations).allMatch(operation -> operation.getReadErrors() == null);
+    }
+
+    @Test
+    void anItemThatDoesNotBindFailsOnItsOwn() throws IOException {
+        List<ProductBatchOperationDTO> operations = read("""
+                [{"op":"FOO","id":1},
+                 {"op":"UPDATE","id":2,"product":{"name":"Cosmic Milk","price":"abc"}},
+                 {"op":"DELETE","id":3}]""");
+
+        assertThat(operations).hasSize(3);
+        assertThat(operations.get(0).getId()).isEqualTo(1L);
+        assertThat(operations.get(0).getReadErrors()).containsOnlyKeys("op");
+        assertThat(operations.get(0).getReadErrors().get("op")).contains("FOO", "CREATE");
+        assertThat(operations.get(1).getId()).isEqualTo(2L);
+        assertThat(operations.get(1).getReadErrors()).containsOnlyKeys("product.price");
+        assertThat(operations.get(2).getReadErrors()).isNull();
+        assertThat(operations.get(2).getOp()).isEqualTo(BatchOperationType.DELETE);
+    }
+
+    @Test
+    void aBodyThatIsNotJsonFailsTheBatch() {
+        assertThatThrownBy(() -> read("[{\"op\":\"CREATE\",}"))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> read("{\"op\":\"CREATE\"}"))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    private List<ProductBatchOperationDTO> read(String body) throws IOException {
+        return reader.read(new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
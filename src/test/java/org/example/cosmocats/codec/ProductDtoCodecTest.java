@@ -0,0 +1,95 @@
+package org.example.cosmocats.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductDtoCodecTest {
+
+    private final ProductDtoCodec codec = new ProductDtoCodec();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void productsRoundTrip(boolean smile) throws IOException {
+        List<ProductDTO> products = List.of(
+                new ProductDTO(1L, "Galaxy Star Ball", "Anti-gravity toy that floats", new BigDecimal("29.99"), 50,
+                        "ANTI_GRAVITY_TOYS", "AVAILABLE"),
+                new ProductDTO(2L, "Comet \"Ice\" Cream ☄", "Line one\nline two\t\\ café", new BigDecimal("12345678.10"),
+                        0, "COSMIC_FOOD", "OUT_OF_STOCK"),
+                new ProductDTO(null, null, null, null, null, null, null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = codec.createGenerator(out, smile)) {
+            codec.writeProducts(generator, products);
+        }
+        List<ProductDTO> read;
+        try (JsonParser parser = codec.createParser(new ByteArrayInputStream(out.toByteArray()), smile)) {
+            parser.nextToken();
+            read = codec.readProducts(parser);
+        }
+
+        assertThat(read).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(products);
+    }
+
+    @Test
+    void writesWhatTheObjectMapperWrites() throws IOException {
+        ProductDTO product = new ProductDTO(7L, "Comet \"Ice\" Cream ☄", "Line one\nline two", new BigDecimal("0.50"),
+                3, "COSMIC_FOOD", null);
+        ProductPageDTO page = new ProductPageDTO(List.of(product), "cursor-7");
+
+        assertThat(new String(codec.toJson(product), StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(product));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = codec.createGenerator(out, false)) {
+            codec.writePage(generator, page);
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(page));
+    }
+
+    @Test
+    void readsLikeTheObjectMapper() throws IOException {
+        String json = """
+                {"id":"5","name":"Star Yarn","extra":{"nested":[1,2]},"price":"12.50","quantity":3,
+                 "category":"SPACE_THINGIES","status":null}""";
+
+        ProductDTO product = read(json);
+
+        assertThat(product).usingRecursiveComparison().isEqualTo(objectMapper.readValue(json, ProductDTO.class));
+        assertThat(product.getId()).isEqualTo(5L);
+        assertThat(product.getPrice()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void rejectsWhatIsNotAProduct() {
+        assertThatThrownBy(() -> read("[1]")).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> read("{\"name\":{\"first\":\"x\"}}")).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> read("{\"id\":\"abc\"}")).isInstanceOf(IOException.class);
+    }
+
+    private ProductDTO read(String json) throws IOException {
+        try (JsonParser parser = codec.createParser(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), false)) {
+            parser.nextToken();
+            return codec.readProduct(parser);
+        }
+    }
+}
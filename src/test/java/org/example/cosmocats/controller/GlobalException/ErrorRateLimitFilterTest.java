@@ -0,0 +1,72 @@
+package org.example.cosmocats.controller.GlobalException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorRateLimitFilterTest {
+
+    private static final String GATEWAY = "10.0.0.1";
+
+    private final FilterChain notFound = (request, response) ->
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+
+    @Test
+    void aClientThatSpendsItsBudgetIsThrottled() throws Exception {
+        ErrorRateLimitFilter filter = filter("", List.of());
+
+        assertThat(send(filter, "192.0.2.1", null).getStatus()).isEqualTo(404);
+        assertThat(send(filter, "192.0.2.1", null).getStatus()).isEqualTo(404);
+        assertThat(send(filter, "192.0.2.1", null).getStatus()).isEqualTo(404);
+        MockHttpServletResponse throttled = send(filter, "192.0.2.1", null);
+
+        assertThat(throttled.getStatus()).isEqualTo(429);
+        assertThat(throttled.getHeader("Retry-After")).isNotNull();
+        assertThat(send(filter, "192.0.2.2", null).getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void clientsBehindATrustedGatewayHaveBudgetsOfTheirOwn() throws Exception {
+        ErrorRateLimitFilter filter = filter("X-Forwarded-For", List.of(GATEWAY));
+
+        for (int i = 0; i < 3; i++) {
+            send(filter, GATEWAY, "198.51.100.7, 203.0.113.1");
+        }
+
+        assertThat(send(filter, GATEWAY, "203.0.113.1").getStatus()).isEqualTo(429);
+        assertThat(send(filter, GATEWAY, "203.0.113.2").getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void theHeaderIsIgnoredFromAnUntrustedPeer() throws Exception {
+        ErrorRateLimitFilter filter = filter("X-Forwarded-For", List.of(GATEWAY));
+
+        for (int i = 0; i < 3; i++) {
+            send(filter, "192.0.2.1", "203.0.113." + i);
+        }
+
+        assertThat(send(filter, "192.0.2.1", "203.0.113.99").getStatus()).isEqualTo(429);
+    }
+
+    private static ErrorRateLimitFilter filter(String clientHeader, List<String> trustedProxies) {
+        return new ErrorRateLimitFilter(new ProblemResponseWriter(), 1, 2, 1000, clientHeader, trustedProxies);
+    }
+
+    private MockHttpServletResponse send(ErrorRateLimitFilter filter, String peer, String forwardedFor)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api/products/999");
+        request.setRemoteAddr(peer);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, notFound);
+        return response;
+    }
+}
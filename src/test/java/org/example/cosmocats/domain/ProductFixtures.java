@@ -0,0 +1,49 @@
+package org.example.cosmocats.domain;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Products for tests that only care about a field or two; everything else is
+ * a valid default.
+ */
+public final class ProductFixtures {
+
+    private ProductFixtures() {
+    }
+
+    /**
+     * A new product, without id or version, ready to be created.
+     */
+    public static Product product(CategoryType category, String price) {
+        LocalDateTime now = LocalDateTime.now();
+        return new Product(null, "Cosmic Milk", "Tasty milk from intergalactic store", new BigDecimal(price), 1,
+                Category.of(category), ProductStatus.AVAILABLE, now, now, null);
+    }
+
+    public static Product product(String price) {
+        return product(CategoryType.COSMIC_FOOD, price);
+    }
+
+    /**
+     * A product as a store holds it, with its id and version set.
+     */
+    public static Product stored(long id, long version) {
+        Product product = product("9.99");
+        product.setId(id);
+        product.setVersion(version);
+        return product;
+    }
+
+    /**
+     * A copy to change and hand back to the store in place of the original.
+     */
+    public static Product copy(Product product) {
+        return new Product(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getQuantity(), product.getCategory(), product.getStatus(), product.getCreatedAt(),
+                product.getUpdatedAt(), product.getVersion());
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.cosmocats.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.cosmocats.controller.GlobalException.ProblemResponseWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final IdempotencyFilter filter = new IdempotencyFilter(new ProblemResponseWriter(),
+            new SimpleMeterRegistry(), Duration.ofHours(1), DataSize.ofMegabytes(1), DataSize.ofBytes(64),
+            Duration.ofSeconds(1));
+
+    // Echoes the body back with a running count, so a replay is told apart from a second execution.
+    private final FilterChain chain = (request, response) -> {
+        String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(201);
+        http.setHeader("Location", "/v1/api/products/" + executions.incrementAndGet());
+        http.setContentType("application/json");
+        http.getWriter().write(body);
+    };
+
+    @Test
+    void aRetryWithTheSameKeyAndBodyGetsTheKeptResponse() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"name\":\"Cosmic Milk\"}");
+        MockHttpServletResponse retry = send("key-1", "{\"name\":\"Cosmic Milk\"}");
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isNull();
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(retry.getHeader("Location")).isEqualTo("/v1/api/products/1");
+        assertThat(retry.getContentAsString()).isEqualTo("{\"name\":\"Cosmic Milk\"}");
+    }
+
+    @Test
+    void aKeyReusedForAnotherBodyIsRefused() throws Exception {
+        send("key-1", "{\"name\":\"Cosmic Milk\"}");
+        MockHttpServletResponse reused = send("key-1", "{\"name\":\"Star Ball\"}");
+
+        assertThat(executions).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void differentKeysRunSeparately() throws Exception {
+        send("key-1", "{}");
+        send("key-2", "{}");
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void aBodyOverTheLimitIsRefusedWithoutRunning() throws Exception {
+        String large = "{\"name\":\"" + "x".repeat(100) + "\"}";
+
+        MockHttpServletResponse declared = send("key-1", large);
+        MockHttpServletRequest chunked = request("key-2", large);
+        MockHttpServletResponse streamed = new MockHttpServletResponse();
+        filter.doFilter(new UnknownLengthRequest(chunked), streamed, chain);
+
+        assertThat(declared.getStatus()).isEqualTo(413);
+        assertThat(streamed.getStatus()).isEqualTo(413);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void aBodyWithinTheLimitStillRuns() throws Exception {
+        MockHttpServletResponse response = send("key-1", "x".repeat(64));
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(executions).hasValue(1);
+    }
+
+    private MockHttpServletResponse send(String key, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, body), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/api/products");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static final class UnknownLengthRequest extends HttpServletRequestWrapper {
+
+        UnknownLengthRequest(MockHttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+    }
+}
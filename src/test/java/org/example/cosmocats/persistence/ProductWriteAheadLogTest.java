@@ -0,0 +1,84 @@
+package org.example.cosmocats.persistence;
+
+import org.example.cosmocats.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cosmocats.domain.ProductFixtures.stored;
+
+class ProductWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEverySegmentInOrder() throws Exception {
+        try (ProductWriteAheadLog log = new ProductWriteAheadLog(directory, FsyncPolicy.ALWAYS, 100)) {
+            log.appendPut(stored(1, 1)).join();
+            log.appendPut(stored(2, 2)).join();
+            log.roll().join();
+            log.appendDelete(1, 3).join();
+        }
+
+        List<ProductRecord> records = new ArrayList<>();
+        ProductWriteAheadLog.replay(directory, 0, records::add);
+
+        assertThat(records).extracting(ProductRecord::productId).containsExactly(1L, 2L, 1L);
+        assertThat(records).extracting(ProductRecord::isDeletion).containsExactly(false, false, true);
+        assertThat(records.get(1).product()).extracting(Product::getId, Product::getVersion).containsExactly(2L, 2L);
+    }
+
+    @Test
+    void stopsAtACorruptTailTruncatesItAndSetsLaterSegmentsAside() throws Exception {
+        try (ProductWriteAheadLog log = new ProductWriteAheadLog(directory, FsyncPolicy.ALWAYS, 100)) {
+            log.appendPut(stored(1, 1)).join();
+            log.appendPut(stored(2, 2)).join();
+            log.roll().join();
+            log.appendPut(stored(3, 3)).join();
+        }
+        Path first = segment(1);
+        long goodSize = Files.size(first);
+        Files.write(first, new byte[] {0, 0, 0, 42, 7, 7, 7}, StandardOpenOption.APPEND);
+
+        List<ProductRecord> records = new ArrayList<>();
+        ProductWriteAheadLog.replay(directory, 0, records::add);
+
+        assertThat(records).extracting(ProductRecord::productId).containsExactly(1L, 2L);
+        assertThat(Files.size(first)).isEqualTo(goodSize);
+        assertThat(segment(2)).doesNotExist();
+        assertThat(segment(2).resolveSibling(segment(2).getFileName() + ".discarded")).exists();
+
+        records.clear();
+        ProductWriteAheadLog.replay(directory, 0, records::add);
+        assertThat(records).extracting(ProductRecord::productId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void newLogAfterRecoveryStartsAfterTheKeptSegments() throws Exception {
+        try (ProductWriteAheadLog log = new ProductWriteAheadLog(directory, FsyncPolicy.ALWAYS, 100)) {
+            log.appendPut(stored(1, 1)).join();
+        }
+        Files.write(segment(1), new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+        ProductWriteAheadLog.replay(directory, 0, record -> {
+        });
+
+        try (ProductWriteAheadLog log = new ProductWriteAheadLog(directory, FsyncPolicy.ALWAYS, 100)) {
+            log.appendPut(stored(2, 2)).join();
+        }
+
+        List<ProductRecord> records = new ArrayList<>();
+        ProductWriteAheadLog.replay(directory, 0, records::add);
+        assertThat(records).extracting(ProductRecord::productId).containsExactly(1L, 2L);
+    }
+
+    private Path segment(long number) {
+        return directory.resolve(String.format("wal-%020d.log", number));
+    }
+}
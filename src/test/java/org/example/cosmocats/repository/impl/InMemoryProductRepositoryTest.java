@@ -0,0 +1,138 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cosmocats.domain.ProductFixtures.copy;
+import static org.example.cosmocats.domain.ProductFixtures.product;
+
+class InMemoryProductRepositoryTest {
+
+    private static final int THREADS = 8;
+
+    private final InMemoryProductRepository repository = new InMemoryProductRepository();
+
+    @Test
+    void concurrentCreatesGetDistinctIds() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        runConcurrently(thread -> {
+            for (int i = 0; i < 500; i++) {
+                ids.add(repository.create(product(CategoryType.COSMIC_FOOD, "1.00")).getId());
+            }
+        });
+
+        assertThat(ids).hasSize(THREADS * 500);
+        assertThat(repository.count()).isEqualTo(THREADS * 500);
+        assertThat(repository.countByCategory(CategoryType.COSMIC_FOOD)).isEqualTo(THREADS * 500);
+    }
+
+    @Test
+    void concurrentUpdatesOfOneProductAreNotLost() throws Exception {
+        long id = repository.create(product(CategoryType.COSMIC_FOOD, "1.00")).getId();
+        Product initial = repository.findById(id).orElseThrow();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 1000; i++) {
+                repository.update(id, current -> {
+                    Product next = copy(current);
+                    next.setQuantity(current.getQuantity() + 1);
+                    return next;
+                });
+            }
+        });
+
+        Product updated = repository.findById(id).orElseThrow();
+        assertThat(updated.getQuantity()).isEqualTo(initial.getQuantity() + THREADS * 1000);
+        assertThat(updated.getVersion()).isGreaterThanOrEqualTo(initial.getVersion() + THREADS * 1000);
+    }
+
+    @Test
+    void indexesAgreeWithTheStoreAfterConcurrentMoves() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            ids.add(repository.create(product(CategoryType.COSMIC_FOOD, "1.00")).getId());
+        }
+        CategoryType[] categories = CategoryType.values();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 2000; i++) {
+                long id = ids.get((thread * 31 + i) % ids.size());
+                CategoryType category = categories[(thread + i) % categories.length];
+                BigDecimal price = BigDecimal.valueOf((thread + i) % 50 + 1);
+                ProductStatus status = i % 2 == 0 ? ProductStatus.AVAILABLE : ProductStatus.OUT_OF_STOCK;
+                repository.update(id, current -> {
+                    Product next = copy(current);
+                    next.setCategory(Category.of(category));
+                    next.setPrice(price);
+                    next.setStatus(status);
+                    return next;
+                });
+                if (i % 100 == 0) {
+                    repository.deleteById(ids.get((thread + i) % ids.size()));
+                }
+            }
+        });
+
+        long total = 0;
+        for (CategoryType category : categories) {
+            List<Product> byCategory = repository.findByCategory(category);
+            assertThat(byCategory).allMatch(product -> product.getCategory().getType() == category);
+            assertThat(repository.countByCategory(category)).isEqualTo(byCategory.size());
+            total += byCategory.size();
+        }
+        assertThat(total).isEqualTo(repository.count());
+
+        List<Product> byPrice = repository.findByPriceBetween(null, null);
+        assertThat(byPrice).hasSize((int) repository.count());
+        assertThat(byPrice).isSortedAccordingTo((a, b) -> a.getPrice().compareTo(b.getPrice()));
+
+        int byStatus = 0;
+        for (ProductStatus status : ProductStatus.values()) {
+            List<Product> products = repository.findByStatus(status);
+            assertThat(products).allMatch(product -> product.getStatus() == status);
+            byStatus += products.size();
+        }
+        assertThat(byStatus).isEqualTo(repository.count());
+    }
+
+    private static void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
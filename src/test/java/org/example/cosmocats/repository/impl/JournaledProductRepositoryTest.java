@@ -0,0 +1,71 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.persistence.FsyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.cosmocats.domain.ProductFixtures.copy;
+import static org.example.cosmocats.domain.ProductFixtures.product;
+
+class JournaledProductRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversLoggedWritesAfterARestart() throws Exception {
+        JournaledProductRepository repository = open(new InMemoryProductRepository());
+        long kept = repository.create(product("1.00")).getId();
+        long deleted = repository.create(product("2.00")).getId();
+        repository.update(kept, current -> withPrice(current, "3.00"));
+        repository.deleteById(deleted);
+        repository.close();
+
+        InMemoryProductRepository store = new InMemoryProductRepository();
+        open(store).close();
+
+        assertThat(store.findById(kept)).hasValueSatisfying(
+                product -> assertThat(product.getPrice()).isEqualByComparingTo("3.00"));
+        assertThat(store.findById(deleted)).isEmpty();
+        assertThat(store.count()).isEqualTo(1);
+    }
+
+    @Test
+    void writesTheLogRefusesAreUndoneInMemory() throws Exception {
+        InMemoryProductRepository store = new InMemoryProductRepository();
+        JournaledProductRepository repository = open(store);
+        long updated = repository.create(product("1.00")).getId();
+        long deleted = repository.create(product("2.00")).getId();
+        long catalogVersion = store.catalogVersion();
+        repository.close();
+
+        assertThatThrownBy(() -> repository.create(product("5.00"))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> repository.update(updated, current -> withPrice(current, "9.00")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> repository.deleteById(deleted)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.count()).isEqualTo(2);
+        assertThat(store.findById(updated).orElseThrow().getPrice()).isEqualByComparingTo("1.00");
+        assertThat(store.findById(deleted)).isPresent();
+        assertThat(store.findByPriceBetween(new BigDecimal("5.00"), null)).isEmpty();
+        assertThat(store.catalogVersion()).isGreaterThan(catalogVersion);
+    }
+
+    private JournaledProductRepository open(ProductStore store) throws Exception {
+        return new JournaledProductRepository(store, directory, FsyncPolicy.ALWAYS, 100, 3_600_000);
+    }
+
+    private static Product withPrice(Product current, String price) {
+        Product next = copy(current);
+        next.setPrice(new BigDecimal(price));
+        next.setUpdatedAt(LocalDateTime.now());
+        return next;
+    }
+}
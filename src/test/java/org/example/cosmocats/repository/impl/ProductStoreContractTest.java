@@ -0,0 +1,172 @@
+package org.example.cosmocats.repository.impl;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductQuery;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cosmocats.domain.ProductFixtures.copy;
+
+/**
+ * Runs the same listing and filter cases against every {@link ProductStore},
+ * so the heap and columnar modes cannot drift apart.
+ */
+class ProductStoreContractTest {
+
+    private static final String[] PRICES = {"1.00", "2.50", "2.50", "9.99", "15.00", "0.99", "120.45"};
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    static Stream<Arguments> stores() {
+        return Stream.of(
+                Arguments.of("heap", (Supplier<ProductStore>) InMemoryProductRepository::new),
+                Arguments.of("columnar", (Supplier<ProductStore>) ColumnarProductRepository::new));
+    }
+
+    static Stream<Arguments> queries() {
+        List<Arguments> queries = new ArrayList<>();
+        stores().map(Arguments::get).forEach(store -> {
+            for (ProductSortField sort : ProductSortField.values()) {
+                queries.add(Arguments.of(store[0], store[1], sort, null, null, null, null));
+                queries.add(Arguments.of(store[0], store[1], sort, CategoryType.COSMIC_FOOD, null, null, null));
+                queries.add(Arguments.of(store[0], store[1], sort, null, ProductStatus.OUT_OF_STOCK, null, null));
+                queries.add(Arguments.of(store[0], store[1], sort, null, null, new BigDecimal("2.50"), null));
+                queries.add(Arguments.of(store[0], store[1], sort, null, null, null, new BigDecimal("9.99")));
+                queries.add(Arguments.of(store[0], store[1], sort, CategoryType.SPACE_THINGIES,
+                        ProductStatus.AVAILABLE, new BigDecimal("1.00"), new BigDecimal("15.00")));
+            }
+        });
+        return queries.stream();
+    }
+
+    @ParameterizedTest(name = "{0} {2} category={3} status={4} price={5}..{6}")
+    @MethodSource("queries")
+    void pagesThroughMatchingProductsInSortOrder(String mode, Supplier<ProductStore> newStore, ProductSortField sort,
+                                                 CategoryType category, ProductStatus status,
+                                                 BigDecimal minPrice, BigDecimal maxPrice) {
+        ProductStore store = seeded(newStore.get());
+        ProductQuery filters = ProductQuery.builder().sort(sort).limit(Integer.MAX_VALUE).category(category)
+                .status(status).minPrice(minPrice).maxPrice(maxPrice).build();
+        List<Long> expected = store.findAll().stream()
+                .filter(filters::matches)
+                .sorted(order(sort))
+                .map(Product::getId)
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        Product last = null;
+        while (true) {
+            List<Product> page = store.findPage(ProductQuery.builder().sort(sort).limit(4).category(category)
+                    .status(status).minPrice(minPrice).maxPrice(maxPrice)
+                    .afterKey(last == null ? null : sortKey(sort, last))
+                    .afterId(last == null ? null : last.getId())
+                    .build());
+            if (page.isEmpty()) {
+                break;
+            }
+            assertThat(page).hasSizeLessThanOrEqualTo(4);
+            page.forEach(product -> walked.add(product.getId()));
+            last = page.getLast();
+        }
+
+        assertThat(expected).isNotEmpty();
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void findsByCategoryStatusAndPrice(String mode, Supplier<ProductStore> newStore) {
+        ProductStore store = seeded(newStore.get());
+
+        for (CategoryType category : CategoryType.values()) {
+            assertThat(store.findByCategory(category)).extracting(Product::getId)
+                    .containsExactlyInAnyOrderElementsOf(idsMatching(store, p -> p.getCategory().getType() == category));
+            assertThat(store.countByCategory(category)).isEqualTo(store.findByCategory(category).size());
+        }
+        for (ProductStatus status : ProductStatus.values()) {
+            assertThat(store.findByStatus(status)).extracting(Product::getId)
+                    .containsExactlyInAnyOrderElementsOf(idsMatching(store, p -> p.getStatus() == status));
+        }
+
+        List<Product> range = store.findByPriceBetween(new BigDecimal("2.50"), new BigDecimal("15.00"));
+        assertThat(range).extracting(Product::getId).containsExactlyInAnyOrderElementsOf(idsMatching(store,
+                p -> p.getPrice().compareTo(new BigDecimal("2.50")) >= 0
+                        && p.getPrice().compareTo(new BigDecimal("15.00")) <= 0));
+        assertThat(range).extracting(Product::getPrice).isSortedAccordingTo(Comparator.naturalOrder());
+        assertThat(store.findByPriceBetween(null, new BigDecimal("0.99"))).extracting(Product::getPrice)
+                .allMatch(price -> price.compareTo(new BigDecimal("0.99")) == 0).isNotEmpty();
+        assertThat(store.findByPriceBetween(new BigDecimal("120.46"), null)).isEmpty();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void listingsFollowUpdatesAndDeletes(String mode, Supplier<ProductStore> newStore) {
+        ProductStore store = seeded(newStore.get());
+        long moved = store.findByCategory(CategoryType.COSMIC_FOOD).getFirst().getId();
+        long deleted = store.findByCategory(CategoryType.COSMIC_FOOD).getLast().getId();
+        long countBefore = store.count();
+
+        store.update(moved, current -> {
+            Product next = copy(current);
+            next.setCategory(Category.of(CategoryType.SPACE_THINGIES));
+            next.setPrice(new BigDecimal("999.00"));
+            return next;
+        });
+        store.deleteById(deleted);
+
+        assertThat(store.count()).isEqualTo(countBefore - 1);
+        assertThat(store.findByCategory(CategoryType.COSMIC_FOOD)).extracting(Product::getId)
+                .doesNotContain(moved, deleted);
+        assertThat(store.findByCategory(CategoryType.SPACE_THINGIES)).extracting(Product::getId).contains(moved);
+        assertThat(store.findByPriceBetween(new BigDecimal("999.00"), null)).extracting(Product::getId)
+                .containsExactly(moved);
+        assertThat(store.findPage(ProductQuery.builder().sort(ProductSortField.PRICE).limit(100).build()))
+                .extracting(Product::getId).doesNotContain(deleted).endsWith(moved);
+    }
+
+    private static ProductStore seeded(ProductStore store) {
+        CategoryType[] categories = CategoryType.values();
+        for (int i = 0; i < 40; i++) {
+            LocalDateTime updatedAt = EPOCH.plusMinutes(i % 9);
+            store.create(new Product(null, "Product " + i, "Seeded product", new BigDecimal(PRICES[i % PRICES.length]),
+                    i, Category.of(categories[i % categories.length]),
+                    ProductStatus.values()[i % 4 % ProductStatus.values().length], EPOCH, updatedAt, null));
+        }
+        return store;
+    }
+
+    private static List<Long> idsMatching(ProductStore store, Predicate<Product> filter) {
+        return store.findAll().stream().filter(filter).map(Product::getId).toList();
+    }
+
+    private static Comparable<?> sortKey(ProductSortField sort, Product product) {
+        return switch (sort) {
+            case ID -> product.getId();
+            case PRICE -> product.getPrice();
+            case UPDATED_AT -> product.getUpdatedAt();
+        };
+    }
+
+    private static Comparator<Product> order(ProductSortField sort) {
+        Comparator<Product> byKey = switch (sort) {
+            case ID -> Comparator.comparing(Product::getId);
+            case PRICE -> Comparator.comparing(Product::getPrice);
+            case UPDATED_AT -> Comparator.comparing(Product::getUpdatedAt);
+        };
+        return byKey.thenComparing(Product::getId);
+    }
+}
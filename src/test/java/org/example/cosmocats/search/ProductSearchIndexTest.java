@@ -0,0 +1,140 @@
+package org.example.cosmocats.search;
+
+import org.example.cosmocats.common.CategoryType;
+import org.example.cosmocats.common.ProductStatus;
+import org.example.cosmocats.domain.Category;
+import org.example.cosmocats.domain.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cosmocats.domain.ProductFixtures.stored;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    @Test
+    void findsProductsContainingEveryTermWithNameMatchesFirst() {
+        put(product(1, "Galaxy Star Ball", "Anti-gravity toy that floats in the galaxy"));
+        put(product(2, "Cosmic Milk", "Tasty milk from the milky way, shaped like a star"));
+        put(product(3, "Star Yarn", "Yarn spun from nebula dust"));
+
+        assertThat(ids(search("star"))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ids(search("star")).get(2)).isEqualTo(2L);
+        assertThat(ids(search("star yarn"))).containsExactly(3L);
+        assertThat(ids(search("STAR, galaxy!"))).containsExactly(1L);
+        assertThat(search("comet")).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void prefixMatchesCompletionsOfTheLastTermOnly() {
+        put(product(1, "Galaxy Star Ball", "Anti-gravity toy that floats"));
+        put(product(2, "Cosmic Milk", "Tasty milk from intergalactic store"));
+
+        assertThat(search("gal")).isEmpty();
+        assertThat(ids(index.search(new SearchQuery("gal", null, null, 10, true, false)))).containsExactly(1L);
+        assertThat(ids(index.search(new SearchQuery("tasty mi", null, null, 10, true, false)))).containsExactly(2L);
+        assertThat(index.search(new SearchQuery("mi tasty", null, null, 10, true, false))).isEmpty();
+    }
+
+    @Test
+    void fuzzyMatchesNearMissesBelowExactMatches() {
+        put(product(1, "Galaxy Star Ball", "Anti-gravity toy that floats"));
+        put(product(2, "Galaxi Dust", "A misspelt galaxy of dust"));
+
+        assertThat(search("galaxey")).isEmpty();
+        assertThat(ids(index.search(new SearchQuery("galaxey", null, null, 10, false, true))))
+                .containsExactlyInAnyOrder(1L, 2L);
+        List<SearchHit> exactFirst = index.search(new SearchQuery("galaxi", null, null, 10, false, true));
+        assertThat(ids(exactFirst)).containsExactly(2L);
+    }
+
+    @Test
+    void filtersByCategoryAndStatus() {
+        put(product(1, "Star Ball", "A ball shaped like a star"));
+        Product food = product(2, "Star Milk", "Milk that sparkles like a star");
+        food.setCategory(Category.of(CategoryType.COSMIC_FOOD));
+        food.setStatus(ProductStatus.OUT_OF_STOCK);
+        put(food);
+
+        assertThat(ids(index.search(new SearchQuery("star", CategoryType.COSMIC_FOOD, null, 10, false, false))))
+                .containsExactly(2L);
+        assertThat(ids(index.search(new SearchQuery("star", null, ProductStatus.AVAILABLE, 10, false, false))))
+                .containsExactly(1L);
+        assertThat(index.search(new SearchQuery("star", null, null, 1, false, false))).hasSize(1);
+    }
+
+    @Test
+    void anUpdateReindexesTheProductAndADeleteRemovesIt() {
+        Product ball = product(1, "Galaxy Star Ball", "Anti-gravity toy that floats");
+        put(ball);
+        Product renamed = product(1, "Comet Ball", "Anti-gravity toy that floats");
+        renamed.setVersion(ball.getVersion() + 1);
+        put(renamed);
+
+        assertThat(search("galaxy")).isEmpty();
+        assertThat(ids(search("comet"))).containsExactly(1L);
+
+        // A change older than the indexed version is stale and ignored.
+        index.onProductChanged(null, ball);
+        index.refresh();
+        assertThat(search("galaxy")).isEmpty();
+
+        index.onProductChanged(renamed, null);
+        index.refresh();
+        assertThat(search("comet")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void resultsSurviveCompaction() {
+        for (long id = 1; id <= 10; id++) {
+            put(product(id, "Galaxy Ball " + id, "Anti-gravity toy that floats"));
+        }
+        // Enough updates to leave more dead documents than the compaction threshold.
+        for (int round = 1; round <= 6_000; round++) {
+            for (long id = 1; id <= 10; id++) {
+                Product product = product(id, round % 2 == 0 ? "Galaxy Ball " + id : "Comet Ball " + id,
+                        "Anti-gravity toy that floats");
+                product.setVersion(round + 1L);
+                index.onProductChanged(null, product);
+            }
+        }
+        index.refresh();
+
+        assertThat(index.size()).isEqualTo(10);
+        assertThat(search("galaxy")).hasSize(10);
+        assertThat(search("comet")).isEmpty();
+        assertThat(ids(search("galaxy 7"))).containsExactly(7L);
+    }
+
+    private void put(Product product) {
+        index.onProductChanged(null, product);
+        index.refresh();
+    }
+
+    private List<SearchHit> search(String text) {
+        return index.search(new SearchQuery(text, null, null, 10, false, false));
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::productId).toList();
+    }
+
+    private static Product product(long id, String name, String description) {
+        Product product = stored(id, 1);
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategory(Category.of(CategoryType.ANTI_GRAVITY_TOYS));
+        return product;
+    }
+}
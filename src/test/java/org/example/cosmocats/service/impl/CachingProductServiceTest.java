@@ -0,0 +1,118 @@
+package org.example.cosmocats.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cosmocats.changes.ProductChangeLog;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.ProductPageDTO;
+import org.example.cosmocats.dto.ProductPageRequestDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.example.cosmocats.mapper.ProductMapperImpl;
+import org.example.cosmocats.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cosmocats.domain.ProductFixtures.stored;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingProductServiceTest {
+
+    private final ProductService delegate = mock(ProductService.class);
+    private final ProductChangeLog changeLog = new ProductChangeLog(16);
+    private final AtomicLong storedVersion = new AtomicLong(1);
+    private final CachingProductService service;
+
+    CachingProductServiceTest() {
+        when(delegate.getVersionedProduct(1L)).thenAnswer(invocation -> versioned(storedVersion.get()));
+        service = new CachingProductService(delegate, changeLog, new ProductMapperImpl(), new SimpleMeterRegistry(),
+                100, 100, Duration.ofMinutes(1), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void close() {
+        service.close();
+        changeLog.close();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        assertThat(service.getVersionedProduct(1L).getVersion()).isEqualTo(1);
+        assertThat(service.getProductById(1L).getName()).isEqualTo("Cosmic Milk v1");
+
+        verify(delegate, times(1)).getVersionedProduct(1L);
+    }
+
+    @Test
+    void aWriteThroughTheServiceInvalidatesTheProduct() {
+        service.getProductById(1L);
+        when(delegate.updateProduct(any(), any())).thenAnswer(invocation -> {
+            storedVersion.set(2);
+            return versioned(2).getProduct();
+        });
+
+        service.updateProduct(1L, new ProductDTO());
+
+        assertThat(service.getVersionedProduct(1L).getVersion()).isEqualTo(2);
+        verify(delegate, times(2)).getVersionedProduct(1L);
+    }
+
+    @Test
+    void aWriteMadeElsewhereInvalidatesTheProductThroughTheChangeLog() throws InterruptedException {
+        service.getProductById(1L);
+
+        storedVersion.set(2);
+        changeLog.onProductChanged(stored(1, 1), stored(1, 2));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (service.getVersionedProduct(1L).getVersion() != 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(service.getVersionedProduct(1L).getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void pagesAreKeyedOnTheCatalogVersion() {
+        ProductPageRequestDTO request = new ProductPageRequestDTO();
+        when(delegate.getCatalogVersion()).thenReturn(1L, 1L, 2L);
+        when(delegate.listProducts(request)).thenAnswer(invocation ->
+                new ProductPageDTO(List.of(versioned(storedVersion.get()).getProduct()), null));
+
+        service.listProducts(request);
+        service.listProducts(request);
+        storedVersion.set(2);
+
+        assertThat(service.listProducts(request).getItems()).extracting(ProductDTO::getName)
+                .containsExactly("Cosmic Milk v2");
+        verify(delegate, times(2)).listProducts(request);
+    }
+
+    @Test
+    void callersCannotChangeWhatIsCached() {
+        ProductPageRequestDTO request = new ProductPageRequestDTO();
+        when(delegate.getCatalogVersion()).thenReturn(1L);
+        when(delegate.listProducts(request)).thenReturn(new ProductPageDTO(List.of(versioned(1).getProduct()), null));
+
+        service.getProductById(1L).setPrice(BigDecimal.ZERO);
+        service.getVersionedProduct(1L).getProduct().setName("Changed");
+        service.listProducts(request).getItems().getFirst().setQuantity(0);
+
+        assertThat(service.getProductById(1L)).isNotSameAs(service.getProductById(1L));
+        assertThat(service.getProductById(1L).getPrice()).isEqualByComparingTo("9.99");
+        assertThat(service.getProductById(1L).getName()).isEqualTo("Cosmic Milk v1");
+        assertThat(service.listProducts(request).getItems().getFirst().getQuantity()).isEqualTo(5);
+    }
+
+    private static VersionedProductDTO versioned(long version) {
+        return new VersionedProductDTO(version, new ProductDTO(1L, "Cosmic Milk v" + version, "Tasty milk",
+                new BigDecimal("9.99"), 5, "COSMIC_FOOD", "AVAILABLE"));
+    }
+}
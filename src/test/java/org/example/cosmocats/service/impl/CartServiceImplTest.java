@@ -0,0 +1,121 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.dto.CartDTO;
+import org.example.cosmocats.dto.CartItemDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.mapper.CartMapperImpl;
+import org.example.cosmocats.repository.impl.InMemoryCartRepository;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.CartNotFoundException;
+import org.example.cosmocats.service.exception.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CartServiceImplTest {
+
+    private final InMemoryCartRepository cartRepository = new InMemoryCartRepository();
+    private final ProductService productService = mock(ProductService.class);
+    private CartServiceImpl cartService = cartService(Duration.ofMinutes(15));
+
+    @BeforeEach
+    void priceProducts() {
+        when(productService.reserveStock(anyLong(), anyInt())).thenAnswer(invocation -> {
+            ProductDTO product = new ProductDTO();
+            product.setId(invocation.getArgument(0));
+            product.setPrice(new BigDecimal("1.25"));
+            return product;
+        });
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        cartService.shutdown();
+    }
+
+    @Test
+    void addingAnItemReservesItsStock() {
+        long cartId = cartService.createCart().getId();
+
+        CartDTO cart = cartService.addItem(cartId, new CartItemDTO(7L, 3));
+
+        verify(productService).reserveStock(7L, 3);
+        assertThat(cart.getTotalPrice()).isEqualByComparingTo("3.75");
+        assertThat(cart.getItems()).extracting(CartItemDTO::getProductId, CartItemDTO::getQuantity)
+                .containsExactly(tuple(7L, 3));
+    }
+
+    @Test
+    void aRefusedReservationLeavesTheCartUnchanged() {
+        long cartId = cartService.createCart().getId();
+        doThrow(new InsufficientStockException("sold out")).when(productService).reserveStock(7L, 3);
+
+        assertThatThrownBy(() -> cartService.addItem(cartId, new CartItemDTO(7L, 3)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(cartService.getCartById(cartId).getItems()).isEmpty();
+        verify(productService, never()).releaseStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void stockIsReleasedWhenTheCartGoesAwayDuringTheReservation() {
+        long cartId = cartService.createCart().getId();
+        doAnswer(invocation -> {
+            cartService.deleteCart(cartId);
+            return null;
+        }).when(productService).reserveStock(7L, 3);
+
+        assertThatThrownBy(() -> cartService.addItem(cartId, new CartItemDTO(7L, 3)))
+                .isInstanceOf(CartNotFoundException.class);
+
+        verify(productService).releaseStock(7L, 3);
+    }
+
+    @Test
+    void removingAnItemReleasesWhatItReserved() {
+        long cartId = cartService.createCart().getId();
+        cartService.addItem(cartId, new CartItemDTO(7L, 3));
+        cartService.addItem(cartId, new CartItemDTO(7L, 2));
+
+        CartDTO cart = cartService.removeItem(cartId, 7L);
+        cartService.removeItem(cartId, 7L);
+
+        assertThat(cart.getItems()).isEmpty();
+        assertThat(cart.getTotalPrice()).isEqualByComparingTo("0");
+        verify(productService).releaseStock(7L, 5);
+    }
+
+    @Test
+    void anExpiredCartReleasesItsReservations() throws InterruptedException {
+        cartService.shutdown();
+        cartService = cartService(Duration.ofSeconds(1));
+        long cartId = cartService.createCart().getId();
+        cartService.addItem(cartId, new CartItemDTO(7L, 3));
+        cartService.addItem(cartId, new CartItemDTO(8L, 1));
+
+        verify(productService, timeout(5_000)).releaseStock(7L, 3);
+        verify(productService, timeout(5_000)).releaseStock(8L, 1);
+        assertThat(cartRepository.findById(cartId)).isEmpty();
+        assertThatThrownBy(() -> cartService.getCartById(cartId)).isInstanceOf(CartNotFoundException.class);
+    }
+
+    private CartServiceImpl cartService(Duration reservationTtl) {
+        return new CartServiceImpl(cartRepository, productService, new CartMapperImpl(), reservationTtl);
+    }
+}
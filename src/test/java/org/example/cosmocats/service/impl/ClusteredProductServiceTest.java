@@ -0,0 +1,99 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.cluster.ClusterClient;
+import org.example.cosmocats.cluster.ClusterMembership;
+import org.example.cosmocats.cluster.ClusterNode;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.dto.VersionedProductDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClusteredProductServiceTest {
+
+    private final ClusterMembership membership =
+            new ClusterMembership(1, URI.create("http://localhost:8081"), List.of("2=http://localhost:8082"), 128, "heap");
+    private final ClusterNode peer = membership.current().members().get(1);
+    private final ProductServiceImpl store = mock(ProductServiceImpl.class);
+    private final ClusterClient clusterClient = mock(ClusterClient.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<CachingProductService> noCache = mock(ObjectProvider.class);
+    private ClusteredProductService service;
+
+    @AfterEach
+    void close() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void aRemoteProductIsFetchedOnceWithItsVersion() {
+        service = service(Duration.ofMinutes(1));
+        long remoteId = LongStream.rangeClosed(1, 10_000).filter(id -> !membership.isLocal(id)).findFirst().orElseThrow();
+        VersionedProductDTO snapshot = new VersionedProductDTO(7, new ProductDTO());
+        when(clusterClient.getProduct(peer, remoteId)).thenReturn(snapshot);
+
+        assertThat(service.getVersionedProduct(remoteId)).isSameAs(snapshot);
+        verify(clusterClient, times(1)).getProduct(peer, remoteId);
+    }
+
+    @Test
+    void theOtherNodesCatalogVersionsAreKeptBetweenListings() {
+        service = service(Duration.ofMinutes(1));
+        when(store.getCatalogVersion()).thenReturn(10L, 11L);
+        when(clusterClient.getCatalogVersion(peer)).thenReturn(100L);
+
+        assertThat(service.getCatalogVersion()).isEqualTo(110);
+        // This node's own share is always read fresh.
+        assertThat(service.getCatalogVersion()).isEqualTo(111);
+        verify(clusterClient, times(1)).getCatalogVersion(peer);
+    }
+
+    @Test
+    void aForwardedWriteOrAnExpiredShareAsksTheOtherNodesAgain() {
+        service = service(Duration.ofMinutes(1));
+        long remoteId = LongStream.rangeClosed(1, 10_000).filter(id -> !membership.isLocal(id)).findFirst().orElseThrow();
+        when(store.getCatalogVersion()).thenReturn(10L);
+        when(clusterClient.getCatalogVersion(peer)).thenReturn(100L, 101L);
+
+        assertThat(service.getCatalogVersion()).isEqualTo(110);
+        service.deleteProduct(remoteId);
+        assertThat(service.getCatalogVersion()).isEqualTo(111);
+        verify(clusterClient, times(2)).getCatalogVersion(peer);
+
+        service.close();
+        service = service(Duration.ZERO);
+        service.getCatalogVersion();
+        service.getCatalogVersion();
+        verify(clusterClient, times(4)).getCatalogVersion(peer);
+    }
+
+    @Test
+    void aLocalProductNeverLeavesThisNode() {
+        service = service(Duration.ofMinutes(1));
+        long localId = LongStream.rangeClosed(1, 10_000).filter(membership::isLocal).findFirst().orElseThrow();
+        when(store.getVersionedProduct(localId)).thenReturn(new VersionedProductDTO(3, new ProductDTO()));
+
+        assertThat(service.getVersionedProduct(localId).getVersion()).isEqualTo(3);
+        verify(clusterClient, never()).getProduct(any(), anyLong());
+    }
+
+    private ClusteredProductService service(Duration catalogVersionTtl) {
+        return new ClusteredProductService(noCache, store, membership, clusterClient, catalogVersionTtl);
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.common.OrderStatus;
+import org.example.cosmocats.domain.Order;
+import org.example.cosmocats.domain.OrderItem;
+import org.example.cosmocats.dto.StockReservationDTO;
+import org.example.cosmocats.repository.impl.InMemoryOrderRepository;
+import org.example.cosmocats.service.ProductService;
+import org.example.cosmocats.service.exception.ProductNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderPipelineTest {
+
+    private static final BigDecimal UNIT_PRICE = new BigDecimal("2.50");
+
+    private final ProductService productService = mock(ProductService.class);
+    private final FailingOrderRepository orderRepository = new FailingOrderRepository();
+    private final OrderPipeline orderPipeline = new OrderPipeline(orderRepository, productService, 100, 512);
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        orderPipeline.shutdown();
+    }
+
+    @Test
+    void aProductThatCannotBeReservedOnlyCancelsTheOrdersForIt() throws Exception {
+        when(productService.reserveUpTo(eq(1L), anyInt())).thenAnswer(invocation -> reserved(invocation.getArgument(1)));
+        when(productService.reserveUpTo(eq(2L), anyInt())).thenThrow(new ProductNotFoundException("gone"));
+
+        List<Order> settled = settle(order(item(1L, 2)), order(item(1L, 3), item(2L, 1)));
+
+        assertThat(settled).extracting(Order::getStatus).containsExactly(OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+        assertThat(settled.get(0).getTotalAmount()).isEqualByComparingTo("5.00");
+        assertThat(settled.get(0).getItems()).extracting(OrderItem::getUnitPrice).containsExactly(UNIT_PRICE);
+        assertThat(settled.get(1).getFailureReason()).isEqualTo("Could not reserve product 2");
+        assertThat(stored(settled.get(1)).getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verify(productService, timeout(1_000)).releaseStock(1L, 3);
+    }
+
+    @Test
+    void anOrderThatFailsToConfirmIsCancelledAndItsStockReleased() throws Exception {
+        when(productService.reserveUpTo(eq(1L), anyInt())).thenAnswer(invocation -> reserved(invocation.getArgument(1)));
+        Order failing = order(item(1L, 4));
+        orderRepository.failNextUpdateOf(failing.getId());
+
+        List<Order> settled = settle(order(item(1L, 1)), failing);
+
+        assertThat(settled).extracting(Order::getStatus).containsExactly(OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+        assertThat(stored(failing).getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verify(productService, timeout(1_000)).releaseStock(1L, 4);
+    }
+
+    @Test
+    void aBatchWhoseStockIsAllHandedOutReleasesNothing() throws Exception {
+        when(productService.reserveUpTo(eq(1L), anyInt())).thenAnswer(invocation -> reserved(invocation.getArgument(1)));
+
+        List<Order> settled = settle(order(item(1L, 1)), order(item(1L, 2)));
+
+        assertThat(settled).extracting(Order::getStatus).containsOnly(OrderStatus.CONFIRMED);
+        orderPipeline.shutdown();
+        verify(productService, never()).releaseStock(anyLong(), anyInt());
+    }
+
+    private List<Order> settle(Order... orders) throws Exception {
+        List<CompletableFuture<Order>> completions = new ArrayList<>();
+        for (Order order : orders) {
+            completions.add(orderPipeline.submit(order));
+        }
+        List<Order> settled = new ArrayList<>();
+        for (CompletableFuture<Order> completion : completions) {
+            settled.add(completion.get(5, TimeUnit.SECONDS));
+        }
+        return settled;
+    }
+
+    private Order order(OrderItem... items) {
+        return orderRepository.create(new Order(null, List.of(items), null, OrderStatus.PENDING,
+                LocalDateTime.now(), null));
+    }
+
+    private Order stored(Order order) {
+        return orderRepository.findById(order.getId()).orElseThrow();
+    }
+
+    private static StockReservationDTO reserved(int quantity) {
+        return new StockReservationDTO(quantity, UNIT_PRICE);
+    }
+
+    private static OrderItem item(long productId, int quantity) {
+        return new OrderItem(productId, quantity, null);
+    }
+
+    private static final class FailingOrderRepository extends InMemoryOrderRepository {
+
+        private volatile Long failNextUpdateOf;
+
+        void failNextUpdateOf(Long orderId) {
+            failNextUpdateOf = orderId;
+        }
+
+        @Override
+        public Optional<Order> update(Long orderId, UnaryOperator<Order> updater) {
+            if (orderId.equals(failNextUpdateOf)) {
+                failNextUpdateOf = null;
+                throw new IllegalStateException("Order store unavailable");
+            }
+            return super.update(orderId, updater);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.cache.ProductJsonCache;
+import org.example.cosmocats.changes.ProductChangeLog;
+import org.example.cosmocats.codec.ProductBatchReader;
+import org.example.cosmocats.codec.ProductDtoCodec;
+import org.example.cosmocats.controller.ProductController;
+import org.example.cosmocats.mapper.ProductMapper;
+import org.example.cosmocats.service.ProductSearchService;
+import org.example.cosmocats.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cosmocats.domain.ProductFixtures.stored;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ProductChangeServiceImplTest {
+
+    private final ProductChangeLog changeLog = new ProductChangeLog(4);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(
+            mock(ProductService.class), mock(ProductSearchService.class),
+            new ProductChangeServiceImpl(changeLog, mock(ProductMapper.class), 10, Duration.ofSeconds(15)),
+            mock(ProductJsonCache.class), new ProductDtoCodec(), mock(ProductBatchReader.class))).build();
+
+    @AfterEach
+    void close() {
+        changeLog.close();
+    }
+
+    @Test
+    void aConsumerThatFellAWholeRingBehindIsToldToResync() throws Exception {
+        long lastSeen = changeLog.nextSequence();
+        for (int i = 1; i <= 6; i++) {
+            changeLog.onProductChanged(null, stored(i, i));
+        }
+
+        MvcResult result = mockMvc.perform(get("/v1/api/products/changes")
+                        .header("Last-Event-ID", Long.toString(lastSeen)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        String stream = result.getResponse().getContentAsString();
+        assertThat(stream).startsWith("event:resync\n").doesNotContain("event:change");
+        assertThat(stream).contains(
+                "\"requestedSequence\":" + (lastSeen + 1),
+                "\"oldestSequence\":" + changeLog.oldestSequence(),
+                "\"nextSequence\":" + changeLog.nextSequence());
+    }
+
+    @Test
+    void aConsumerWithinTheRingGetsTheChangesItMissed() throws Exception {
+        long from = changeLog.nextSequence();
+        for (int i = 1; i <= 3; i++) {
+            changeLog.onProductChanged(null, stored(i, i));
+        }
+
+        MvcResult result = mockMvc.perform(get("/v1/api/products/changes").param("fromSeq", Long.toString(from)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String expected = "id:" + (from + 2) + "\nevent:change\n";
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!result.getResponse().getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String stream = result.getResponse().getContentAsString();
+        assertThat(stream).contains("id:" + from + "\n", "id:" + (from + 1) + "\n", expected)
+                .doesNotContain("event:resync");
+    }
+}
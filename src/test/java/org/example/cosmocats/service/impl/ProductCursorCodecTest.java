@@ -0,0 +1,74 @@
+package org.example.cosmocats.service.impl;
+
+import org.example.cosmocats.common.ProductSortField;
+import org.example.cosmocats.domain.Product;
+import org.example.cosmocats.repository.ProductQuery;
+import org.example.cosmocats.repository.impl.InMemoryProductRepository;
+import org.example.cosmocats.service.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.cosmocats.domain.ProductFixtures.product;
+
+class ProductCursorCodecTest {
+
+    @Test
+    void cursorRoundTripsForEverySort() {
+        Product product = product("12.50");
+        product.setId(42L);
+
+        assertThat(ProductCursorCodec.position(ProductSortField.ID,
+                ProductCursorCodec.encode(ProductSortField.ID, product)))
+                .isEqualTo(new ProductCursorCodec.Position(null, 42L));
+        assertThat(ProductCursorCodec.position(ProductSortField.PRICE,
+                ProductCursorCodec.encode(ProductSortField.PRICE, product)))
+                .isEqualTo(new ProductCursorCodec.Position(new BigDecimal("12.50"), 42L));
+        assertThat(ProductCursorCodec.position(ProductSortField.UPDATED_AT,
+                ProductCursorCodec.encode(ProductSortField.UPDATED_AT, product)))
+                .isEqualTo(new ProductCursorCodec.Position(product.getUpdatedAt(), 42L));
+    }
+
+    @Test
+    void rejectsMalformedCursorsAndCursorsOfAnotherSort() {
+        Product product = product("1");
+        product.setId(1L);
+        String byPrice = ProductCursorCodec.encode(ProductSortField.PRICE, product);
+
+        assertThatThrownBy(() -> ProductCursorCodec.position(ProductSortField.ID, byPrice))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursorCodec.position(ProductSortField.ID, "not base64!"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursorCodec.position(ProductSortField.PRICE, "UFJJQ0V8eHw3"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void pagingByPriceVisitsEveryProductOnceDespiteTies() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        for (int i = 0; i < 50; i++) {
+            repository.create(product(String.valueOf(i % 7)));
+        }
+
+        List<Product> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductQuery.ProductQueryBuilder query = ProductQuery.builder().sort(ProductSortField.PRICE).limit(6);
+            if (cursor != null) {
+                ProductCursorCodec.decodeInto(query, ProductSortField.PRICE, cursor);
+            }
+            List<Product> page = repository.findPage(query.build());
+            visited.addAll(page);
+            cursor = page.size() == 6 ? ProductCursorCodec.encode(ProductSortField.PRICE, page.get(5)) : null;
+        } while (cursor != null);
+
+        assertThat(visited).extracting(Product::getId).doesNotHaveDuplicates().hasSize(50);
+        assertThat(visited).isSortedAccordingTo(
+                Comparator.comparing(Product::getPrice).thenComparing(Product::getId));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.cosmocats.service.impl;
+
+import jakarta.validation.Validation;
+import org.example.cosmocats.cache.ProductJsonCache;
+import org.example.cosmocats.common.BatchOperationType;
+import org.example.cosmocats.dto.ProductBatchItemResultDTO;
+import org.example.cosmocats.dto.ProductBatchOperationDTO;
+import org.example.cosmocats.dto.ProductBatchResultDTO;
+import org.example.cosmocats.dto.ProductDTO;
+import org.example.cosmocats.mapper.ProductMapper;
+import org.example.cosmocats.repository.ProductRepository;
+import org.example.cosmocats.service.CategoryService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ProductServiceImplBatchTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductServiceImpl productService = new ProductServiceImpl(productRepository,
+            mock(ProductMapper.class), Validation.buildDefaultValidatorFactory().getValidator(),
+            mock(ProductJsonCache.class), mock(CategoryService.class));
+
+    @Test
+    void anUnreadableItemFailsWithoutFailingTheOthers() {
+        ProductBatchResultDTO result = productService.applyBatch(List.of(
+                ProductBatchOperationDTO.unreadable(1L, Map.of("op", "Invalid value 'FOO'")),
+                new ProductBatchOperationDTO(BatchOperationType.DELETE, 2L, null, null)));
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults()).extracting(ProductBatchItemResultDTO::getIndex, ProductBatchItemResultDTO::getId)
+                .containsExactly(tuple(0, 1L),
+                        tuple(1, 2L));
+        assertThat(result.getResults().get(0).getErrors()).containsEntry("op", "Invalid value 'FOO'");
+        verify(productRepository).deleteById(2L);
+    }
+
+    @Test
+    void everyConstraintAPropertyBreaksIsReported() {
+        ProductDTO product = new ProductDTO(null, "x", "Tasty milk from intergalactic store",
+                new BigDecimal("15.50"), 1, "COSMIC_FOOD", null);
+
+        ProductBatchResultDTO result = productService.applyBatch(List.of(
+                new ProductBatchOperationDTO(BatchOperationType.CREATE, null, product, null)));
+
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults().get(0).getErrors().get("product.name"))
+                .contains("between 2 and 100 characters")
+                .contains("cosmic-related terms");
+    }
+}